@@ -0,0 +1,72 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: CartFixtures.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: CartFixtures
+ * Description: Builds carts of a given line count for the JMH benchmarks.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Deterministic cart payloads and entities shared by the benchmarks.
+ */
+final class CartFixtures {
+
+  private CartFixtures() {
+  }
+
+  static AppProperties properties() {
+    AppProperties properties = new AppProperties();
+    properties.setDefaultTaxRate(new BigDecimal("0.0825"));
+    properties.setDefaultShippingCost(new BigDecimal("4.99"));
+    return properties;
+  }
+
+  static ShoppingCartDto.CreateRequest createRequest(int itemCount) {
+    List<ShoppingCartDto.ItemPayload> items = new ArrayList<>(itemCount);
+    for (int i = 0; i < itemCount; i++) {
+      ShoppingCartDto.ItemPayload item = new ShoppingCartDto.ItemPayload();
+      item.setProductId("SKU-" + i);
+      item.setName("Product " + i);
+      item.setQuantity(1 + i % 5);
+      item.setUnitPrice(BigDecimal.valueOf(199 + i * 37L % 10_000, 2));
+      item.setCurrency("USD");
+      items.add(item);
+    }
+    ShoppingCartDto.DiscountPayload discount = new ShoppingCartDto.DiscountPayload();
+    discount.setCode("SAVE5");
+    discount.setAmount(new BigDecimal("5.00"));
+
+    ShoppingCartDto.CreateRequest request = new ShoppingCartDto.CreateRequest();
+    request.setUserId(UUID.nameUUIDFromBytes(("user-" + itemCount).getBytes()));
+    request.setCurrency("USD");
+    request.setItems(items);
+    request.setDiscounts(List.of(discount));
+    return request;
+  }
+
+  static ShoppingCart cart(ShoppingCartDto.CreateRequest request, ShoppingCartPricing pricing) {
+    ShoppingCartPricing.Quote quote = pricing.price(request);
+    ShoppingCart cart = new ShoppingCart();
+    cart.setId(UUID.nameUUIDFromBytes(request.getUserId().toString().getBytes()));
+    cart.setUserId(request.getUserId());
+    ShoppingCartService.applyTotals(cart, quote);
+    cart.replaceItems(ShoppingCartService.toItemEntities(request.getItems(), quote));
+    cart.replaceDiscounts(request.getDiscounts().stream()
+        .map(ShoppingCartService::toDiscountEntity)
+        .collect(Collectors.toList()));
+    return cart;
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartEncodingBenchmark.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartEncodingBenchmark
+ * Description: JMH benchmarks comparing JSON, CBOR and Smile encodings of cart responses.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.PayloadFormatConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures encoding and decoding of a cart response in each negotiable media type, with mappers derived from the
+ * default JSON mapper the way {@link PayloadFormatConfiguration} derives them. The encoded size of each format and
+ * cart size is printed when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingCartEncodingBenchmark {
+
+  @Param({"application/json", "application/cbor", "application/x-jackson-smile"})
+  private String format;
+
+  @Param({"1", "10", "100", "1000"})
+  private int items;
+
+  private ObjectWriter responseWriter;
+  private ObjectReader responseReader;
+  private ShoppingCartDto.Response response;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    ObjectMapper objectMapper = PayloadFormatConfiguration.mapperFor(
+        Jackson2ObjectMapperBuilder.json().build(), MediaType.parseMediaType(format));
+    responseWriter = objectMapper.writerFor(ShoppingCartDto.Response.class);
+    responseReader = objectMapper.readerFor(ShoppingCartDto.Response.class);
+
+    ShoppingCartPricing pricing = new ShoppingCartPricing(CartFixtures.properties());
+    response = ShoppingCartService.mapToResponse(CartFixtures.cart(CartFixtures.createRequest(items), pricing));
+    encoded = responseWriter.writeValueAsBytes(response);
+    System.out.printf("%n%s, %d items: %d bytes%n", format, items, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encodeResponse() throws IOException {
+    return responseWriter.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public ShoppingCartDto.Response decodeResponse() throws IOException {
+    return responseReader.readValue(encoded);
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartMappingBenchmark.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartMappingBenchmark
+ * Description: JMH benchmarks for pricing and entity/DTO mapping in ShoppingCartService.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CPU-bound work of a cart write and read: pricing the payload, building entities, applying totals,
+ * and mapping the aggregate back to a response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingCartMappingBenchmark {
+
+  @Param({"1", "10", "100", "1000"})
+  private int items;
+
+  private ShoppingCartPricing pricing;
+  private ShoppingCartDto.CreateRequest request;
+  private ShoppingCartPricing.Quote quote;
+  private ShoppingCart cart;
+
+  @Setup
+  public void setUp() {
+    pricing = new ShoppingCartPricing(CartFixtures.properties());
+    request = CartFixtures.createRequest(items);
+    quote = pricing.price(request);
+    cart = CartFixtures.cart(request, pricing);
+  }
+
+  @Benchmark
+  public ShoppingCartPricing.Quote price() {
+    return pricing.price(request);
+  }
+
+  @Benchmark
+  public List<ShoppingCartItem> toItemEntities() {
+    return ShoppingCartService.toItemEntities(request.getItems(), quote);
+  }
+
+  @Benchmark
+  public ShoppingCart applyTotals() {
+    ShoppingCart target = new ShoppingCart();
+    ShoppingCartService.applyTotals(target, quote);
+    return target;
+  }
+
+  @Benchmark
+  public ShoppingCartDto.Response mapToResponse() {
+    return ShoppingCartService.mapToResponse(cart);
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartPayloadBenchmark.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartPayloadBenchmark
+ * Description: JMH benchmarks for Jackson (de)serialization and Bean Validation of cart payloads.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the HTTP boundary of the API: reading a create payload, validating it, and writing a cart response. The
+ * mapper is built the way Spring MVC builds its default one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingCartPayloadBenchmark {
+
+  @Param({"1", "10", "100", "1000"})
+  private int items;
+
+  private ObjectReader createRequestReader;
+  private ObjectWriter responseWriter;
+  private ValidatorFactory validatorFactory;
+  private Validator validator;
+  private ShoppingCartDto.CreateRequest request;
+  private byte[] requestJson;
+  private ShoppingCartDto.Response response;
+
+  @Setup
+  public void setUp() throws IOException {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    createRequestReader = objectMapper.readerFor(ShoppingCartDto.CreateRequest.class);
+    responseWriter = objectMapper.writerFor(ShoppingCartDto.Response.class);
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+
+    ShoppingCartPricing pricing = new ShoppingCartPricing(CartFixtures.properties());
+    request = CartFixtures.createRequest(items);
+    requestJson = objectMapper.writeValueAsBytes(request);
+    response = ShoppingCartService.mapToResponse(CartFixtures.cart(request, pricing));
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public ShoppingCartDto.CreateRequest deserializeCreateRequest() throws IOException {
+    return createRequestReader.readValue(requestJson);
+  }
+
+  @Benchmark
+  public byte[] serializeResponse() throws IOException {
+    return responseWriter.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<ShoppingCartDto.CreateRequest>> validateCreateRequest() {
+    return validator.validate(request);
+  }
+}
@@ -0,0 +1,223 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.database
+ * File: ShoppingCartPartitioningBenchmark.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartPartitioningBenchmark
+ * Description: JMH benchmarks comparing insert and lookup throughput of the line item table unpartitioned and
+ *              hash-partitioned on the cart id, against a running PostgreSQL.
+ */
+package com.bobwares.shoppingcart.database;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single-line inserts and whole-cart line lookups on {@code rows} lines, ten per cart. {@code partitions=0}
+ * is the unpartitioned table with the indexes of {@code 01_shopping_cart_tables.sql}; any other value is the
+ * hash-partitioned table of {@code 07_shopping_cart_line_partitions.sql} with that many partitions. Each layout is
+ * loaded into a schema of its own in the database given by the application's {@code DATABASE_*} variables, indexed
+ * after loading, and reused by later runs with the same row count, since loading 100M lines takes a while. The size
+ * of the table and its largest index is printed when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class ShoppingCartPartitioningBenchmark {
+
+  private static final int LINES_PER_CART = 10;
+  private static final int CARTS_PER_LOAD = 1_000_000;
+
+  @Param({"0", "16"})
+  private int partitions;
+
+  @Param({"100000000"})
+  private long rows;
+
+  private String schema;
+  private long carts;
+
+  @Setup
+  public void setUp() throws SQLException {
+    schema = partitions == 0 ? "cart_bench_plain" : "cart_bench_hash_" + partitions;
+    carts = rows / LINES_PER_CART;
+    try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+      if (!loaded(statement)) {
+        load(statement);
+      }
+      try (ResultSet rs = statement.executeQuery("""
+          WITH tables AS (SELECT relid FROM pg_partition_tree('%1$s.shopping_cart_item')
+                          UNION SELECT '%1$s.shopping_cart_item'::regclass)
+          SELECT pg_size_pretty(sum(pg_total_relation_size(relid))),
+                 pg_size_pretty((SELECT max(pg_relation_size(indexrelid)) FROM pg_index
+                                 WHERE indrelid IN (SELECT relid FROM tables)))
+          FROM tables""".formatted(schema))) {
+        rs.next();
+        System.out.printf("%n%s, %d rows: %s with indexes, largest index %s%n", schema, rows, rs.getString(1),
+            rs.getString(2));
+      }
+    }
+  }
+
+  /**
+   * Connection and statements of one benchmark thread.
+   */
+  @State(Scope.Thread)
+  public static class Session {
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement lookup;
+    private long carts;
+
+    @Setup
+    public void open(ShoppingCartPartitioningBenchmark benchmark) throws SQLException {
+      carts = benchmark.carts;
+      connection = connect();
+      insert = connection.prepareStatement("""
+          INSERT INTO %s.shopping_cart_item
+              (shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price)
+          VALUES (?, ?, 'Benchmark', 1, 9.99, 'USD', 9.99)""".formatted(benchmark.schema));
+      lookup = connection.prepareStatement("""
+          SELECT cart_item_id, product_id, name, quantity, unit_price, currency, total_price
+          FROM %s.shopping_cart_item
+          WHERE shopping_cart_id = ?""".formatted(benchmark.schema));
+    }
+
+    @TearDown
+    public void close() throws SQLException {
+      connection.close();
+    }
+
+    UUID randomCart() {
+      return cartId(1 + ThreadLocalRandom.current().nextLong(carts));
+    }
+  }
+
+  @Benchmark
+  public int insertItem(Session session) throws SQLException {
+    session.insert.setObject(1, session.randomCart());
+    session.insert.setString(2, "B-" + UUID.randomUUID());
+    return session.insert.executeUpdate();
+  }
+
+  @Benchmark
+  public int lookupCart(Session session) throws SQLException {
+    session.lookup.setObject(1, session.randomCart());
+    int lines = 0;
+    try (ResultSet rs = session.lookup.executeQuery()) {
+      while (rs.next()) {
+        lines += rs.getInt("quantity");
+      }
+    }
+    return lines;
+  }
+
+  private boolean loaded(Statement statement) throws SQLException {
+    try (ResultSet rs = statement.executeQuery(
+        "SELECT obj_description(to_regclass('%s.shopping_cart_item'), 'pg_class')".formatted(schema))) {
+      return rs.next() && ("rows=" + rows).equals(rs.getString(1));
+    }
+  }
+
+  private void load(Statement statement) throws SQLException {
+    System.out.printf("%nLoading %d rows into %s%n", rows, schema);
+    statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+    statement.execute("CREATE SCHEMA " + schema);
+    statement.execute("CREATE TABLE %s.shopping_cart (shopping_cart_id UUID PRIMARY KEY)".formatted(schema));
+    statement.execute("""
+        CREATE TABLE %s.shopping_cart_item (
+            cart_item_id UUID NOT NULL DEFAULT gen_random_uuid(),
+            shopping_cart_id UUID NOT NULL,
+            product_id VARCHAR(64) NOT NULL,
+            name VARCHAR(255) NOT NULL,
+            quantity INTEGER NOT NULL CHECK (quantity > 0),
+            unit_price NUMERIC(12, 2) NOT NULL CHECK (unit_price >= 0),
+            currency CHAR(3) NOT NULL,
+            total_price NUMERIC(12, 2) NOT NULL CHECK (total_price >= 0)
+        )""".formatted(schema) + (partitions == 0 ? "" : " PARTITION BY HASH (shopping_cart_id)"));
+    for (int remainder = 0; remainder < partitions; remainder++) {
+      statement.execute(("CREATE TABLE %1$s.shopping_cart_item_p%2$d PARTITION OF %1$s.shopping_cart_item"
+          + " FOR VALUES WITH (MODULUS %3$d, REMAINDER %2$d)").formatted(schema, remainder, partitions));
+    }
+
+    for (long first = 1; first <= carts; first += CARTS_PER_LOAD) {
+      long last = Math.min(carts, first + CARTS_PER_LOAD - 1);
+      statement.execute("""
+          INSERT INTO %s.shopping_cart
+          SELECT md5(c::text)::uuid FROM generate_series(%d, %d) c""".formatted(schema, first, last));
+      statement.execute("""
+          INSERT INTO %s.shopping_cart_item
+              (shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price)
+          SELECT md5(c::text)::uuid, 'SKU-' || p, 'Product ' || p, 1 + p %% 5, 9.99, 'USD', 9.99 * (1 + p %% 5)
+          FROM generate_series(%d, %d) c, generate_series(1, %d) p""".formatted(schema, first, last, LINES_PER_CART));
+    }
+
+    String table = schema + ".shopping_cart_item";
+    if (partitions == 0) {
+      statement.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (cart_item_id)");
+      statement.execute("CREATE INDEX ON " + table + " (shopping_cart_id)");
+    } else {
+      statement.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (cart_item_id, shopping_cart_id)");
+    }
+    statement.execute("ALTER TABLE " + table + " ADD UNIQUE (shopping_cart_id, product_id)");
+    statement.execute("CREATE INDEX ON " + table + " (product_id)");
+    statement.execute("ALTER TABLE %s ADD FOREIGN KEY (shopping_cart_id) REFERENCES %s.shopping_cart ON DELETE CASCADE"
+        .formatted(table, schema));
+    statement.execute("VACUUM ANALYZE " + schema + ".shopping_cart");
+    statement.execute("VACUUM ANALYZE " + table);
+    statement.execute("COMMENT ON TABLE " + table + " IS 'rows=" + rows + "'");
+  }
+
+  private static Connection connect() throws SQLException {
+    String url = "jdbc:postgresql://%s:%s/%s".formatted(env("DATABASE_HOST", "localhost"), env("DATABASE_PORT", "5432"),
+        env("DATABASE_NAME", "shoppingcart"));
+    return DriverManager.getConnection(url, env("DATABASE_USERNAME", "shoppingcart"),
+        env("DATABASE_PASSWORD", "shoppingcart"));
+  }
+
+  private static String env(String name, String fallback) {
+    String value = System.getenv(name);
+    return value == null || value.isBlank() ? fallback : value;
+  }
+
+  /** The id PostgreSQL's {@code md5(n::text)::uuid} gives the n-th loaded cart. */
+  private static UUID cartId(long n) {
+    try {
+      ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("MD5").digest(Long.toString(n).getBytes()));
+      return new UUID(digest.getLong(), digest.getLong());
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
@@ -15,12 +15,15 @@ package com.bobwares.shoppingcart;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
- * Entry point that launches the Spring Boot application and enables configuration property scanning.
+ * Entry point that launches the Spring Boot application and enables configuration property scanning and scheduled
+ * maintenance tasks.
  */
 @SpringBootApplication
 @ConfigurationPropertiesScan("com.bobwares.shoppingcart.config")
+@EnableScheduling
 public class Application {
 
   /**
@@ -0,0 +1,24 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: CartVersionMismatchException.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: CartVersionMismatchException
+ * Description: Signals that a conditional write was made against a cart version that is no longer current.
+ */
+package com.bobwares.shoppingcart;
+
+import java.util.UUID;
+
+/**
+ * Raised when the version a client supplied through {@code If-Match} does not match the stored cart version.
+ */
+public class CartVersionMismatchException extends RuntimeException {
+
+  public CartVersionMismatchException(UUID id) {
+    super("Shopping cart " + id + " was modified since the supplied version");
+  }
+}
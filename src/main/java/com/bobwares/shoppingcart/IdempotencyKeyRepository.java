@@ -0,0 +1,167 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: IdempotencyKeyRepository.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: IdempotencyKeyRepository
+ * Description: Claims, completes and expires Idempotency-Key rows shared by every instance.
+ */
+package com.bobwares.shoppingcart;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Durable side of {@link IdempotentResponseStore}. Every statement is a single autocommit round trip keyed on the
+ * primary key, so claims never wait on each other.
+ *
+ * <p>A claim is an insert without a status code. It wins when the key is new or its row has expired, which covers
+ * both stale responses and claims abandoned by an instance that died mid-request.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+  private static final String CLAIM = """
+      INSERT INTO shopping_cart.idempotency_key (idempotency_key, request_hash, created_at, expires_at)
+      VALUES (:key, :requestHash, :now, :expiresAt)
+      ON CONFLICT (idempotency_key) DO UPDATE
+          SET request_hash = EXCLUDED.request_hash, status_code = NULL, content_type = NULL, etag = NULL,
+              location = NULL, set_cookie = NULL, body = NULL, created_at = EXCLUDED.created_at,
+              expires_at = EXCLUDED.expires_at
+          WHERE idempotency_key.expires_at <= EXCLUDED.created_at""";
+
+  private static final String FIND = """
+      SELECT request_hash, status_code, content_type, etag, location, set_cookie, body, expires_at
+      FROM shopping_cart.idempotency_key
+      WHERE idempotency_key = :key""";
+
+  private static final String COMPLETE = """
+      UPDATE shopping_cart.idempotency_key
+      SET status_code = :status, content_type = :contentType, etag = :eTag, location = :location,
+          set_cookie = :setCookie, body = :body, expires_at = :expiresAt
+      WHERE idempotency_key = :key AND request_hash = :requestHash AND status_code IS NULL""";
+
+  private static final String RELEASE = """
+      DELETE FROM shopping_cart.idempotency_key
+      WHERE idempotency_key = :key AND request_hash = :requestHash AND status_code IS NULL""";
+
+  private static final String DELETE_EXPIRED = """
+      DELETE FROM shopping_cart.idempotency_key
+      WHERE idempotency_key IN (
+          SELECT idempotency_key FROM shopping_cart.idempotency_key
+          WHERE expires_at <= :now
+          LIMIT :limit
+          FOR UPDATE SKIP LOCKED)""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public IdempotencyKeyRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Claims a key for execution.
+   *
+   * @param key client-supplied key
+   * @param requestHash fingerprint of the request
+   * @param now current time; rows expiring at or before it are reclaimed
+   * @param expiresAt when the claim lapses if it is never completed
+   * @return {@code true} when the caller now owns the key
+   */
+  public boolean claim(String key, byte[] requestHash, Instant now, Instant expiresAt) {
+    return jdbcTemplate.update(CLAIM, new MapSqlParameterSource("key", key)
+        .addValue("requestHash", requestHash)
+        .addValue("now", utc(now))
+        .addValue("expiresAt", utc(expiresAt))) == 1;
+  }
+
+  /**
+   * Reads a key claimed or completed by any instance.
+   *
+   * @param key client-supplied key
+   * @return the stored row, or empty when the key is unknown
+   */
+  public Optional<StoredKey> find(String key) {
+    return jdbcTemplate.query(FIND, new MapSqlParameterSource("key", key), IdempotencyKeyRepository::map)
+        .stream().findFirst();
+  }
+
+  /**
+   * Stores the response of a claimed request.
+   *
+   * @param key client-supplied key
+   * @param requestHash fingerprint the key was claimed with
+   * @param response response to replay until it expires
+   */
+  public void complete(String key, byte[] requestHash, IdempotentResponseStore.StoredResponse response) {
+    jdbcTemplate.update(COMPLETE, new MapSqlParameterSource("key", key)
+        .addValue("requestHash", requestHash)
+        .addValue("status", response.status())
+        .addValue("contentType", response.contentType())
+        .addValue("eTag", response.eTag())
+        .addValue("location", response.location())
+        .addValue("setCookie", response.cookies().isEmpty() ? null : String.join("\n", response.cookies()))
+        .addValue("body", response.body())
+        .addValue("expiresAt", utc(response.expiresAt())));
+  }
+
+  /**
+   * Gives up a claim without storing a response, so the next attempt executes the request.
+   *
+   * @param key client-supplied key
+   * @param requestHash fingerprint the key was claimed with
+   */
+  public void release(String key, byte[] requestHash) {
+    jdbcTemplate.update(RELEASE, new MapSqlParameterSource("key", key).addValue("requestHash", requestHash));
+  }
+
+  /**
+   * Deletes up to {@code limit} expired rows.
+   *
+   * @param now current time
+   * @param limit maximum number of rows to delete
+   * @return number of rows deleted
+   */
+  public int deleteExpired(Instant now, int limit) {
+    return jdbcTemplate.update(DELETE_EXPIRED, new MapSqlParameterSource("now", utc(now)).addValue("limit", limit));
+  }
+
+  private static OffsetDateTime utc(Instant instant) {
+    return instant.atOffset(ZoneOffset.UTC);
+  }
+
+  private static StoredKey map(ResultSet rs, int rowNum) throws SQLException {
+    Integer status = rs.getObject("status_code", Integer.class);
+    String setCookie = rs.getString("set_cookie");
+    IdempotentResponseStore.StoredResponse response = status == null ? null
+        : new IdempotentResponseStore.StoredResponse(
+            status,
+            rs.getString("content_type"),
+            rs.getString("etag"),
+            rs.getString("location"),
+            setCookie == null ? List.of() : List.of(setCookie.split("\n")),
+            rs.getBytes("body"),
+            rs.getObject("expires_at", OffsetDateTime.class).toInstant());
+    return new StoredKey(rs.getBytes("request_hash"), response);
+  }
+
+  /**
+   * Row of a claimed or completed key.
+   *
+   * @param requestHash fingerprint of the request that claimed the key
+   * @param response stored response, or {@code null} while the request is still executing
+   */
+  public record StoredKey(byte[] requestHash, IdempotentResponseStore.StoredResponse response) {
+  }
+}
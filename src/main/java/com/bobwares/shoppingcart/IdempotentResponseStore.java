@@ -0,0 +1,351 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: IdempotentResponseStore.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: IdempotentResponseStore
+ * Description: Two-tier store that executes each Idempotency-Key once and replays its response to retries.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a request carrying an {@code Idempotency-Key} runs or is answered from a stored response.
+ *
+ * <p>Completed responses live in a Caffeine cache in front of {@link IdempotencyKeyRepository}, so a retry that
+ * lands on the instance that served the original costs no database round trip. Duplicates that arrive while the
+ * original is still running on this instance wait on it in memory. A duplicate on another instance sees the
+ * database claim and polls for it. Only definitive outcomes are kept: a 5xx, a 409 from a write that lost an
+ * optimistic-lock race and a 429 tell the client to try again, so the claim is released and the next retry executes
+ * again.
+ *
+ * <p>Expired rows are deleted by a scheduled purge every {@code app.idempotency.purge-interval}.
+ */
+@Component
+public class IdempotentResponseStore implements SchedulingConfigurer {
+
+  static final String CACHE_NAME = "idempotent-responses";
+
+  private static final int PURGE_BATCH_SIZE = 1000;
+  private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final IdempotencyKeyRepository repository;
+  private final AppProperties.Idempotency settings;
+  private final Cache<String, Completed> completed;
+  private final ConcurrentHashMap<String, CompletableFuture<Completed>> executions = new ConcurrentHashMap<>();
+  private final MeterRegistry meterRegistry;
+  private final Counter storeFailures;
+
+  public IdempotentResponseStore(IdempotencyKeyRepository repository, AppProperties properties,
+      MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.settings = properties.getIdempotency();
+    this.completed = Caffeine.newBuilder()
+        .maximumWeight(settings.getMaximumSize().toBytes())
+        .weigher((String key, Completed entry) -> key.length() + entry.response().body().length
+            + entry.response().cookies().stream().mapToInt(String::length).sum())
+        .expireAfter(new ResponseExpiry())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, completed, CACHE_NAME);
+    this.meterRegistry = meterRegistry;
+    this.storeFailures = meterRegistry.counter("shopping.cart.idempotency.store.failures");
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    if (settings.isEnabled()) {
+      registrar.addFixedDelayTask(
+          new FixedDelayTask(this::purgeExpired, settings.getPurgeInterval(), settings.getPurgeInterval()));
+    }
+  }
+
+  /**
+   * Claims a key for execution, or finds the response it should be answered with. Blocks for up to
+   * {@code app.idempotency.wait-timeout} while another request with the same key is running.
+   *
+   * @param key client-supplied key
+   * @param requestHash fingerprint of the request, compared against the one the key was first used with
+   * @return what the caller should do with the request
+   */
+  public Claim claim(String key, byte[] requestHash) {
+    long deadline = System.nanoTime() + settings.getWaitTimeout().toNanos();
+    while (true) {
+      Completed done = completed.getIfPresent(key);
+      if (done != null) {
+        return answer(done, requestHash);
+      }
+
+      CompletableFuture<Completed> own = new CompletableFuture<>();
+      CompletableFuture<Completed> running = executions.putIfAbsent(key, own);
+      if (running != null) {
+        Optional<Completed> result;
+        try {
+          result = await(running, deadline);
+        } catch (TimeoutException ex) {
+          return record(new Claim(Outcome.IN_PROGRESS, null, key, requestHash, null));
+        }
+        if (result.isPresent()) {
+          return answer(result.get(), requestHash);
+        }
+        continue;
+      }
+
+      Optional<IdempotencyKeyRepository.StoredKey> stored;
+      try {
+        Instant now = Instant.now();
+        if (repository.claim(key, requestHash, now, now.plus(settings.getLockTimeout()))) {
+          return record(new Claim(Outcome.EXECUTE, null, key, requestHash, own));
+        }
+        stored = repository.find(key);
+      } catch (RuntimeException ex) {
+        abandon(key, own);
+        throw ex;
+      }
+
+      if (stored.isPresent() && stored.get().response() != null) {
+        Completed found = new Completed(stored.get().requestHash(), stored.get().response());
+        completed.put(key, found);
+        executions.remove(key, own);
+        own.complete(found);
+        return answer(found, requestHash);
+      }
+      abandon(key, own);
+      if (stored.isPresent() && !Arrays.equals(stored.get().requestHash(), requestHash)) {
+        return record(new Claim(Outcome.MISMATCH, null, key, requestHash, null));
+      }
+      // Running on another instance, or released just now: poll until it finishes or the wait runs out.
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0 || !pause(Math.min(remaining, POLL_INTERVAL_NANOS))) {
+        return record(new Claim(Outcome.IN_PROGRESS, null, key, requestHash, null));
+      }
+    }
+  }
+
+  /**
+   * Stores the response of an executed request and hands it to any duplicates waiting on this instance. A response
+   * the client is expected to retry (5xx, 409 or 429) releases the claim instead. A failure to write the database row
+   * is counted, not thrown: the client still gets its response, and this instance still replays it.
+   *
+   * @param claim claim returned with {@link Outcome#EXECUTE}
+   * @param response response the request produced
+   */
+  public void complete(Claim claim, StoredResponse response) {
+    if (retryable(response.status())) {
+      release(claim);
+      return;
+    }
+    Completed done = new Completed(claim.requestHash, response);
+    completed.put(claim.key, done);
+    executions.remove(claim.key, claim.execution);
+    claim.execution.complete(done);
+    try {
+      repository.complete(claim.key, claim.requestHash, response);
+    } catch (DataAccessException ex) {
+      storeFailures.increment();
+    }
+  }
+
+  /**
+   * Gives up a claim without a response, so the next request with the key executes.
+   *
+   * @param claim claim returned with {@link Outcome#EXECUTE}
+   */
+  public void release(Claim claim) {
+    try {
+      repository.release(claim.key, claim.requestHash);
+    } catch (DataAccessException ex) {
+      // the claim lapses after app.idempotency.lock-timeout
+      storeFailures.increment();
+    } finally {
+      abandon(claim.key, claim.execution);
+    }
+  }
+
+  /**
+   * Deletes every expired key, in batches.
+   *
+   * @return number of keys deleted
+   */
+  public int purgeExpired() {
+    Instant now = Instant.now();
+    int total = 0;
+    int deleted;
+    do {
+      deleted = repository.deleteExpired(now, PURGE_BATCH_SIZE);
+      total += deleted;
+    } while (deleted == PURGE_BATCH_SIZE);
+    return total;
+  }
+
+  /**
+   * When a stored response expires, measured from now.
+   *
+   * @return expiry for a response completed now
+   */
+  public Instant responseExpiry() {
+    return Instant.now().plus(settings.getTtl());
+  }
+
+  private static boolean retryable(int status) {
+    return status >= 500 || status == HttpStatus.CONFLICT.value() || status == HttpStatus.TOO_MANY_REQUESTS.value();
+  }
+
+  private Claim answer(Completed done, byte[] requestHash) {
+    Outcome outcome = Arrays.equals(done.requestHash(), requestHash) ? Outcome.REPLAY : Outcome.MISMATCH;
+    return record(new Claim(outcome, outcome == Outcome.REPLAY ? done.response() : null, null, requestHash, null));
+  }
+
+  private Claim record(Claim claim) {
+    meterRegistry.counter("shopping.cart.idempotency.requests", "outcome", claim.outcome.tag).increment();
+    return claim;
+  }
+
+  private void abandon(String key, CompletableFuture<Completed> execution) {
+    executions.remove(key, execution);
+    execution.complete(null);
+  }
+
+  private static Optional<Completed> await(CompletableFuture<Completed> running, long deadline)
+      throws TimeoutException {
+    try {
+      return Optional.ofNullable(running.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TimeoutException("Interrupted while waiting for a duplicate request");
+    } catch (ExecutionException ex) {
+      return Optional.empty();
+    }
+  }
+
+  private static boolean pause(long nanos) {
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * What to do with a request that carries an idempotency key.
+   */
+  public enum Outcome {
+    /** The caller owns the key and must execute the request, then complete or release the claim. */
+    EXECUTE("executed"),
+    /** The key was already used for the same request; answer with {@link Claim#response()}. */
+    REPLAY("replayed"),
+    /** The key was already used for a different request. */
+    MISMATCH("mismatched"),
+    /** Another request with the key is still running after the wait timeout. */
+    IN_PROGRESS("in_progress");
+
+    private final String tag;
+
+    Outcome(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  /**
+   * Result of {@link #claim(String, byte[])}.
+   */
+  public static final class Claim {
+
+    private final Outcome outcome;
+    private final StoredResponse response;
+    private final String key;
+    private final byte[] requestHash;
+    private final CompletableFuture<Completed> execution;
+
+    private Claim(Outcome outcome, StoredResponse response, String key, byte[] requestHash,
+        CompletableFuture<Completed> execution) {
+      this.outcome = outcome;
+      this.response = response;
+      this.key = key;
+      this.requestHash = requestHash;
+      this.execution = execution;
+    }
+
+    public Outcome outcome() {
+      return outcome;
+    }
+
+    public StoredResponse response() {
+      return response;
+    }
+  }
+
+  /**
+   * Response kept for replay.
+   *
+   * @param status HTTP status code
+   * @param contentType {@code Content-Type}, or {@code null} without a body
+   * @param eTag {@code ETag} header, if any
+   * @param location {@code Location} header, if any
+   * @param cookies {@code Set-Cookie} header values, in order
+   * @param body response body bytes
+   * @param expiresAt when the response stops being replayed
+   */
+  public record StoredResponse(int status, String contentType, String eTag, String location, List<String> cookies,
+      byte[] body, Instant expiresAt) {
+
+    public StoredResponse {
+      cookies = List.copyOf(cookies);
+    }
+  }
+
+  /**
+   * Expires each cached response when its stored row does, whatever tier it was loaded from.
+   */
+  private static final class ResponseExpiry implements Expiry<String, Completed> {
+
+    @Override
+    public long expireAfterCreate(String key, Completed entry, long currentTime) {
+      return Duration.between(Instant.now(), entry.response().expiresAt()).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Completed entry, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, entry, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, Completed entry, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+
+  /**
+   * Completed response together with the fingerprint of the request that produced it.
+   */
+  private record Completed(byte[] requestHash, StoredResponse response) {
+  }
+}
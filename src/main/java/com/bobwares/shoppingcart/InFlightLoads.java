@@ -0,0 +1,92 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: InFlightLoads.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: InFlightLoads
+ * Description: Per-key invalidation generations of cache loads in progress, so a load is discarded only when its own
+ *              key was invalidated while it ran.
+ */
+package com.bobwares.shoppingcart;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the cache loads in progress by key. A load registers before it reads and checks {@link Load#invalidated()}
+ * after it has put its result into the cache; an invalidation of the same key in between bumps the key's generation,
+ * and the load then drops what it put. Keys are only held while a load is in progress, so the map stays as small as
+ * the number of concurrent loads.
+ *
+ * @param <K> cache key type
+ */
+final class InFlightLoads<K> {
+
+  private final ConcurrentMap<K, Generation> generations = new ConcurrentHashMap<>();
+
+  /**
+   * Registers a load of {@code key}; close the returned handle when the load is done.
+   *
+   * @param key key being loaded
+   * @return handle of the load
+   */
+  Load start(K key) {
+    Generation generation = generations.compute(key, (k, current) -> {
+      Generation next = current == null ? new Generation() : current;
+      next.loads++;
+      return next;
+    });
+    return new Load(key, generation, generation.value.get());
+  }
+
+  /**
+   * Marks every load of {@code key} in progress as stale. Must run before the cached entry itself is removed.
+   *
+   * @param key invalidated key
+   */
+  void invalidate(K key) {
+    generations.computeIfPresent(key, (k, generation) -> {
+      generation.value.incrementAndGet();
+      return generation;
+    });
+  }
+
+  /**
+   * Handle of one load in progress.
+   */
+  final class Load implements AutoCloseable {
+
+    private final K key;
+    private final Generation generation;
+    private final long started;
+
+    private Load(K key, Generation generation, long started) {
+      this.key = key;
+      this.generation = generation;
+      this.started = started;
+    }
+
+    /**
+     * Whether the key was invalidated since the load started.
+     */
+    boolean invalidated() {
+      return generation.value.get() != started;
+    }
+
+    @Override
+    public void close() {
+      generations.computeIfPresent(key, (k, current) -> --current.loads == 0 ? null : current);
+    }
+  }
+
+  private static final class Generation {
+
+    private final AtomicLong value = new AtomicLong();
+    // Guarded by the map entry.
+    private int loads;
+  }
+}
@@ -0,0 +1,38 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: InvalidAmountException.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: InvalidAmountException
+ * Description: Signals that a client-supplied amount is finer than the minor unit of its currency, or that an amount
+ *              is larger than the money columns can store.
+ */
+package com.bobwares.shoppingcart;
+
+import java.math.BigDecimal;
+
+/**
+ * Raised when an amount has more decimal places than its currency's minor unit, so it cannot be stored or priced
+ * exactly, or when an amount supplied or computed from the request is too large to store.
+ */
+public class InvalidAmountException extends IllegalArgumentException {
+
+  private final String field;
+
+  public InvalidAmountException(String field, BigDecimal amount, int scale, Throwable cause) {
+    super(field + " " + amount.toPlainString() + " has more than " + scale + " decimal places", cause);
+    this.field = field;
+  }
+
+  public InvalidAmountException(String field, BigDecimal limit, Throwable cause) {
+    super("Amount from " + field + " exceeds the largest storable amount " + limit.toPlainString(), cause);
+    this.field = field;
+  }
+
+  public String getField() {
+    return field;
+  }
+}
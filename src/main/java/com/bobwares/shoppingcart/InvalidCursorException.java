@@ -0,0 +1,22 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: InvalidCursorException.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: InvalidCursorException
+ * Description: Signals that a pagination continuation token could not be decoded.
+ */
+package com.bobwares.shoppingcart;
+
+/**
+ * Raised when a client supplies a continuation token that was not issued by the API.
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+  public InvalidCursorException(String token) {
+    super("Invalid pagination cursor: " + token);
+  }
+}
@@ -0,0 +1,22 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: InvalidFieldSelectionException.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: InvalidFieldSelectionException
+ * Description: Signals that a read asked for an unknown view or for fields its view does not have.
+ */
+package com.bobwares.shoppingcart;
+
+/**
+ * Raised when a client supplies a {@code view} or {@code fields} parameter the cart read endpoints cannot serve.
+ */
+public class InvalidFieldSelectionException extends IllegalArgumentException {
+
+  public InvalidFieldSelectionException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,38 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: PricingMismatchException.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: PricingMismatchException
+ * Description: Signals that client-supplied cart amounts disagree with server-side pricing.
+ */
+package com.bobwares.shoppingcart;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Raised when a request carries totals that differ from the amounts computed by {@link ShoppingCartPricing}.
+ */
+public class PricingMismatchException extends RuntimeException {
+
+  private final Map<String, String> mismatches;
+
+  public PricingMismatchException(Map<String, String> mismatches) {
+    super("Cart amounts do not match server pricing");
+    this.mismatches = Collections.unmodifiableMap(new LinkedHashMap<>(mismatches));
+  }
+
+  /**
+   * Returns the mismatched fields with the amount the server expected for each.
+   *
+   * @return field path to expected amount
+   */
+  public Map<String, String> getMismatches() {
+    return mismatches;
+  }
+}
@@ -19,6 +19,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -27,9 +28,12 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -76,6 +80,15 @@ public class ShoppingCart {
   @Column(name = "currency", nullable = false, length = 3)
   private String currency;
 
+  @Column(name = "item_count", nullable = false)
+  private int itemCount;
+
+  @Column(name = "item_total", nullable = false, precision = 12, scale = 2)
+  private BigDecimal itemTotal = BigDecimal.ZERO;
+
+  @Column(name = "discount_total", nullable = false, precision = 12, scale = 2)
+  private BigDecimal discountTotal = BigDecimal.ZERO;
+
   @CreationTimestamp
   @Column(name = "created_at", nullable = false, updatable = false)
   private Instant createdAt;
@@ -84,6 +97,10 @@ public class ShoppingCart {
   @Column(name = "updated_at", nullable = false)
   private Instant updatedAt;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @OneToMany(
       mappedBy = "shoppingCart",
       cascade = CascadeType.ALL,
@@ -154,6 +171,35 @@ public class ShoppingCart {
     this.currency = currency;
   }
 
+  public int getItemCount() {
+    return itemCount;
+  }
+
+  public void setItemCount(int itemCount) {
+    this.itemCount = itemCount;
+  }
+
+  public BigDecimal getItemTotal() {
+    return itemTotal;
+  }
+
+  public void setItemTotal(BigDecimal itemTotal) {
+    this.itemTotal = itemTotal;
+  }
+
+  /**
+   * Discount applied to the cart: the sum of discount amounts, capped at the item total.
+   *
+   * @return applied discount
+   */
+  public BigDecimal getDiscountTotal() {
+    return discountTotal;
+  }
+
+  public void setDiscountTotal(BigDecimal discountTotal) {
+    this.discountTotal = discountTotal;
+  }
+
   public Instant getCreatedAt() {
     return createdAt;
   }
@@ -162,6 +208,17 @@ public class ShoppingCart {
     return updatedAt;
   }
 
+  public long getVersion() {
+    return version == null ? 0L : version;
+  }
+
+  /**
+   * Marks the cart row dirty so the flush issues a version-checked update even when only child rows changed.
+   */
+  public void markModified() {
+    updatedAt = Instant.now();
+  }
+
   public List<ShoppingCartItem> getItems() {
     return Collections.unmodifiableList(items);
   }
@@ -170,18 +227,45 @@ public class ShoppingCart {
     return Collections.unmodifiableList(discounts);
   }
 
+  /**
+   * Reconciles the cart lines with the supplied list, keyed on product id. Lines whose values are unchanged are left
+   * untouched, changed lines are updated in place, new products are added, and only products missing from the list
+   * are removed, so a flush writes one row per actual change.
+   *
+   * @param newItems desired cart lines
+   */
   public void replaceItems(List<ShoppingCartItem> newItems) {
-    items.clear();
-    if (newItems != null) {
-      newItems.forEach(this::addItem);
-    }
+    Map<String, ShoppingCartItem> incoming = indexBy(newItems, ShoppingCartItem::getProductId, "product");
+    items.removeIf(existing -> !incoming.containsKey(existing.getProductId()));
+    Map<String, ShoppingCartItem> current = indexBy(items, ShoppingCartItem::getProductId, "product");
+    incoming.forEach((productId, item) -> {
+      ShoppingCartItem existing = current.get(productId);
+      if (existing == null) {
+        addItem(item);
+      } else {
+        existing.updateFrom(item);
+      }
+    });
   }
 
+  /**
+   * Reconciles the cart discounts with the supplied list, keyed on discount code, with the same in-place semantics
+   * as {@link #replaceItems(List)}.
+   *
+   * @param newDiscounts desired cart discounts
+   */
   public void replaceDiscounts(List<ShoppingCartDiscount> newDiscounts) {
-    discounts.clear();
-    if (newDiscounts != null) {
-      newDiscounts.forEach(this::addDiscount);
-    }
+    Map<String, ShoppingCartDiscount> incoming = indexBy(newDiscounts, ShoppingCartDiscount::getCode, "discount");
+    discounts.removeIf(existing -> !incoming.containsKey(existing.getCode()));
+    Map<String, ShoppingCartDiscount> current = indexBy(discounts, ShoppingCartDiscount::getCode, "discount");
+    incoming.forEach((code, discount) -> {
+      ShoppingCartDiscount existing = current.get(code);
+      if (existing == null) {
+        addDiscount(discount);
+      } else {
+        existing.updateFrom(discount);
+      }
+    });
   }
 
   public void addItem(ShoppingCartItem item) {
@@ -198,6 +282,18 @@ public class ShoppingCart {
     }
   }
 
+  private static <T> Map<String, T> indexBy(List<T> values, Function<T, String> key, String kind) {
+    Map<String, T> index = new LinkedHashMap<>();
+    if (values != null) {
+      for (T value : values) {
+        if (value != null && index.putIfAbsent(key.apply(value), value) != null) {
+          throw new IllegalArgumentException("Duplicate " + kind + " in cart: " + key.apply(value));
+        }
+      }
+    }
+    return index;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
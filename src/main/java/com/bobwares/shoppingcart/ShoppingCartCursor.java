@@ -0,0 +1,74 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartCursor.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartCursor
+ * Description: Keyset position over (updated_at, shopping_cart_id) encoded as an opaque continuation token.
+ */
+package com.bobwares.shoppingcart;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last cart returned in a page, ordered by {@code updated_at DESC, shopping_cart_id DESC}.
+ *
+ * @param updatedAt last modification timestamp of the boundary cart
+ * @param id identifier of the boundary cart, used as the tie breaker
+ */
+public record ShoppingCartCursor(Instant updatedAt, UUID id) {
+
+  private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES;
+
+  /**
+   * Builds the cursor pointing just past the supplied cart.
+   *
+   * @param cart last cart of the current page
+   * @return cursor for the following page
+   */
+  public static ShoppingCartCursor after(ShoppingCart cart) {
+    return new ShoppingCartCursor(cart.getUpdatedAt(), cart.getId());
+  }
+
+  /**
+   * Encodes the cursor as a URL-safe token.
+   *
+   * @return opaque continuation token
+   */
+  public String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+        .putLong(updatedAt.getEpochSecond())
+        .putInt(updatedAt.getNano())
+        .putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * Decodes a continuation token previously produced by {@link #encode()}.
+   *
+   * @param token opaque continuation token
+   * @return decoded cursor
+   * @throws InvalidCursorException when the token is malformed
+   */
+  public static ShoppingCartCursor decode(String token) {
+    try {
+      byte[] bytes = Base64.getUrlDecoder().decode(token);
+      if (bytes.length != ENCODED_BYTES) {
+        throw new InvalidCursorException(token);
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      Instant updatedAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+      return new ShoppingCartCursor(updatedAt, new UUID(buffer.getLong(), buffer.getLong()));
+    } catch (IllegalArgumentException | DateTimeException ex) {
+      throw new InvalidCursorException(token);
+    }
+  }
+}
@@ -18,6 +18,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotBlank;
@@ -27,6 +28,7 @@ import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.UUID;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
@@ -52,6 +54,12 @@ public class ShoppingCartDiscount {
   @JoinColumn(name = "shopping_cart_id", nullable = false)
   private ShoppingCart shoppingCart;
 
+  /** Read-only cart id, the partition key; see {@link ShoppingCartItem}. */
+  @PartitionKey
+  @JdbcTypeCode(SqlTypes.UUID)
+  @Column(name = "shopping_cart_id", nullable = false, insertable = false, updatable = false)
+  private UUID shoppingCartId;
+
   @NotBlank
   @Size(max = 64)
   @Column(name = "code", nullable = false, length = 64)
@@ -89,6 +97,22 @@ public class ShoppingCartDiscount {
     this.amount = amount;
   }
 
+  /**
+   * Copies the amount of another discount with the same code onto this one when it differs.
+   *
+   * @param source discount carrying the desired amount
+   */
+  public void updateFrom(ShoppingCartDiscount source) {
+    if (amount == null || source.amount == null ? amount != source.amount : amount.compareTo(source.amount) != 0) {
+      amount = source.amount;
+    }
+  }
+
+  @PrePersist
+  void assignPartitionKey() {
+    shoppingCartId = shoppingCart.getId();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -0,0 +1,109 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartExpiryRepository.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartExpiryRepository
+ * Description: Keyset-ordered batch deletes of carts whose last update is older than a cutoff.
+ */
+package com.bobwares.shoppingcart;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Deletes expired carts in small batches, oldest first. Each batch is one autocommit statement, so row locks are
+ * held only for the batch. Items and discounts go with their cart through {@code ON DELETE CASCADE}, and no entity
+ * is ever loaded.
+ *
+ * <p>Batches walk {@code (updated_at, shopping_cart_id)} ascending from the previous batch's last row. This reads
+ * {@code idx_shopping_cart_updated_at_id} backwards and skips index entries the earlier batches left behind before
+ * vacuum. Carts locked by a concurrent write are skipped rather than waited on. The lock re-checks {@code updated_at},
+ * so a cart touched after it was selected survives.
+ */
+@Repository
+public class ShoppingCartExpiryRepository {
+
+  private static final String DELETE_BATCH = """
+      WITH expired AS (
+          SELECT shopping_cart_id FROM shopping_cart.shopping_cart
+          WHERE updated_at < :cutoff%s
+          ORDER BY updated_at, shopping_cart_id
+          LIMIT :limit
+          FOR UPDATE SKIP LOCKED),
+      purged AS (
+          DELETE FROM shopping_cart.shopping_cart c
+          USING expired e
+          WHERE c.shopping_cart_id = e.shopping_cart_id
+          RETURNING c.shopping_cart_id, c.updated_at)
+      SELECT shopping_cart_id, updated_at FROM purged
+      ORDER BY updated_at, shopping_cart_id""";
+
+  private static final String FIRST_BATCH = DELETE_BATCH.formatted("");
+
+  private static final String BATCH_AFTER = DELETE_BATCH.formatted(
+      " AND (updated_at, shopping_cart_id) > (:updatedAt, :id)");
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ShoppingCartExpiryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Deletes the oldest carts last updated before the cutoff.
+   *
+   * @param cutoff carts updated strictly before this instant are expired
+   * @param limit maximum number of carts to delete
+   * @return deleted carts in keyset order
+   */
+  public List<PurgedCart> deleteFirstBatch(Instant cutoff, int limit) {
+    return jdbcTemplate.query(FIRST_BATCH, new MapSqlParameterSource("cutoff", utc(cutoff))
+        .addValue("limit", limit), ShoppingCartExpiryRepository::map);
+  }
+
+  /**
+   * Deletes the oldest expired carts strictly after the supplied keyset position.
+   *
+   * @param cutoff carts updated strictly before this instant are expired
+   * @param after last cart deleted by the previous batch
+   * @param limit maximum number of carts to delete
+   * @return deleted carts in keyset order
+   */
+  public List<PurgedCart> deleteBatchAfter(Instant cutoff, PurgedCart after, int limit) {
+    return jdbcTemplate.query(BATCH_AFTER, new MapSqlParameterSource("cutoff", utc(cutoff))
+        .addValue("updatedAt", utc(after.updatedAt()))
+        .addValue("id", after.id())
+        .addValue("limit", limit), ShoppingCartExpiryRepository::map);
+  }
+
+  private static OffsetDateTime utc(Instant instant) {
+    return instant.atOffset(ZoneOffset.UTC);
+  }
+
+  private static PurgedCart map(ResultSet rs, int rowNum) throws SQLException {
+    return new PurgedCart(
+        rs.getObject("shopping_cart_id", UUID.class),
+        rs.getObject("updated_at", OffsetDateTime.class).toInstant());
+  }
+
+  /**
+   * Cart removed by a batch.
+   *
+   * @param id cart identifier
+   * @param updatedAt last modification timestamp, which is the keyset position for the next batch
+   */
+  public record PurgedCart(UUID id, Instant updatedAt) {
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartImportRepository.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartImportRepository
+ * Description: Set-based inserts of priced carts, items and discounts for the bulk import.
+ */
+package com.bobwares.shoppingcart;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes a batch of new carts with three statements regardless of batch size: one {@code INSERT ... SELECT FROM
+ * unnest(...)} per table, with every column bound as an array. Each statement is a single round trip and a single
+ * executor pass, which is what lets the import outrun per-row inserts.
+ *
+ * <p>Carts whose user already owns one are skipped by {@code ON CONFLICT (user_id) DO NOTHING}, which replaces the
+ * {@code existsByUserId} read of the single-cart create. Callers must run all three inserts in one transaction.
+ */
+@Repository
+public class ShoppingCartImportRepository {
+
+  private static final String INSERT_CARTS = """
+      INSERT INTO shopping_cart.shopping_cart
+          (shopping_cart_id, user_id, subtotal, tax, shipping, total, currency, item_count, item_total, discount_total)
+      SELECT * FROM unnest(:ids, :userIds, :subtotals, :taxes, :shippings, :totals, :currencies, :itemCounts,
+                           :itemTotals, :discountTotals)
+      ON CONFLICT (user_id) DO NOTHING
+      RETURNING shopping_cart_id""";
+
+  private static final String INSERT_ITEMS = """
+      INSERT INTO shopping_cart.shopping_cart_item
+          (shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price)
+      SELECT * FROM unnest(:cartIds, :productIds, :names, :quantities, :unitPrices, :currencies, :totalPrices)""";
+
+  private static final String INSERT_DISCOUNTS = """
+      INSERT INTO shopping_cart.shopping_cart_discount (shopping_cart_id, code, amount)
+      SELECT * FROM unnest(:cartIds, :codes, :amounts)""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ShoppingCartImportRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Inserts the cart rows of a batch, skipping carts for users that already have one.
+   *
+   * @param carts priced carts with identifiers assigned
+   * @return identifiers of the carts actually inserted
+   */
+  public Set<UUID> insertCarts(List<ShoppingCart> carts) {
+    int size = carts.size();
+    Object[] ids = new Object[size];
+    Object[] userIds = new Object[size];
+    Object[] subtotals = new Object[size];
+    Object[] taxes = new Object[size];
+    Object[] shippings = new Object[size];
+    Object[] totals = new Object[size];
+    Object[] currencies = new Object[size];
+    Object[] itemCounts = new Object[size];
+    Object[] itemTotals = new Object[size];
+    Object[] discountTotals = new Object[size];
+    for (int i = 0; i < size; i++) {
+      ShoppingCart cart = carts.get(i);
+      ids[i] = cart.getId();
+      userIds[i] = cart.getUserId();
+      subtotals[i] = cart.getSubtotal();
+      taxes[i] = cart.getTax();
+      shippings[i] = cart.getShipping();
+      totals[i] = cart.getTotal();
+      currencies[i] = cart.getCurrency();
+      itemCounts[i] = cart.getItemCount();
+      itemTotals[i] = cart.getItemTotal();
+      discountTotals[i] = cart.getDiscountTotal();
+    }
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("ids", new SqlArrayValue("uuid", ids))
+        .addValue("userIds", new SqlArrayValue("uuid", userIds))
+        .addValue("subtotals", new SqlArrayValue("numeric", subtotals))
+        .addValue("taxes", new SqlArrayValue("numeric", taxes))
+        .addValue("shippings", new SqlArrayValue("numeric", shippings))
+        .addValue("totals", new SqlArrayValue("numeric", totals))
+        .addValue("currencies", new SqlArrayValue("varchar", currencies))
+        .addValue("itemCounts", new SqlArrayValue("int4", itemCounts))
+        .addValue("itemTotals", new SqlArrayValue("numeric", itemTotals))
+        .addValue("discountTotals", new SqlArrayValue("numeric", discountTotals));
+    return new HashSet<>(jdbcTemplate.queryForList(INSERT_CARTS, params, UUID.class));
+  }
+
+  /**
+   * Inserts the items of the given carts.
+   *
+   * @param carts carts whose rows were inserted by {@link #insertCarts(List)}
+   */
+  public void insertItems(List<ShoppingCart> carts) {
+    int size = carts.stream().mapToInt(cart -> cart.getItems().size()).sum();
+    if (size == 0) {
+      return;
+    }
+    Object[] cartIds = new Object[size];
+    Object[] productIds = new Object[size];
+    Object[] names = new Object[size];
+    Object[] quantities = new Object[size];
+    Object[] unitPrices = new Object[size];
+    Object[] currencies = new Object[size];
+    Object[] totalPrices = new Object[size];
+    int i = 0;
+    for (ShoppingCart cart : carts) {
+      for (ShoppingCartItem item : cart.getItems()) {
+        cartIds[i] = cart.getId();
+        productIds[i] = item.getProductId();
+        names[i] = item.getName();
+        quantities[i] = item.getQuantity();
+        unitPrices[i] = item.getUnitPrice();
+        currencies[i] = item.getCurrency();
+        totalPrices[i] = item.getTotalPrice();
+        i++;
+      }
+    }
+    jdbcTemplate.update(INSERT_ITEMS, new MapSqlParameterSource()
+        .addValue("cartIds", new SqlArrayValue("uuid", cartIds))
+        .addValue("productIds", new SqlArrayValue("varchar", productIds))
+        .addValue("names", new SqlArrayValue("varchar", names))
+        .addValue("quantities", new SqlArrayValue("int4", quantities))
+        .addValue("unitPrices", new SqlArrayValue("numeric", unitPrices))
+        .addValue("currencies", new SqlArrayValue("varchar", currencies))
+        .addValue("totalPrices", new SqlArrayValue("numeric", totalPrices)));
+  }
+
+  /**
+   * Inserts the discounts of the given carts.
+   *
+   * @param carts carts whose rows were inserted by {@link #insertCarts(List)}
+   */
+  public void insertDiscounts(List<ShoppingCart> carts) {
+    int size = carts.stream().mapToInt(cart -> cart.getDiscounts().size()).sum();
+    if (size == 0) {
+      return;
+    }
+    Object[] cartIds = new Object[size];
+    Object[] codes = new Object[size];
+    Object[] amounts = new Object[size];
+    int i = 0;
+    for (ShoppingCart cart : carts) {
+      for (ShoppingCartDiscount discount : cart.getDiscounts()) {
+        cartIds[i] = cart.getId();
+        codes[i] = discount.getCode();
+        amounts[i] = discount.getAmount();
+        i++;
+      }
+    }
+    jdbcTemplate.update(INSERT_DISCOUNTS, new MapSqlParameterSource()
+        .addValue("cartIds", new SqlArrayValue("uuid", cartIds))
+        .addValue("codes", new SqlArrayValue("varchar", codes))
+        .addValue("amounts", new SqlArrayValue("numeric", amounts)));
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartImporter.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartImporter
+ * Description: Streams NDJSON cart records through validation and pricing into batched set-based inserts.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports carts from newline-delimited JSON, one {@link ShoppingCartDto.CreateRequest} per line. Lines are read and
+ * validated one at a time, priced like a single create, and written {@code app.bulk-import.batch-size} carts per
+ * transaction through {@link ShoppingCartImportRepository}. Memory use is bounded by the batch, not the body.
+ *
+ * <p>A bad record never aborts the stream. Malformed JSON, validation and pricing failures, and users that already
+ * own a cart are reported against their line number. When a batch fails in the database, its records are retried
+ * one per transaction, so only the offending record is rejected.
+ */
+@Component
+public class ShoppingCartImporter {
+
+  private final ObjectReader reader;
+  private final Validator validator;
+  private final ShoppingCartPricing pricing;
+  private final ShoppingCartImportRepository importRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final AppProperties.BulkImport settings;
+  private final Counter imported;
+  private final Counter rejected;
+
+  public ShoppingCartImporter(ObjectMapper objectMapper, Validator validator, ShoppingCartPricing pricing,
+      ShoppingCartImportRepository importRepository, PlatformTransactionManager transactionManager,
+      AppProperties properties, MeterRegistry meterRegistry) {
+    this.reader = objectMapper.readerFor(ShoppingCartDto.CreateRequest.class);
+    this.validator = validator;
+    this.pricing = pricing;
+    this.importRepository = importRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.settings = properties.getBulkImport();
+    this.imported = meterRegistry.counter("shopping.cart.import.records", "outcome", "imported");
+    this.rejected = meterRegistry.counter("shopping.cart.import.records", "outcome", "rejected");
+  }
+
+  /**
+   * Imports every record in the body. Blank lines are ignored.
+   *
+   * @param body NDJSON request body
+   * @return counts of stored and rejected records, with the first rejections
+   * @throws IOException when the body cannot be read
+   */
+  public ShoppingCartDto.ImportResult importCarts(BufferedReader body) throws IOException {
+    Tally tally = new Tally(settings.getMaxReportedErrors());
+    int batchSize = settings.getBatchSize();
+    List<Pending> batch = new ArrayList<>(batchSize);
+    long lineNumber = 0;
+    for (String line = body.readLine(); line != null; line = body.readLine()) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      Pending pending = prepare(lineNumber, line, tally);
+      if (pending != null) {
+        batch.add(pending);
+        if (batch.size() == batchSize) {
+          write(batch, tally);
+          batch.clear();
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      write(batch, tally);
+    }
+    return tally.result();
+  }
+
+  private Pending prepare(long lineNumber, String line, Tally tally) {
+    ShoppingCartDto.CreateRequest request;
+    try {
+      request = reader.readValue(line);
+    } catch (JsonProcessingException ex) {
+      tally.reject(lineNumber, "Malformed JSON: " + ex.getOriginalMessage(), Map.of());
+      return null;
+    }
+    if (request == null) {
+      tally.reject(lineNumber, "Record must be a JSON object", Map.of());
+      return null;
+    }
+    if (request.getDiscounts() == null) {
+      request.setDiscounts(new ArrayList<>());
+    }
+    Set<ConstraintViolation<ShoppingCartDto.CreateRequest>> violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      Map<String, String> details = new TreeMap<>();
+      violations.forEach(violation -> details.put(violation.getPropertyPath().toString(), violation.getMessage()));
+      tally.reject(lineNumber, "Validation failed", details);
+      return null;
+    }
+    try {
+      return new Pending(lineNumber, ShoppingCartService.toNewCart(request, pricing.price(request)));
+    } catch (PricingMismatchException ex) {
+      tally.reject(lineNumber, ex.getMessage(), ex.getMismatches());
+    } catch (IllegalArgumentException | ArithmeticException ex) {
+      tally.reject(lineNumber, ex.getMessage(), Map.of());
+    }
+    return null;
+  }
+
+  private void write(List<Pending> batch, Tally tally) {
+    try {
+      record(batch, insert(batch), tally);
+    } catch (DataAccessException ex) {
+      // One bad row fails the whole statement; isolate it by writing the batch one record at a time.
+      for (Pending pending : batch) {
+        try {
+          record(List.of(pending), insert(List.of(pending)), tally);
+        } catch (DataAccessException single) {
+          tally.reject(pending.line(), "Could not store cart: " + single.getMostSpecificCause().getMessage(),
+              Map.of());
+        }
+      }
+    }
+  }
+
+  private Set<UUID> insert(List<Pending> batch) {
+    List<ShoppingCart> carts = batch.stream().map(Pending::cart).collect(Collectors.toList());
+    return transactionTemplate.execute(status -> {
+      Set<UUID> inserted = importRepository.insertCarts(carts);
+      List<ShoppingCart> stored = carts.stream()
+          .filter(cart -> inserted.contains(cart.getId()))
+          .collect(Collectors.toList());
+      importRepository.insertItems(stored);
+      importRepository.insertDiscounts(stored);
+      return inserted;
+    });
+  }
+
+  private void record(List<Pending> batch, Set<UUID> inserted, Tally tally) {
+    for (Pending pending : batch) {
+      if (inserted.contains(pending.cart().getId())) {
+        tally.imported();
+      } else {
+        tally.reject(pending.line(), ShoppingCartService.DUPLICATE_USER_MESSAGE, Map.of());
+      }
+    }
+  }
+
+  /**
+   * A valid, priced record waiting for its batch to be written.
+   */
+  private record Pending(long line, ShoppingCart cart) {
+  }
+
+  /**
+   * Running counts for one import.
+   */
+  private final class Tally {
+
+    private final int maxReportedErrors;
+    private final List<ShoppingCartDto.ImportError> errors = new ArrayList<>();
+    private long importedCount;
+    private long failedCount;
+
+    private Tally(int maxReportedErrors) {
+      this.maxReportedErrors = maxReportedErrors;
+    }
+
+    private void imported() {
+      importedCount++;
+      imported.increment();
+    }
+
+    private void reject(long line, String message, Map<String, String> details) {
+      failedCount++;
+      rejected.increment();
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new ShoppingCartDto.ImportError(line, message, details));
+      }
+    }
+
+    private ShoppingCartDto.ImportResult result() {
+      return new ShoppingCartDto.ImportResult(importedCount, failedCount, List.copyOf(errors));
+    }
+  }
+}
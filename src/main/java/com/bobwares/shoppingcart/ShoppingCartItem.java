@@ -18,6 +18,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Min;
@@ -29,6 +30,7 @@ import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.UUID;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
@@ -54,6 +56,15 @@ public class ShoppingCartItem {
   @JoinColumn(name = "shopping_cart_id", nullable = false)
   private ShoppingCart shoppingCart;
 
+  /**
+   * Read-only copy of the cart id. The table is hash-partitioned on it, and Hibernate adds it to the {@code WHERE}
+   * clause of updates and deletes so they touch one partition instead of probing all of them.
+   */
+  @PartitionKey
+  @JdbcTypeCode(SqlTypes.UUID)
+  @Column(name = "shopping_cart_id", nullable = false, insertable = false, updatable = false)
+  private UUID shoppingCartId;
+
   @NotBlank
   @Size(max = 64)
   @Column(name = "product_id", nullable = false, length = 64)
@@ -75,6 +86,7 @@ public class ShoppingCartItem {
   @NotBlank
   @Pattern(regexp = "^[A-Z]{3}$")
   @Size(min = 3, max = 3)
+  @JdbcTypeCode(SqlTypes.CHAR)
   @Column(name = "currency", nullable = false, length = 3)
   private String currency;
 
@@ -142,6 +154,39 @@ public class ShoppingCartItem {
     this.totalPrice = totalPrice;
   }
 
+  /**
+   * Copies the mutable values of another line onto this one, assigning only the fields that differ so unchanged
+   * lines stay clean for dirty checking.
+   *
+   * @param source line carrying the desired values
+   */
+  public void updateFrom(ShoppingCartItem source) {
+    if (!Objects.equals(name, source.name)) {
+      name = source.name;
+    }
+    if (quantity != source.quantity) {
+      quantity = source.quantity;
+    }
+    if (differs(unitPrice, source.unitPrice)) {
+      unitPrice = source.unitPrice;
+    }
+    if (!Objects.equals(currency, source.currency)) {
+      currency = source.currency;
+    }
+    if (differs(totalPrice, source.totalPrice)) {
+      totalPrice = source.totalPrice;
+    }
+  }
+
+  private static boolean differs(BigDecimal current, BigDecimal desired) {
+    return current == null || desired == null ? current != desired : current.compareTo(desired) != 0;
+  }
+
+  @PrePersist
+  void assignPartitionKey() {
+    shoppingCartId = shoppingCart.getId();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
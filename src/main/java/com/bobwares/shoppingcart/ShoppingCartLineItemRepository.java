@@ -0,0 +1,177 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartLineItemRepository.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartLineItemRepository
+ * Description: Targeted SQL statements that change a single cart line and re-price the cart without loading the
+ *              aggregate.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository for single-line cart mutations. Callers must run inside a transaction and call
+ * {@link #lockCart(UUID)} first so concurrent line changes on the same cart serialize and totals stay consistent.
+ */
+@Repository
+public class ShoppingCartLineItemRepository {
+
+  private static final String LOCK_CART = """
+      SELECT currency FROM shopping_cart.shopping_cart
+      WHERE shopping_cart_id = :cartId
+      FOR NO KEY UPDATE""";
+
+  private static final String UPSERT_ITEM = """
+      INSERT INTO shopping_cart.shopping_cart_item
+          (shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price)
+      VALUES (:cartId, :productId, :name, :quantity, :unitPrice, :currency, :totalPrice)
+      ON CONFLICT (shopping_cart_id, product_id) DO UPDATE SET
+          name = EXCLUDED.name,
+          quantity = shopping_cart_item.quantity + EXCLUDED.quantity,
+          unit_price = EXCLUDED.unit_price,
+          total_price = EXCLUDED.unit_price * (shopping_cart_item.quantity + EXCLUDED.quantity)""";
+
+  private static final String UPDATE_QUANTITY = """
+      UPDATE shopping_cart.shopping_cart_item
+      SET quantity = :quantity, total_price = unit_price * :quantity
+      WHERE shopping_cart_id = :cartId AND product_id = :productId""";
+
+  private static final String DELETE_ITEM = """
+      DELETE FROM shopping_cart.shopping_cart_item
+      WHERE shopping_cart_id = :cartId AND product_id = :productId""";
+
+  private static final String RECOMPUTE_TOTALS = """
+      UPDATE shopping_cart.shopping_cart c
+      SET subtotal = p.subtotal,
+          tax = p.tax,
+          shipping = p.shipping,
+          total = p.taxable + p.tax + p.shipping,
+          item_count = p.item_count,
+          item_total = p.subtotal,
+          discount_total = p.subtotal - p.taxable,
+          updated_at = now(),
+          version = c.version + 1
+      FROM (SELECT t.item_count, t.subtotal, t.taxable, round(t.taxable * :taxRate, :scale) AS tax,
+                   CASE WHEN t.item_count > 0 THEN :shipping ELSE 0 END AS shipping
+            FROM (SELECT i.item_count, i.subtotal, GREATEST(i.subtotal - d.discount, 0) AS taxable
+                  FROM (SELECT COUNT(*) AS item_count, COALESCE(SUM(total_price), 0) AS subtotal
+                        FROM shopping_cart.shopping_cart_item
+                        WHERE shopping_cart_id = :cartId) i,
+                       (SELECT COALESCE(SUM(amount), 0) AS discount
+                        FROM shopping_cart.shopping_cart_discount
+                        WHERE shopping_cart_id = :cartId) d) t) p
+      WHERE c.shopping_cart_id = :cartId
+      RETURNING c.shopping_cart_id, c.subtotal, c.tax, c.shipping, c.total, c.currency, c.updated_at, c.version""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ShoppingCartLineItemRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Takes the cart row lock for the rest of the transaction.
+   *
+   * @param cartId cart identifier
+   * @return the cart currency, or empty when the cart does not exist
+   */
+  public Optional<String> lockCart(UUID cartId) {
+    List<String> currencies = jdbcTemplate.queryForList(LOCK_CART, new MapSqlParameterSource("cartId", cartId),
+        String.class);
+    return currencies.stream().findFirst();
+  }
+
+  /**
+   * Inserts a line or adds to the quantity of an existing line using the (cart, product) unique key.
+   *
+   * @param cartId cart identifier
+   * @param productId product identifier
+   * @param name product display name
+   * @param quantity quantity to add
+   * @param unitPrice current unit price, at the currency's scale
+   * @param totalPrice {@code unitPrice * quantity}, stored when the line is new
+   * @param currency line currency
+   */
+  public void upsertItem(UUID cartId, String productId, String name, int quantity, BigDecimal unitPrice,
+      BigDecimal totalPrice, String currency) {
+    jdbcTemplate.update(UPSERT_ITEM, lineParameters(cartId, productId)
+        .addValue("name", name)
+        .addValue("quantity", quantity)
+        .addValue("unitPrice", unitPrice)
+        .addValue("totalPrice", totalPrice)
+        .addValue("currency", currency));
+  }
+
+  /**
+   * Replaces the quantity of an existing line.
+   *
+   * @param cartId cart identifier
+   * @param productId product identifier
+   * @param quantity new quantity
+   * @return number of lines updated
+   */
+  public int updateQuantity(UUID cartId, String productId, int quantity) {
+    return jdbcTemplate.update(UPDATE_QUANTITY, lineParameters(cartId, productId).addValue("quantity", quantity));
+  }
+
+  /**
+   * Removes a line from the cart.
+   *
+   * @param cartId cart identifier
+   * @param productId product identifier
+   * @return number of lines deleted
+   */
+  public int deleteItem(UUID cartId, String productId) {
+    return jdbcTemplate.update(DELETE_ITEM, lineParameters(cartId, productId));
+  }
+
+  /**
+   * Re-prices the cart from its lines and discounts with the rules of {@link ShoppingCartPricing}, refreshes the
+   * summary columns and advances the cart version. PostgreSQL {@code round} rounds half away from zero, matching the
+   * half-up rounding of the engine for the non-negative amounts involved.
+   *
+   * @param cartId cart identifier
+   * @param taxRate tax rate applied to the discounted subtotal
+   * @param scale minor-unit decimal places of the cart currency
+   * @param shipping shipping charged when the cart has at least one line
+   * @return the updated cart totals
+   */
+  public ShoppingCartDto.Totals recomputeTotals(UUID cartId, BigDecimal taxRate, int scale, BigDecimal shipping) {
+    return jdbcTemplate.queryForObject(RECOMPUTE_TOTALS, new MapSqlParameterSource("cartId", cartId)
+        .addValue("taxRate", taxRate)
+        .addValue("scale", scale)
+        .addValue("shipping", shipping), ShoppingCartLineItemRepository::mapTotals);
+  }
+
+  private static MapSqlParameterSource lineParameters(UUID cartId, String productId) {
+    return new MapSqlParameterSource("cartId", cartId).addValue("productId", productId);
+  }
+
+  private static ShoppingCartDto.Totals mapTotals(ResultSet rs, int rowNum) throws SQLException {
+    return new ShoppingCartDto.Totals(
+        rs.getObject("shopping_cart_id", UUID.class),
+        rs.getBigDecimal("subtotal"),
+        rs.getBigDecimal("tax"),
+        rs.getBigDecimal("shipping"),
+        rs.getBigDecimal("total"),
+        rs.getString("currency"),
+        rs.getObject("updated_at", OffsetDateTime.class).toInstant(),
+        rs.getLong("version")
+    );
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartOperationMetrics.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartOperationMetrics
+ * Description: Aspect timing every public ShoppingCartService operation by outcome and recording cart item counts.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records {@value #OPERATION_TIMER} for each public {@link ShoppingCartService} call, tagged with the method name and
+ * an outcome that mirrors the HTTP status the error handler maps it to. The aspect runs outside the transaction
+ * advice, so the timing includes commit and a failed commit is counted against the operation.
+ *
+ * <p>Calls that return a {@link ShoppingCartDto.Response} also record the cart's line count in
+ * {@value #ITEMS_SUMMARY}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShoppingCartOperationMetrics {
+
+  static final String OPERATION_TIMER = "shopping.cart.operation";
+  static final String ITEMS_SUMMARY = "shopping.cart.items";
+
+  private final MeterRegistry meterRegistry;
+
+  public ShoppingCartOperationMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Around("execution(public * com.bobwares.shoppingcart.ShoppingCartService.*(..))")
+  public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+    String operation = joinPoint.getSignature().getName();
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "success";
+    try {
+      Object result = joinPoint.proceed();
+      if (result instanceof ShoppingCartDto.Response response) {
+        DistributionSummary.builder(ITEMS_SUMMARY)
+            .description("Line items in carts returned by the service")
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(response.items().size());
+      }
+      return result;
+    } catch (Throwable ex) {
+      outcome = outcome(ex);
+      throw ex;
+    } finally {
+      sample.stop(Timer.builder(OPERATION_TIMER)
+          .description("Shopping cart service operations")
+          .tag("operation", operation)
+          .tag("outcome", outcome)
+          .publishPercentileHistogram()
+          .register(meterRegistry));
+    }
+  }
+
+  static String outcome(Throwable ex) {
+    if (ex instanceof CartVersionMismatchException) {
+      return "precondition_failed";
+    }
+    if (ex instanceof PricingMismatchException || ex instanceof InvalidCursorException) {
+      return "invalid";
+    }
+    if (ex instanceof EntityNotFoundException) {
+      return "not_found";
+    }
+    if (ex instanceof OptimisticLockingFailureException || ex instanceof IllegalArgumentException) {
+      return "conflict";
+    }
+    return "error";
+  }
+}
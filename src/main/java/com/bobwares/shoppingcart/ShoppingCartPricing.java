@@ -0,0 +1,271 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartPricing.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartPricing, ShoppingCartPricing.Quote
+ * Description: Server-side cart pricing computed in long minor currency units, with validation of client-supplied
+ *              totals.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prices a cart from its lines and discounts. Amounts are converted to {@code long} minor units (cents for USD) once
+ * on the way in and back to {@link BigDecimal} once on the way out; the arithmetic in between allocates nothing per
+ * line.
+ *
+ * <p>Rules: a line total is unit price times quantity; the discount is the sum of discount amounts capped at the
+ * subtotal; tax is {@code app.default-tax-rate} applied to the discounted subtotal, rounded half-up to the currency's
+ * minor unit; shipping is the flat {@code app.default-shipping-cost} rounded to the same unit, charged only when the
+ * cart has at least one line. The total is the discounted subtotal plus tax plus shipping.
+ * {@link ShoppingCartLineItemRepository} applies the same rules in SQL for single-line changes.
+ *
+ * <p>Every amount supplied or computed is bounded by {@link #MAX_AMOUNT}, so the {@code long} arithmetic cannot
+ * overflow and an amount the money columns cannot store is rejected with {@link InvalidAmountException}.
+ */
+@Component
+public class ShoppingCartPricing {
+
+  /** Largest number of decimal places the NUMERIC(12, 2) money columns can hold. */
+  static final int MAX_SCALE = 2;
+
+  /** Largest amount the NUMERIC(12, 2) money columns can hold. */
+  static final BigDecimal MAX_AMOUNT = new BigDecimal("9999999999.99");
+
+  private static final int RATE_DECIMALS = 6;
+  private static final long RATE_UNIT = 1_000_000L;
+  private static final long[] MAX_MINOR_BY_SCALE = new long[MAX_SCALE + 1];
+
+  static {
+    for (int scale = 0; scale <= MAX_SCALE; scale++) {
+      MAX_MINOR_BY_SCALE[scale] = MAX_AMOUNT.setScale(scale, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+  }
+
+  private final BigDecimal taxRate;
+  private final long taxRatePerMillion;
+  private final long[] shippingByScale = new long[MAX_SCALE + 1];
+
+  public ShoppingCartPricing(AppProperties properties) {
+    this.taxRate = properties.getDefaultTaxRate();
+    for (int scale = 0; scale <= MAX_SCALE; scale++) {
+      shippingByScale[scale] = properties.getDefaultShippingCost().setScale(scale, RoundingMode.HALF_UP)
+          .unscaledValue().longValueExact();
+    }
+    try {
+      this.taxRatePerMillion = taxRate.movePointRight(RATE_DECIMALS).longValueExact();
+    } catch (ArithmeticException ex) {
+      throw new IllegalStateException(
+          "app.default-tax-rate supports at most " + RATE_DECIMALS + " decimal places: " + taxRate, ex);
+    }
+  }
+
+  /**
+   * Prices a cart payload and checks any totals the client supplied.
+   *
+   * @param payload cart contents
+   * @return server-computed amounts
+   * @throws PricingMismatchException when a client-supplied amount differs from the computed one
+   * @throws InvalidAmountException when an amount is finer than the currency's minor unit, or an amount supplied or
+   *     computed exceeds {@link #MAX_AMOUNT}
+   * @throws IllegalArgumentException when an item currency differs from the cart currency
+   */
+  public Quote price(ShoppingCartDto.CartPayload payload) {
+    String currency = payload.getCurrency().toUpperCase(Locale.ROOT);
+    int scale = scale(currency);
+    List<ShoppingCartDto.ItemPayload> items = payload.getItems();
+    List<ShoppingCartDto.DiscountPayload> discounts = payload.getDiscounts();
+    Map<String, String> mismatches = null;
+
+    long[] lineTotals = new long[items.size()];
+    long subtotal = 0;
+    for (int i = 0; i < lineTotals.length; i++) {
+      ShoppingCartDto.ItemPayload item = items.get(i);
+      if (!currency.equalsIgnoreCase(item.getCurrency())) {
+        throw new IllegalArgumentException(
+            "Item currency " + item.getCurrency() + " does not match cart currency " + currency);
+      }
+      long lineTotal = lineTotal(toMinor(item.getUnitPrice(), scale, "unitPrice"), item.getQuantity(), scale,
+          "items[" + i + "].totalPrice");
+      if (item.getTotalPrice() != null && toMinor(item.getTotalPrice(), scale, "totalPrice") != lineTotal) {
+        mismatches = mismatch(mismatches, "items[" + i + "].totalPrice", lineTotal, scale);
+      }
+      lineTotals[i] = lineTotal;
+      // Both terms are at most MAX_AMOUNT, so the sum cannot overflow before it is bounded.
+      subtotal = bounded(subtotal + lineTotal, scale, "subtotal");
+    }
+
+    // The running discount is capped at the subtotal, so it stays bounded however many discounts there are.
+    long discount = 0;
+    if (discounts != null) {
+      for (int i = 0; i < discounts.size(); i++) {
+        discount = Math.min(discount + toMinor(discounts.get(i).getAmount(), scale, "amount"), subtotal);
+      }
+    }
+    long taxable = subtotal - discount;
+    long shipping = lineTotals.length > 0 ? shippingByScale[scale] : 0;
+    long tax;
+    long total;
+    try {
+      tax = Math.addExact(Math.multiplyExact(taxable, taxRatePerMillion), RATE_UNIT / 2) / RATE_UNIT;
+      total = bounded(Math.addExact(Math.addExact(taxable, tax), shipping), scale, "total");
+    } catch (ArithmeticException ex) {
+      throw new InvalidAmountException("total", MAX_AMOUNT, ex);
+    }
+
+    mismatches = check(mismatches, "subtotal", payload.getSubtotal(), subtotal, scale);
+    mismatches = check(mismatches, "tax", payload.getTax(), tax, scale);
+    mismatches = check(mismatches, "shipping", payload.getShipping(), shipping, scale);
+    mismatches = check(mismatches, "total", payload.getTotal(), total, scale);
+    if (mismatches != null) {
+      throw new PricingMismatchException(mismatches);
+    }
+    return new Quote(currency, scale, lineTotals, subtotal, discount, tax, shipping, total);
+  }
+
+  /**
+   * Tax rate applied to the discounted subtotal.
+   *
+   * @return configured tax rate
+   */
+  public BigDecimal taxRate() {
+    return taxRate;
+  }
+
+  /**
+   * Shipping charged on a cart with at least one line.
+   *
+   * @param currency ISO currency code
+   * @return flat shipping cost at the currency's scale
+   */
+  public BigDecimal shipping(String currency) {
+    int scale = scale(currency);
+    return BigDecimal.valueOf(shippingByScale[scale], scale);
+  }
+
+  /**
+   * Number of minor-unit decimal places used to price a currency.
+   *
+   * @param currency ISO currency code
+   * @return decimal places, at most {@value #MAX_SCALE}
+   * @throws IllegalArgumentException when the currency is unknown or finer than the money columns can store
+   */
+  public int scale(String currency) {
+    int digits;
+    try {
+      digits = Currency.getInstance(currency.toUpperCase(Locale.ROOT)).getDefaultFractionDigits();
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Unknown currency: " + currency, ex);
+    }
+    if (digits < 0 || digits > MAX_SCALE) {
+      throw new IllegalArgumentException("Currency " + currency + " cannot be priced in " + MAX_SCALE
+          + " decimal places");
+    }
+    return digits;
+  }
+
+  /**
+   * Converts an amount to minor units of a currency, rejecting amounts the currency cannot represent exactly.
+   *
+   * @param amount decimal amount
+   * @param currency ISO currency code
+   * @param field request field the amount came from, for the error
+   * @return amount in minor units
+   * @throws InvalidAmountException when the amount is finer than the currency's minor unit or exceeds
+   *     {@link #MAX_AMOUNT}
+   */
+  public long toMinor(BigDecimal amount, String currency, String field) {
+    return toMinor(amount, scale(currency), field);
+  }
+
+  /**
+   * Multiplies a minor-unit unit price by a quantity.
+   *
+   * @param unitPrice unit price in minor units
+   * @param quantity number of units
+   * @param scale minor-unit decimal places of the currency
+   * @param field request field named in the error
+   * @return line total in minor units
+   * @throws InvalidAmountException when the line total exceeds {@link #MAX_AMOUNT}
+   */
+  public long lineTotal(long unitPrice, int quantity, int scale, String field) {
+    try {
+      return bounded(Math.multiplyExact(unitPrice, quantity), scale, field);
+    } catch (ArithmeticException ex) {
+      throw new InvalidAmountException(field, MAX_AMOUNT, ex);
+    }
+  }
+
+  private static long toMinor(BigDecimal amount, int scale, String field) {
+    if (amount.compareTo(MAX_AMOUNT) > 0) {
+      throw new InvalidAmountException(field, MAX_AMOUNT, null);
+    }
+    try {
+      return amount.movePointRight(scale).longValueExact();
+    } catch (ArithmeticException ex) {
+      throw new InvalidAmountException(field, amount, scale, ex);
+    }
+  }
+
+  private static long bounded(long minorUnits, int scale, String field) {
+    if (minorUnits > MAX_MINOR_BY_SCALE[scale]) {
+      throw new InvalidAmountException(field, MAX_AMOUNT, null);
+    }
+    return minorUnits;
+  }
+
+  private static Map<String, String> check(Map<String, String> mismatches, String field, BigDecimal supplied,
+      long computed, int scale) {
+    if (supplied == null || toMinor(supplied, scale, field) == computed) {
+      return mismatches;
+    }
+    return mismatch(mismatches, field, computed, scale);
+  }
+
+  private static Map<String, String> mismatch(Map<String, String> mismatches, String field, long computed,
+      int scale) {
+    Map<String, String> result = mismatches != null ? mismatches : new LinkedHashMap<>();
+    result.put(field, "expected " + BigDecimal.valueOf(computed, scale).toPlainString());
+    return result;
+  }
+
+  /**
+   * Priced cart in minor units.
+   *
+   * @param currency upper-case ISO currency code
+   * @param scale minor-unit decimal places of the currency
+   * @param lineTotals line totals in payload order
+   * @param subtotal sum of line totals
+   * @param discount applied discount, capped at the subtotal
+   * @param tax tax on the discounted subtotal
+   * @param shipping shipping charge
+   * @param total amount payable
+   */
+  public record Quote(String currency, int scale, long[] lineTotals, long subtotal, long discount, long tax,
+      long shipping, long total) {
+
+    /**
+     * Converts a minor-unit amount of this quote to a decimal amount.
+     *
+     * @param minorUnits amount in minor units
+     * @return decimal amount at the currency scale
+     */
+    public BigDecimal toAmount(long minorUnits) {
+      return BigDecimal.valueOf(minorUnits, scale);
+    }
+  }
+}
@@ -7,13 +7,25 @@
  * Author: gpt-5-codex
  * Date: 2025-10-03T00:25:40Z
  * Exports: ShoppingCartRepository
- * Description: Spring Data repository for the ShoppingCart aggregate with convenience lookups.
+ * Description: Spring Data repository for the ShoppingCart aggregate with convenience lookups, keyset
+ *              pagination, batched child collection loading, and two-statement aggregate loading.
  */
 package com.bobwares.shoppingcart;
 
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -22,7 +34,141 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, UUID> {
 
+  /** Rows the JDBC driver fetches per round trip when streaming carts; also the export chunk size. */
+  int STREAM_FETCH_SIZE = 500;
+
   Optional<ShoppingCart> findByUserId(UUID userId);
 
   boolean existsByUserId(UUID userId);
+
+  /**
+   * Reads only the id of a user's cart through the {@code user_id} unique index.
+   *
+   * @param userId owner of the cart
+   * @return the cart id, or empty when the user has no cart
+   */
+  @Query("select c.id from ShoppingCart c where c.userId = :userId")
+  Optional<UUID> findIdByUserId(@Param("userId") UUID userId);
+
+  /**
+   * Reads only the version of a cart, for conditional requests that must not load child collections.
+   *
+   * @param id cart identifier
+   * @return the cart version, or empty when the cart does not exist
+   */
+  @Query("select c.version from ShoppingCart c where c.id = :id")
+  Optional<Long> findVersionById(@Param("id") UUID id);
+
+  /**
+   * Loads a cart together with its items through a single join.
+   *
+   * @param id cart identifier
+   * @return cart with the items collection initialized
+   */
+  @EntityGraph(attributePaths = "items")
+  @Query("select c from ShoppingCart c where c.id = :id")
+  Optional<ShoppingCart> findWithItemsById(@Param("id") UUID id);
+
+  /**
+   * Loads the full cart aggregate in two statements: the cart joined with its items, then its discounts. Fetching
+   * both bags in one join would multiply item rows by discount rows, so the collections are fetched separately
+   * into the same persistence context. Must be called inside a transaction.
+   *
+   * @param id cart identifier
+   * @return cart with items and discounts initialized
+   */
+  default Optional<ShoppingCart> findAggregateById(UUID id) {
+    Optional<ShoppingCart> cart = findWithItemsById(id);
+    cart.ifPresent(found -> fetchDiscounts(List.of(found.getId())));
+    return cart;
+  }
+
+  /**
+   * Deletes a cart with one statement; items and discounts are removed by {@code ON DELETE CASCADE}.
+   *
+   * @param id cart identifier
+   * @return number of carts deleted
+   */
+  @Modifying
+  @Query("delete from ShoppingCart c where c.id = :id")
+  int deleteCartById(@Param("id") UUID id);
+
+  /**
+   * Deletes a cart only while it is still at the given version.
+   *
+   * @param id cart identifier
+   * @param version version the caller last observed
+   * @return number of carts deleted
+   */
+  @Modifying
+  @Query("delete from ShoppingCart c where c.id = :id and c.version = :version")
+  int deleteCartByIdAndVersion(@Param("id") UUID id, @Param("version") long version);
+
+  /**
+   * Moves a cart forward to a version handed out for updates that were coalesced into one write. Never moves a
+   * cart backwards.
+   *
+   * @param id cart identifier
+   * @param version version of the last coalesced update
+   * @return number of carts updated
+   */
+  @Modifying
+  @Query("update ShoppingCart c set c.version = :version where c.id = :id and c.version < :version")
+  int advanceVersion(@Param("id") UUID id, @Param("version") long version);
+
+  /**
+   * Returns the newest carts, ordered by the {@code idx_shopping_cart_updated_at_id} keyset.
+   *
+   * @param limit maximum number of rows to return
+   * @return first page of carts without child collections
+   */
+  @Query(value = """
+      SELECT * FROM shopping_cart.shopping_cart
+      ORDER BY updated_at DESC, shopping_cart_id DESC
+      LIMIT :limit""", nativeQuery = true)
+  List<ShoppingCart> findFirstPage(@Param("limit") int limit);
+
+  /**
+   * Returns the carts strictly after the supplied keyset position.
+   *
+   * @param updatedAt boundary modification timestamp
+   * @param id boundary cart identifier
+   * @param limit maximum number of rows to return
+   * @return next page of carts without child collections
+   */
+  @Query(value = """
+      SELECT * FROM shopping_cart.shopping_cart
+      WHERE (updated_at, shopping_cart_id) < (:updatedAt, :id)
+      ORDER BY updated_at DESC, shopping_cart_id DESC
+      LIMIT :limit""", nativeQuery = true)
+  List<ShoppingCart> findPageAfter(@Param("updatedAt") Instant updatedAt, @Param("id") UUID id,
+      @Param("limit") int limit);
+
+  /**
+   * Initializes the item collections of the given carts with a single statement.
+   *
+   * @param ids identifiers of carts already attached to the persistence context
+   * @return the carts with items fetched
+   */
+  @Query("select c from ShoppingCart c left join fetch c.items where c.id in :ids")
+  List<ShoppingCart> fetchItems(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * Initializes the discount collections of the given carts with a single statement.
+   *
+   * @param ids identifiers of carts already attached to the persistence context
+   * @return the carts with discounts fetched
+   */
+  @Query("select c from ShoppingCart c left join fetch c.discounts where c.id in :ids")
+  List<ShoppingCart> fetchDiscounts(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * Streams every cart, without child collections, through a forward-only cursor. PostgreSQL only honours the fetch
+   * size inside a transaction, so the stream must be consumed and closed within one.
+   *
+   * @return carts in physical order
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+  @Query("select c from ShoppingCart c")
+  Stream<ShoppingCart> streamAll();
 }
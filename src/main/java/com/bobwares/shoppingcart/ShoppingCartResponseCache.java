@@ -0,0 +1,177 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartResponseCache.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartResponseCache, ShoppingCartResponseCache.CachedResponse
+ * Description: Size-bounded in-process cache of serialized cart responses keyed by cart id, invalidated after
+ *              committed writes and instrumented with Micrometer cache metrics.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.bobwares.shoppingcart.config.PayloadFormatConfiguration;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the serialized bytes of {@link ShoppingCartDto.Response} so repeated reads skip the database and the
+ * serializer. Each of {@link PayloadFormatConfiguration#MEDIA_TYPES} is cached separately, on its first request, and
+ * invalidated together. Entries are weighed by body size and expire after the configured TTL.
+ *
+ * <p>A loader that races with a write can observe the pre-write state. An invalidation marks the loads of that cart in
+ * progress as stale through {@link InFlightLoads}, and a stale body is dropped after it was put, so stale bytes never
+ * outlive the write that made them stale. Writes to other carts do not affect the load. With read replicas enabled, a
+ * cart invalidated within the replica lag tolerance plus one lag check interval is loaded without being cached: the
+ * load may come from a replica that has not replayed the write.
+ */
+@Component
+public class ShoppingCartResponseCache {
+
+  static final String CACHE_NAME = "shopping-cart-responses";
+
+  private final Cache<Key, CachedResponse> cache;
+  private final Map<MediaType, ObjectWriter> writers;
+  private final boolean enabled;
+  private final InFlightLoads<UUID> loads = new InFlightLoads<>();
+  private final Cache<UUID, Boolean> recentlyInvalidated;
+
+  public ShoppingCartResponseCache(AppProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    AppProperties.ResponseCache settings = properties.getResponseCache();
+    this.writers = PayloadFormatConfiguration.MEDIA_TYPES.stream().collect(Collectors.toUnmodifiableMap(
+        Function.identity(),
+        mediaType -> PayloadFormatConfiguration.mapperFor(objectMapper, mediaType)
+            .writerFor(ShoppingCartDto.Response.class)));
+    this.enabled = settings.isEnabled();
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(settings.getMaximumSize().toBytes())
+        .weigher((Key key, CachedResponse response) -> response.body().length)
+        .expireAfterWrite(settings.getTtl())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    AppProperties.ReadReplicas replicas = properties.getReadReplicas();
+    this.recentlyInvalidated = replicas.isEnabled()
+        ? Caffeine.newBuilder().expireAfterWrite(replicas.getMaxLag().plus(replicas.getLagCheckInterval())).build()
+        : null;
+  }
+
+  /**
+   * Returns the JSON response for a cart, loading and caching it on a miss.
+   *
+   * @param id cart identifier
+   * @param loader produces the response on a miss; expected to throw when the cart does not exist
+   * @return JSON bytes of the response with the cart version they represent
+   */
+  public CachedResponse get(UUID id, Function<UUID, ShoppingCartDto.Response> loader) {
+    return get(id, MediaType.APPLICATION_JSON, loader);
+  }
+
+  /**
+   * Returns the response for a cart serialized as {@code mediaType}, loading and caching it on a miss.
+   *
+   * @param id cart identifier
+   * @param mediaType one of {@link PayloadFormatConfiguration#MEDIA_TYPES}
+   * @param loader produces the response on a miss; expected to throw when the cart does not exist
+   * @return bytes of the response with the cart version they represent
+   */
+  public CachedResponse get(UUID id, MediaType mediaType, Function<UUID, ShoppingCartDto.Response> loader) {
+    if (!enabled) {
+      return serialize(loader.apply(id), mediaType);
+    }
+    Key key = new Key(id, mediaType);
+    CachedResponse cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    try (InFlightLoads<UUID>.Load load = loads.start(id)) {
+      CachedResponse response = serialize(loader.apply(id), mediaType);
+      if (recentlyInvalidated != null && recentlyInvalidated.getIfPresent(id) != null) {
+        // A replica may not have replayed the write yet; serve the load without keeping it.
+        return response;
+      }
+      cache.put(key, response);
+      if (load.invalidated()) {
+        cache.invalidate(key);
+      }
+      return response;
+    }
+  }
+
+  /**
+   * Drops the cached response for a cart once the current transaction commits, or immediately when no transaction
+   * is active. Invalidating before commit would let a concurrent reader re-cache the old state.
+   *
+   * @param id cart identifier
+   */
+  public void invalidateAfterCommit(UUID id) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          invalidate(id);
+        }
+      });
+    } else {
+      invalidate(id);
+    }
+  }
+
+  /**
+   * Drops the cached response for a cart immediately.
+   *
+   * @param id cart identifier
+   */
+  public void invalidate(UUID id) {
+    loads.invalidate(id);
+    if (recentlyInvalidated != null) {
+      recentlyInvalidated.put(id, Boolean.TRUE);
+    }
+    for (MediaType mediaType : PayloadFormatConfiguration.MEDIA_TYPES) {
+      cache.invalidate(new Key(id, mediaType));
+    }
+  }
+
+  private CachedResponse serialize(ShoppingCartDto.Response response, MediaType mediaType) {
+    ObjectWriter writer = writers.get(mediaType);
+    if (writer == null) {
+      throw new IllegalStateException("Unsupported cart media type " + mediaType);
+    }
+    try {
+      return new CachedResponse(response.version(), writer.writeValueAsBytes(response));
+    } catch (JsonProcessingException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Serialized cart response.
+   *
+   * @param version cart version the body was rendered from
+   * @param body serialized {@link ShoppingCartDto.Response}
+   */
+  public record CachedResponse(long version, byte[] body) {
+  }
+
+  private record Key(UUID id, MediaType mediaType) {
+  }
+}
@@ -12,14 +12,32 @@
 package com.bobwares.shoppingcart;
 
 import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service that manages {@link ShoppingCart} aggregates and coordinates persistence operations.
@@ -28,33 +46,145 @@ import org.springframework.stereotype.Service;
 @Transactional
 public class ShoppingCartService {
 
+  static final String DUPLICATE_USER_MESSAGE = "User already has an active shopping cart";
+
   private final ShoppingCartRepository repository;
+  private final ShoppingCartLineItemRepository lineItemRepository;
+  private final ShoppingCartSummaryRepository summaryRepository;
+  private final UserShoppingCartRepository userCartRepository;
+  private final AppProperties properties;
+  private final ShoppingCartResponseCache responseCache;
+  private final UserCartIdCache userCartCache;
+  private final ShoppingCartPricing pricing;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final EntityManager entityManager;
+  private final ShoppingCartWriteBehind writeBehind;
 
-  public ShoppingCartService(ShoppingCartRepository repository) {
+  public ShoppingCartService(ShoppingCartRepository repository, ShoppingCartLineItemRepository lineItemRepository,
+      ShoppingCartSummaryRepository summaryRepository, UserShoppingCartRepository userCartRepository,
+      AppProperties properties, ShoppingCartResponseCache responseCache, UserCartIdCache userCartCache,
+      ShoppingCartPricing pricing, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+      EntityManager entityManager) {
     this.repository = repository;
+    this.lineItemRepository = lineItemRepository;
+    this.summaryRepository = summaryRepository;
+    this.userCartRepository = userCartRepository;
+    this.properties = properties;
+    this.responseCache = responseCache;
+    this.userCartCache = userCartCache;
+    this.pricing = pricing;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.entityManager = entityManager;
+    this.writeBehind = properties.getWriteBehind().isEnabled() ? newWriteBehind(transactionManager) : null;
+  }
+
+  private ShoppingCartWriteBehind newWriteBehind(PlatformTransactionManager transactionManager) {
+    AppProperties.WriteBehind settings = properties.getWriteBehind();
+    TransactionTemplate flushTemplate = new TransactionTemplate(transactionManager);
+    // Flushes run ahead of other writes to the same cart, which may already be inside their own transaction.
+    flushTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    return new ShoppingCartWriteBehind(settings.getWindow(), settings.getMaxPendingCarts(),
+        settings.getFlushThreads(), settings.getMaxFlushAttempts(),
+        (id, request, version) -> flushBuffered(flushTemplate, id, request, version), responseCache::invalidate,
+        meterRegistry);
+  }
+
+  private void flushBuffered(TransactionTemplate flushTemplate, UUID id, ShoppingCartDto.UpdateRequest request,
+      long version) {
+    withOptimisticRetry("update", () -> flushTemplate.execute(status -> {
+      applyUpdate(id, request, null);
+      repository.advanceVersion(id, version);
+      return null;
+    }));
+  }
+
+  /**
+   * Writes every update still held by the write-behind buffer before the application context closes.
+   */
+  @PreDestroy
+  void flushPendingWrites() {
+    if (writeBehind != null) {
+      writeBehind.close();
+    }
   }
 
   /**
-   * Creates a new shopping cart for a user and persists it.
+   * Creates a new shopping cart for a user and persists it. Amounts are computed by {@link ShoppingCartPricing}.
    *
    * @param request validated create payload
    * @return persisted shopping cart response
+   * @throws PricingMismatchException when the request carries totals that differ from server pricing
    */
   public ShoppingCartDto.Response create(ShoppingCartDto.CreateRequest request) {
+    ShoppingCartPricing.Quote quote = pricing.price(request);
     if (repository.existsByUserId(request.getUserId())) {
-      throw new IllegalArgumentException("User already has an active shopping cart");
+      throw new IllegalArgumentException(DUPLICATE_USER_MESSAGE);
     }
 
-    ShoppingCart cart = new ShoppingCart();
-    cart.setId(UUID.randomUUID());
-    cart.setUserId(request.getUserId());
-    applyTotals(cart, request.getSubtotal(), request.getTax(), request.getShipping(), request.getTotal(), request.getCurrency());
+    ShoppingCart saved = repository.save(toNewCart(request, quote));
+    responseCache.invalidateAfterCommit(saved.getId());
+    userCartCache.invalidateUserAfterCommit(saved.getUserId());
+    return mapToResponse(saved);
+  }
+
+  /**
+   * Returns the cart of a user, creating an empty one when the user has none. The lookup and the insert are one
+   * statement, run outside a transaction unless the caller has one, so resolving a cart costs a single round trip
+   * and concurrent calls for the same user all return the same cart.
+   *
+   * @param userId owner of the cart
+   * @param currency currency of a newly created cart, or {@code null} for the first supported currency
+   * @return the user's cart and whether this call created it
+   */
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public ShoppingCartDto.UserCart getOrCreateForUser(UUID userId, String currency) {
+    ShoppingCartDto.CreateRequest request = new ShoppingCartDto.CreateRequest();
+    request.setUserId(userId);
+    request.setCurrency(currency != null ? currency : properties.getSupportedCurrencies().get(0));
+    ShoppingCart cart = toNewCart(request, pricing.price(request));
 
-    cart.replaceItems(request.getItems().stream().map(this::toItemEntity).collect(Collectors.toList()));
-    cart.replaceDiscounts(request.getDiscounts().stream().map(this::toDiscountEntity).collect(Collectors.toList()));
+    // An empty result means a concurrent insert for this user committed after the statement's snapshot.
+    ShoppingCartDto.UserCart resolved = userCartRepository.getOrCreate(cart)
+        .or(() -> userCartRepository.getOrCreate(cart))
+        .orElseThrow(() -> new OptimisticLockingFailureException("Could not resolve the cart of user " + userId));
+    userCartCache.put(userId, resolved.cart().id());
+    if (resolved.created()) {
+      responseCache.invalidate(resolved.cart().id());
+    } else if (writeBehind != null) {
+      Optional<ShoppingCartDto.Response> buffered = writeBehind.find(resolved.cart().id());
+      if (buffered.isPresent()) {
+        return new ShoppingCartDto.UserCart(buffered.get(), false);
+      }
+    }
+    return resolved;
+  }
 
-    ShoppingCart saved = repository.save(cart);
-    return mapToResponse(saved);
+  /**
+   * Reads the cart of a user. The cart id is resolved through {@link UserCartIdCache}, so a hit costs no statement;
+   * the cart itself is read by {@code reader}, which throws {@link EntityNotFoundException} when it does not exist. A
+   * cached id whose cart is gone is dropped and looked up again.
+   *
+   * @param userId owner of the cart
+   * @param reader reads the cart, or part of it, by cart id
+   * @param <T> what the reader returns
+   * @return the reader's result for the user's cart
+   * @throws EntityNotFoundException when the user has no cart
+   */
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public <T> T readForUser(UUID userId, Function<UUID, T> reader) {
+    Optional<UUID> cached = userCartCache.find(userId);
+    if (cached.isPresent()) {
+      try {
+        return reader.apply(cached.get());
+      } catch (EntityNotFoundException ex) {
+        userCartCache.invalidateCart(cached.get());
+      }
+    }
+    UUID id = userCartCache.get(userId, repository::findIdByUserId)
+        .orElseThrow(() -> new EntityNotFoundException("No shopping cart for user: " + userId));
+    return reader.apply(id);
   }
 
   /**
@@ -63,88 +193,435 @@ public class ShoppingCartService {
    * @param id cart identifier
    * @return DTO response
    */
-  @Transactional(Transactional.TxType.SUPPORTS)
+  @Transactional(readOnly = true)
   public ShoppingCartDto.Response get(UUID id) {
-    ShoppingCart cart = repository.findById(id)
+    if (writeBehind != null) {
+      Optional<ShoppingCartDto.Response> buffered = writeBehind.find(id);
+      if (buffered.isPresent()) {
+        return buffered.get();
+      }
+    }
+    ShoppingCart cart = repository.findAggregateById(id)
         .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found: " + id));
     return mapToResponse(cart);
   }
 
   /**
-   * Lists all shopping carts.
+   * Reads the current version of a cart without loading items or discounts.
    *
-   * @return list of DTO responses
+   * @param id cart identifier
+   * @return cart version
    */
-  @Transactional(Transactional.TxType.SUPPORTS)
-  public List<ShoppingCartDto.Response> list() {
-    return repository.findAll().stream()
-        .map(this::mapToResponse)
+  @Transactional(readOnly = true)
+  public long getVersion(UUID id) {
+    if (writeBehind != null) {
+      Optional<Long> buffered = writeBehind.findVersion(id);
+      if (buffered.isPresent()) {
+        return buffered.get();
+      }
+    }
+    return repository.findVersionById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found: " + id));
+  }
+
+  /**
+   * Lists one page of shopping carts ordered by most recent update. Child collections for the page are loaded with
+   * one statement per collection, so the statement count and heap use are bounded by the page size.
+   *
+   * @param cursor continuation token from a previous page, or {@code null} for the first page
+   * @param limit requested page size, clamped to the configured maximum
+   * @return page of DTO responses with the token for the next page
+   */
+  @Transactional(readOnly = true)
+  public ShoppingCartDto.PageResponse list(String cursor, Integer limit) {
+    int pageSize = resolvePageSize(limit);
+    List<ShoppingCart> carts;
+    if (cursor == null || cursor.isBlank()) {
+      carts = repository.findFirstPage(pageSize + 1);
+    } else {
+      ShoppingCartCursor position = ShoppingCartCursor.decode(cursor);
+      carts = repository.findPageAfter(position.updatedAt(), position.id(), pageSize + 1);
+    }
+
+    boolean hasMore = carts.size() > pageSize;
+    List<ShoppingCart> page = hasMore ? carts.subList(0, pageSize) : carts;
+    if (!page.isEmpty()) {
+      List<UUID> ids = page.stream().map(ShoppingCart::getId).collect(Collectors.toList());
+      repository.fetchItems(ids);
+      repository.fetchDiscounts(ids);
+    }
+
+    List<ShoppingCartDto.Response> items = page.stream()
+        .map(ShoppingCartService::mapToResponse)
         .collect(Collectors.toList());
+    String nextCursor = hasMore ? ShoppingCartCursor.after(page.get(page.size() - 1)).encode() : null;
+    return new ShoppingCartDto.PageResponse(items, nextCursor);
+  }
+
+  /**
+   * Hands every cart, with items and discounts, to the sink. Carts are read through a forward-only cursor in chunks
+   * of {@link ShoppingCartRepository#STREAM_FETCH_SIZE}; each chunk's children are fetched with one statement per
+   * collection, and the persistence context is cleared after the chunk is written, so heap use does not grow with the
+   * number of carts.
+   *
+   * @param sink receives each cart in turn; runs inside the read transaction
+   * @return number of carts exported
+   */
+  @Transactional(readOnly = true)
+  public long export(Consumer<ShoppingCartDto.Response> sink) {
+    long exported = 0;
+    List<ShoppingCart> chunk = new ArrayList<>(ShoppingCartRepository.STREAM_FETCH_SIZE);
+    try (Stream<ShoppingCart> carts = repository.streamAll()) {
+      Iterator<ShoppingCart> iterator = carts.iterator();
+      while (iterator.hasNext()) {
+        chunk.add(iterator.next());
+        if (chunk.size() == ShoppingCartRepository.STREAM_FETCH_SIZE || !iterator.hasNext()) {
+          exported += exportChunk(chunk, sink);
+          chunk.clear();
+        }
+      }
+    }
+    return exported;
+  }
+
+  /**
+   * Reads the maintained summary of a cart without loading items or discounts.
+   *
+   * @param id cart identifier
+   * @return cart summary
+   */
+  @Transactional(readOnly = true)
+  public ShoppingCartDto.Summary getSummary(UUID id) {
+    if (writeBehind != null) {
+      Optional<ShoppingCartDto.Summary> buffered = writeBehind.findSummary(id);
+      if (buffered.isPresent()) {
+        return buffered.get();
+      }
+    }
+    return summaryRepository.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found: " + id));
+  }
+
+  /**
+   * Lists one page of cart summaries in the same order and with the same cursors as {@link #list(String, Integer)}.
+   *
+   * @param cursor continuation token from a previous page, or {@code null} for the first page
+   * @param limit requested page size, clamped to the configured maximum
+   * @return page of summaries with the token for the next page
+   */
+  @Transactional(readOnly = true)
+  public ShoppingCartDto.SummaryPageResponse listSummaries(String cursor, Integer limit) {
+    int pageSize = resolvePageSize(limit);
+    List<ShoppingCartDto.Summary> summaries;
+    if (cursor == null || cursor.isBlank()) {
+      summaries = summaryRepository.findFirstPage(pageSize + 1);
+    } else {
+      ShoppingCartCursor position = ShoppingCartCursor.decode(cursor);
+      summaries = summaryRepository.findPageAfter(position.updatedAt(), position.id(), pageSize + 1);
+    }
+
+    boolean hasMore = summaries.size() > pageSize;
+    List<ShoppingCartDto.Summary> page = hasMore ? summaries.subList(0, pageSize) : summaries;
+    String nextCursor = null;
+    if (hasMore) {
+      ShoppingCartDto.Summary last = page.get(page.size() - 1);
+      nextCursor = new ShoppingCartCursor(last.updatedAt(), last.id()).encode();
+    }
+    return new ShoppingCartDto.SummaryPageResponse(List.copyOf(page), nextCursor);
   }
 
   /**
-   * Updates an existing shopping cart with provided totals and child collections.
+   * Updates an existing shopping cart with provided totals and child collections. The write is version-checked;
+   * an unconditional update that loses a race is a full replacement, so it is replayed in a fresh transaction
+   * according to {@code app.optimistic-retry}. A conditional update never retries.
+   *
+   * <p>With {@code app.write-behind.enabled}, an unconditional update is applied to an in-memory copy of the cart
+   * and written after {@code app.write-behind.window}, together with any later updates in that window; see
+   * {@link ShoppingCartWriteBehind}. A conditional update writes any buffered update first.
    *
    * @param id cart identifier
    * @param request update payload
+   * @param expectedVersion version from {@code If-Match}, or {@code null} for an unconditional update
    * @return updated response
+   * @throws CartVersionMismatchException when the cart is not at {@code expectedVersion}
    */
-  public ShoppingCartDto.Response update(UUID id, ShoppingCartDto.UpdateRequest request) {
-    ShoppingCart cart = repository.findById(id)
+  @Transactional(propagation = Propagation.NEVER)
+  public ShoppingCartDto.Response update(UUID id, ShoppingCartDto.UpdateRequest request, Long expectedVersion) {
+    if (expectedVersion == null) {
+      if (writeBehind != null) {
+        Optional<ShoppingCartDto.Response> buffered = bufferUpdate(id, request);
+        if (buffered.isPresent()) {
+          return buffered.get();
+        }
+      }
+      return withOptimisticRetry("update",
+          () -> transactionTemplate.execute(status -> applyUpdate(id, request, null)));
+    }
+    flushPending(id);
+    try {
+      return transactionTemplate.execute(status -> applyUpdate(id, request, expectedVersion));
+    } catch (OptimisticLockingFailureException ex) {
+      recordConflict("update");
+      throw preconditionFailed("update", id);
+    }
+  }
+
+  private Optional<ShoppingCartDto.Response> bufferUpdate(UUID id, ShoppingCartDto.UpdateRequest request) {
+    ShoppingCartPricing.Quote quote = pricing.price(request);
+    Optional<ShoppingCartDto.Response> buffered = writeBehind.buffer(id, request,
+        cartId -> transactionTemplate.execute(status -> repository.findAggregateById(cartId)
+            .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found: " + cartId))),
+        cart -> applyReplacement(cart, request, quote));
+    buffered.ifPresent(response -> responseCache.invalidate(id));
+    return buffered;
+  }
+
+  private ShoppingCartDto.Response applyUpdate(UUID id, ShoppingCartDto.UpdateRequest request, Long expectedVersion) {
+    ShoppingCartPricing.Quote quote = pricing.price(request);
+    ShoppingCart cart = repository.findAggregateById(id)
         .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found: " + id));
+    if (expectedVersion != null && cart.getVersion() != expectedVersion) {
+      throw preconditionFailed("update", id);
+    }
 
-    applyTotals(cart, request.getSubtotal(), request.getTax(), request.getShipping(), request.getTotal(), request.getCurrency());
-    cart.replaceItems(request.getItems().stream().map(this::toItemEntity).collect(Collectors.toList()));
-    cart.replaceDiscounts(request.getDiscounts().stream().map(this::toDiscountEntity).collect(Collectors.toList()));
+    applyReplacement(cart, request, quote);
 
-    ShoppingCart saved = repository.save(cart);
+    ShoppingCart saved = repository.saveAndFlush(cart);
+    responseCache.invalidateAfterCommit(id);
     return mapToResponse(saved);
   }
 
   /**
-   * Deletes a shopping cart and associated rows.
+   * Deletes a shopping cart and associated rows without loading the aggregate; child rows are removed by the
+   * database cascade.
+   *
+   * @param id cart identifier
+   * @param expectedVersion version from {@code If-Match}, or {@code null} for an unconditional delete
+   * @throws CartVersionMismatchException when the cart is not at {@code expectedVersion}
+   */
+  public void delete(UUID id, Long expectedVersion) {
+    flushPending(id);
+    int deleted = expectedVersion == null
+        ? repository.deleteCartById(id)
+        : repository.deleteCartByIdAndVersion(id, expectedVersion);
+    if (deleted == 0) {
+      if (expectedVersion != null && repository.findVersionById(id).isPresent()) {
+        throw preconditionFailed("delete", id);
+      }
+      throw new EntityNotFoundException("Shopping cart not found: " + id);
+    }
+    responseCache.invalidateAfterCommit(id);
+    userCartCache.invalidateCartAfterCommit(id);
+  }
+
+  /**
+   * Adds a product to a cart, accumulating onto the existing line for the same product, without loading the
+   * aggregate.
+   *
+   * @param id cart identifier
+   * @param productId product identifier
+   * @param request line payload
+   * @return cart totals after the change
+   * @throws InvalidAmountException when the unit price is finer than the currency's minor unit, or the line total is
+   *     too large to store
+   */
+  public ShoppingCartDto.Totals addItem(UUID id, String productId, ShoppingCartDto.AddItemRequest request) {
+    String currency = request.getCurrency().toUpperCase(Locale.ROOT);
+    int scale = pricing.scale(currency);
+    long unitPrice = pricing.toMinor(request.getUnitPrice(), currency, "unitPrice");
+    long totalPrice = pricing.lineTotal(unitPrice, request.getQuantity(), scale, "quantity");
+    flushPending(id);
+    String cartCurrency = lockCart(id);
+    if (!cartCurrency.equals(currency)) {
+      throw new IllegalArgumentException("Item currency " + currency + " does not match cart currency " + cartCurrency);
+    }
+    lineItemRepository.upsertItem(id, productId, request.getName(), request.getQuantity(),
+        BigDecimal.valueOf(unitPrice, scale), BigDecimal.valueOf(totalPrice, scale), currency);
+    return recomputeTotals(id, cartCurrency);
+  }
+
+  /**
+   * Replaces the quantity of an existing cart line without loading the aggregate.
+   *
+   * @param id cart identifier
+   * @param productId product identifier
+   * @param request quantity payload
+   * @return cart totals after the change
+   */
+  public ShoppingCartDto.Totals updateItemQuantity(UUID id, String productId,
+      ShoppingCartDto.ItemQuantityRequest request) {
+    flushPending(id);
+    String currency = lockCart(id);
+    if (lineItemRepository.updateQuantity(id, productId, request.getQuantity()) == 0) {
+      throw new EntityNotFoundException("Cart item not found: " + productId);
+    }
+    return recomputeTotals(id, currency);
+  }
+
+  /**
+   * Removes a line from a cart without loading the aggregate.
    *
    * @param id cart identifier
+   * @param productId product identifier
+   * @return cart totals after the change
    */
-  public void delete(UUID id) {
-    ShoppingCart cart = repository.findById(id)
+  public ShoppingCartDto.Totals removeItem(UUID id, String productId) {
+    flushPending(id);
+    String currency = lockCart(id);
+    if (lineItemRepository.deleteItem(id, productId) == 0) {
+      throw new EntityNotFoundException("Cart item not found: " + productId);
+    }
+    return recomputeTotals(id, currency);
+  }
+
+  /**
+   * Writes a buffered update of the cart, if any, so a write that bypasses the buffer starts from the latest state.
+   */
+  private void flushPending(UUID id) {
+    if (writeBehind != null) {
+      writeBehind.flush(id);
+    }
+  }
+
+  private String lockCart(UUID id) {
+    return lineItemRepository.lockCart(id)
         .orElseThrow(() -> new EntityNotFoundException("Shopping cart not found: " + id));
-    repository.delete(cart);
   }
 
-  private void applyTotals(ShoppingCart cart, BigDecimal subtotal, BigDecimal tax, BigDecimal shipping, BigDecimal total,
-      String currency) {
-    cart.setSubtotal(subtotal);
-    cart.setTax(tax != null ? tax : BigDecimal.ZERO);
-    cart.setShipping(shipping != null ? shipping : BigDecimal.ZERO);
-    cart.setTotal(total);
-    cart.setCurrency(currency != null ? currency.toUpperCase(Locale.ROOT) : null);
+  private ShoppingCartDto.Totals recomputeTotals(UUID id, String currency) {
+    ShoppingCartDto.Totals totals = lineItemRepository.recomputeTotals(id, pricing.taxRate(), pricing.scale(currency),
+        pricing.shipping(currency));
+    responseCache.invalidateAfterCommit(id);
+    return totals;
+  }
+
+  private int exportChunk(List<ShoppingCart> chunk, Consumer<ShoppingCartDto.Response> sink) {
+    List<UUID> ids = chunk.stream().map(ShoppingCart::getId).collect(Collectors.toList());
+    repository.fetchItems(ids);
+    repository.fetchDiscounts(ids);
+    chunk.forEach(cart -> sink.accept(mapToResponse(cart)));
+    entityManager.clear();
+    return chunk.size();
+  }
+
+  private int resolvePageSize(Integer limit) {
+    AppProperties.Pagination pagination = properties.getPagination();
+    if (limit == null) {
+      return pagination.getDefaultPageSize();
+    }
+    return Math.max(1, Math.min(limit, pagination.getMaxPageSize()));
+  }
+
+  /**
+   * Runs a replayable write, retrying optimistic-locking conflicts with full-jitter exponential backoff.
+   */
+  private <T> T withOptimisticRetry(String operation, Supplier<T> write) {
+    AppProperties.OptimisticRetry retry = properties.getOptimisticRetry();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return write.get();
+      } catch (OptimisticLockingFailureException ex) {
+        recordConflict(operation);
+        if (attempt >= retry.getMaxAttempts()) {
+          meterRegistry.counter("shopping.cart.optimistic.retries.exhausted", "operation", operation).increment();
+          throw ex;
+        }
+        meterRegistry.counter("shopping.cart.optimistic.retries", "operation", operation).increment();
+        backOff(retry, attempt);
+      }
+    }
+  }
+
+  private static void backOff(AppProperties.OptimisticRetry retry, int attempt) {
+    Duration ceiling = retry.getInitialBackoff().multipliedBy(1L << Math.min(attempt - 1, 20));
+    long ceilingMillis = Math.min(ceiling.toMillis(), retry.getMaxBackoff().toMillis());
+    if (ceilingMillis <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceilingMillis + 1));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while backing off a cart write", ex);
+    }
+  }
+
+  private void recordConflict(String operation) {
+    meterRegistry.counter("shopping.cart.optimistic.conflicts", "operation", operation).increment();
+  }
+
+  private CartVersionMismatchException preconditionFailed(String operation, UUID id) {
+    meterRegistry.counter("shopping.cart.precondition.failures", "operation", operation).increment();
+    return new CartVersionMismatchException(id);
+  }
+
+  // Mapping helpers are static and package-private so the JMH benchmarks in src/jmh can drive them directly.
+
+  static ShoppingCart toNewCart(ShoppingCartDto.CreateRequest request, ShoppingCartPricing.Quote quote) {
+    ShoppingCart cart = new ShoppingCart();
+    cart.setId(UUID.randomUUID());
+    cart.setUserId(request.getUserId());
+    applyTotals(cart, quote);
+    cart.replaceItems(toItemEntities(request.getItems(), quote));
+    cart.replaceDiscounts(request.getDiscounts().stream()
+        .map(ShoppingCartService::toDiscountEntity)
+        .collect(Collectors.toList()));
+    return cart;
+  }
+
+  static void applyReplacement(ShoppingCart cart, ShoppingCartDto.UpdateRequest request,
+      ShoppingCartPricing.Quote quote) {
+    applyTotals(cart, quote);
+    cart.replaceItems(toItemEntities(request.getItems(), quote));
+    cart.replaceDiscounts(request.getDiscounts().stream()
+        .map(ShoppingCartService::toDiscountEntity)
+        .collect(Collectors.toList()));
+    cart.markModified();
+  }
+
+  static void applyTotals(ShoppingCart cart, ShoppingCartPricing.Quote quote) {
+    cart.setSubtotal(quote.toAmount(quote.subtotal()));
+    cart.setTax(quote.toAmount(quote.tax()));
+    cart.setShipping(quote.toAmount(quote.shipping()));
+    cart.setTotal(quote.toAmount(quote.total()));
+    cart.setCurrency(quote.currency());
+    cart.setItemCount(quote.lineTotals().length);
+    cart.setItemTotal(quote.toAmount(quote.subtotal()));
+    cart.setDiscountTotal(quote.toAmount(quote.discount()));
   }
 
-  private ShoppingCartItem toItemEntity(ShoppingCartDto.ItemPayload payload) {
+  static List<ShoppingCartItem> toItemEntities(List<ShoppingCartDto.ItemPayload> payloads,
+      ShoppingCartPricing.Quote quote) {
+    List<ShoppingCartItem> items = new ArrayList<>(payloads.size());
+    for (int i = 0; i < payloads.size(); i++) {
+      items.add(toItemEntity(payloads.get(i), quote.toAmount(quote.lineTotals()[i])));
+    }
+    return items;
+  }
+
+  static ShoppingCartItem toItemEntity(ShoppingCartDto.ItemPayload payload, BigDecimal totalPrice) {
     ShoppingCartItem item = new ShoppingCartItem();
     item.setProductId(payload.getProductId());
     item.setName(payload.getName());
     item.setQuantity(payload.getQuantity());
     item.setUnitPrice(payload.getUnitPrice());
     item.setCurrency(payload.getCurrency().toUpperCase(Locale.ROOT));
-
-    BigDecimal totalPrice = payload.getTotalPrice();
-    if (totalPrice == null) {
-      totalPrice = payload.getUnitPrice().multiply(BigDecimal.valueOf(payload.getQuantity()));
-    }
     item.setTotalPrice(totalPrice);
     return item;
   }
 
-  private ShoppingCartDiscount toDiscountEntity(ShoppingCartDto.DiscountPayload payload) {
+  static ShoppingCartDiscount toDiscountEntity(ShoppingCartDto.DiscountPayload payload) {
     ShoppingCartDiscount discount = new ShoppingCartDiscount();
     discount.setCode(payload.getCode());
     discount.setAmount(payload.getAmount());
     return discount;
   }
 
-  private ShoppingCartDto.Response mapToResponse(ShoppingCart cart) {
+  static ShoppingCartDto.Response mapToResponse(ShoppingCart cart) {
+    return mapToResponse(cart, cart.getVersion());
+  }
+
+  static ShoppingCartDto.Response mapToResponse(ShoppingCart cart, long version) {
     List<ShoppingCartDto.Item> items = cart.getItems().stream()
         .map(item -> new ShoppingCartDto.Item(
             item.getId(),
@@ -175,8 +652,26 @@ public class ShoppingCartService {
         cart.getCurrency(),
         cart.getCreatedAt(),
         cart.getUpdatedAt(),
+        version,
         items,
         discounts
     );
   }
+
+  static ShoppingCartDto.Summary mapToSummary(ShoppingCart cart, long version) {
+    return new ShoppingCartDto.Summary(
+        cart.getId(),
+        cart.getUserId(),
+        cart.getItemCount(),
+        cart.getItemTotal(),
+        cart.getDiscountTotal(),
+        cart.getTax(),
+        cart.getShipping(),
+        cart.getTotal(),
+        cart.getCurrency(),
+        cart.getCreatedAt(),
+        cart.getUpdatedAt(),
+        version
+    );
+  }
 }
@@ -0,0 +1,113 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartSummaryRepository.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartSummaryRepository
+ * Description: JDBC reads of the maintained cart summary columns for reporting.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads cart summaries from the {@code shopping_cart} row alone. {@code item_count}, {@code item_total} and
+ * {@code discount_total} are written together with the totals on every cart change, so a summary costs one
+ * primary-key or keyset index read and never aggregates child rows.
+ */
+@Repository
+public class ShoppingCartSummaryRepository {
+
+  private static final String COLUMNS = """
+      SELECT shopping_cart_id, user_id, item_count, item_total, discount_total, tax, shipping, total, currency,
+             created_at, updated_at, version
+      FROM shopping_cart.shopping_cart""";
+
+  private static final String FIND_BY_ID = COLUMNS + """
+
+      WHERE shopping_cart_id = :id""";
+
+  private static final String FIRST_PAGE = COLUMNS + """
+
+      ORDER BY updated_at DESC, shopping_cart_id DESC
+      LIMIT :limit""";
+
+  private static final String PAGE_AFTER = COLUMNS + """
+
+      WHERE (updated_at, shopping_cart_id) < (:updatedAt, :id)
+      ORDER BY updated_at DESC, shopping_cart_id DESC
+      LIMIT :limit""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ShoppingCartSummaryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Reads the summary of one cart.
+   *
+   * @param id cart identifier
+   * @return the summary, or empty when the cart does not exist
+   */
+  public Optional<ShoppingCartDto.Summary> findById(UUID id) {
+    return jdbcTemplate.query(FIND_BY_ID, new MapSqlParameterSource("id", id), ShoppingCartSummaryRepository::map)
+        .stream().findFirst();
+  }
+
+  /**
+   * Returns summaries of the most recently updated carts.
+   *
+   * @param limit maximum number of rows to return
+   * @return first page of summaries
+   */
+  public List<ShoppingCartDto.Summary> findFirstPage(int limit) {
+    return jdbcTemplate.query(FIRST_PAGE, new MapSqlParameterSource("limit", limit),
+        ShoppingCartSummaryRepository::map);
+  }
+
+  /**
+   * Returns summaries strictly after the supplied keyset position.
+   *
+   * @param updatedAt boundary modification timestamp
+   * @param id boundary cart identifier
+   * @param limit maximum number of rows to return
+   * @return next page of summaries
+   */
+  public List<ShoppingCartDto.Summary> findPageAfter(Instant updatedAt, UUID id, int limit) {
+    return jdbcTemplate.query(PAGE_AFTER, new MapSqlParameterSource("updatedAt", updatedAt.atOffset(ZoneOffset.UTC))
+        .addValue("id", id)
+        .addValue("limit", limit), ShoppingCartSummaryRepository::map);
+  }
+
+  private static ShoppingCartDto.Summary map(ResultSet rs, int rowNum) throws SQLException {
+    return new ShoppingCartDto.Summary(
+        rs.getObject("shopping_cart_id", UUID.class),
+        rs.getObject("user_id", UUID.class),
+        rs.getInt("item_count"),
+        rs.getBigDecimal("item_total"),
+        rs.getBigDecimal("discount_total"),
+        rs.getBigDecimal("tax"),
+        rs.getBigDecimal("shipping"),
+        rs.getBigDecimal("total"),
+        rs.getString("currency"),
+        rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+        rs.getObject("updated_at", OffsetDateTime.class).toInstant(),
+        rs.getLong("version")
+    );
+  }
+}
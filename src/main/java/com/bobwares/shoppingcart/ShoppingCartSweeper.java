@@ -0,0 +1,132 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartSweeper.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartSweeper
+ * Description: Scheduled purge of abandoned carts in throttled, keyset-ordered batches.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes carts that have not been updated within the configured TTL. Each sweep deletes batches of
+ * {@code batch-size} carts and sleeps between them so it stays under {@code rows-per-second}. It stops at the first
+ * short batch; carts skipped because a request held their lock are picked up by the next sweep.
+ *
+ * <p>Sweeps are safe to run on every instance at once: concurrent sweepers skip each other's locked rows.
+ */
+@Component
+public class ShoppingCartSweeper implements SchedulingConfigurer {
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final ShoppingCartExpiryRepository expiryRepository;
+  private final ShoppingCartResponseCache responseCache;
+  private final UserCartIdCache userCartCache;
+  private final AppProperties.CartTtl settings;
+  private final MeterRegistry meterRegistry;
+  private final Counter purged;
+
+  public ShoppingCartSweeper(ShoppingCartExpiryRepository expiryRepository, ShoppingCartResponseCache responseCache,
+      UserCartIdCache userCartCache, AppProperties properties, MeterRegistry meterRegistry) {
+    this.expiryRepository = expiryRepository;
+    this.responseCache = responseCache;
+    this.userCartCache = userCartCache;
+    this.settings = properties.getCartTtl();
+    this.meterRegistry = meterRegistry;
+    this.purged = Counter.builder("shopping.cart.sweeper.purged")
+        .description("Expired carts deleted by the sweeper; their items and discounts cascade")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    if (settings.isEnabled()) {
+      registrar.addFixedDelayTask(
+          new FixedDelayTask(this::sweepExpired, settings.getSweepInterval(), settings.getSweepInterval()));
+    }
+  }
+
+  /**
+   * Deletes every cart last updated more than the configured TTL ago.
+   *
+   * @return number of carts deleted
+   */
+  public int sweepExpired() {
+    return sweep(Instant.now().minus(settings.getTtl()));
+  }
+
+  /**
+   * Deletes carts last updated before the cutoff, batch by batch, at no more than the configured rate.
+   *
+   * @param cutoff carts updated strictly before this instant are deleted
+   * @return number of carts deleted
+   */
+  public int sweep(Instant cutoff) {
+    int batchSize = settings.getBatchSize();
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "error";
+    int total = 0;
+    try {
+      ShoppingCartExpiryRepository.PurgedCart after = null;
+      while (true) {
+        long started = System.nanoTime();
+        List<ShoppingCartExpiryRepository.PurgedCart> batch = after == null
+            ? expiryRepository.deleteFirstBatch(cutoff, batchSize)
+            : expiryRepository.deleteBatchAfter(cutoff, after, batchSize);
+        batch.forEach(cart -> {
+          responseCache.invalidate(cart.id());
+          userCartCache.invalidateCart(cart.id());
+        });
+        purged.increment(batch.size());
+        total += batch.size();
+        if (batch.size() < batchSize) {
+          outcome = "success";
+          return total;
+        }
+        after = batch.get(batch.size() - 1);
+        if (!pause(pauseNanos(batch.size(), System.nanoTime() - started, settings.getRowsPerSecond()))) {
+          outcome = "interrupted";
+          return total;
+        }
+      }
+    } finally {
+      sample.stop(Timer.builder("shopping.cart.sweeper.duration")
+          .description("Wall-clock time of one expired-cart sweep, including throttling pauses")
+          .tag("outcome", outcome)
+          .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Time to wait after a batch so the batch, including its own execution time, averages out to the target rate.
+   */
+  static long pauseNanos(int rows, long elapsedNanos, int rowsPerSecond) {
+    return Math.max(0, rows * NANOS_PER_SECOND / rowsPerSecond - elapsedNanos);
+  }
+
+  private static boolean pause(long nanos) {
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,338 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartWriteBehind.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartWriteBehind
+ * Description: In-memory buffer that coalesces bursts of full cart replacements and flushes the last one.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind buffer for unconditional cart replacements, owned by {@link ShoppingCartService}.
+ *
+ * <p>The first buffered update of a cart loads the aggregate once and schedules a flush after the window. Later
+ * updates inside the window are applied to that detached copy, and each one advances the buffered version so every
+ * accepted state still gets its own ETag. The flush writes only the last request and moves the stored version to the
+ * last buffered one. Until then, reads of the cart are answered from the buffer. Every other write to the cart
+ * flushes it first. Responses built from the buffer carry {@code null} ids for lines the buffered update added; the
+ * lines get their ids when the flush inserts them.
+ *
+ * <p>A flush that fails keeps the entry, so the update is neither lost nor hidden from reads, and is retried after
+ * twice the window, then four times, and so on up to {@value #MAX_RETRY_DELAY_SECONDS}s. After
+ * {@code maxFlushAttempts} failures, when the cart no longer exists, or when a flush on close fails, the update is
+ * dropped and its cart id logged at ERROR. The drop listener then runs, so responses rendered from the buffered state,
+ * which never reached the database, stop being served.
+ *
+ * <p>Each entry has its own lock, held while the entry is loaded, updated or flushed. An update that arrives during
+ * a flush waits for it and then starts a fresh entry from the flushed row. Locks are {@link ReentrantLock}s, so
+ * virtual threads are not pinned while a flush waits on the database.
+ */
+final class ShoppingCartWriteBehind {
+
+  private static final Logger log = LoggerFactory.getLogger(ShoppingCartWriteBehind.class);
+  private static final long MAX_RETRY_DELAY_SECONDS = 30;
+
+  private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+  private final ScheduledThreadPoolExecutor executor;
+  private final long windowNanos;
+  private final int maxPendingCarts;
+  private final int maxFlushAttempts;
+  private final Flusher flusher;
+  private final Consumer<UUID> dropListener;
+  private final Counter coalesced;
+  private final Counter flushed;
+  private final Counter failed;
+  private final Counter dropped;
+
+  ShoppingCartWriteBehind(Duration window, int maxPendingCarts, int flushThreads, int maxFlushAttempts,
+      Flusher flusher, Consumer<UUID> dropListener, MeterRegistry meterRegistry) {
+    AtomicInteger threads = new AtomicInteger();
+    this.executor = new ScheduledThreadPoolExecutor(flushThreads, runnable -> {
+      Thread thread = new Thread(runnable, "cart-write-behind-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.setRemoveOnCancelPolicy(true);
+    this.windowNanos = window.toNanos();
+    this.maxPendingCarts = maxPendingCarts;
+    this.maxFlushAttempts = maxFlushAttempts;
+    this.flusher = flusher;
+    this.dropListener = dropListener;
+    this.coalesced = meterRegistry.counter("shopping.cart.write.behind.buffered");
+    this.flushed = meterRegistry.counter("shopping.cart.write.behind.flushes");
+    this.failed = meterRegistry.counter("shopping.cart.write.behind.failures");
+    this.dropped = meterRegistry.counter("shopping.cart.write.behind.dropped");
+    Gauge.builder("shopping.cart.write.behind.pending", entries, ConcurrentHashMap::size).register(meterRegistry);
+  }
+
+  /**
+   * Applies an update to the buffered copy of a cart, loading it first when it is not buffered yet.
+   *
+   * @param id cart identifier
+   * @param request update to flush if no later one arrives within the window
+   * @param loader loads the cart aggregate; its exceptions propagate to the caller
+   * @param mutation applies the update to the buffered cart
+   * @return the response for the new buffered state, or empty when the buffer is full and the caller must write
+   *     synchronously
+   */
+  Optional<ShoppingCartDto.Response> buffer(UUID id, ShoppingCartDto.UpdateRequest request,
+      Function<UUID, ShoppingCart> loader, Consumer<ShoppingCart> mutation) {
+    while (true) {
+      if (entries.size() >= maxPendingCarts && !entries.containsKey(id)) {
+        return Optional.empty();
+      }
+      Entry entry = entries.computeIfAbsent(id, key -> new Entry());
+      entry.lock.lock();
+      try {
+        if (entry.done) {
+          continue;
+        }
+        if (entry.cart == null) {
+          load(id, entry, loader);
+        }
+        try {
+          mutation.accept(entry.cart);
+        } catch (RuntimeException ex) {
+          discard(id, entry);
+          throw ex;
+        }
+        entry.request = request;
+        entry.version++;
+        coalesced.increment();
+        return Optional.of(ShoppingCartService.mapToResponse(entry.cart, entry.version));
+      } finally {
+        entry.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Returns the buffered state of a cart, if an update to it is waiting to be flushed.
+   *
+   * @param id cart identifier
+   * @return buffered response
+   */
+  Optional<ShoppingCartDto.Response> find(UUID id) {
+    return read(id, entry -> ShoppingCartService.mapToResponse(entry.cart, entry.version));
+  }
+
+  /**
+   * Returns the buffered version of a cart, if an update to it is waiting to be flushed.
+   *
+   * @param id cart identifier
+   * @return buffered version
+   */
+  Optional<Long> findVersion(UUID id) {
+    return read(id, entry -> entry.version);
+  }
+
+  /**
+   * Returns the buffered summary of a cart, if an update to it is waiting to be flushed.
+   *
+   * @param id cart identifier
+   * @return buffered summary
+   */
+  Optional<ShoppingCartDto.Summary> findSummary(UUID id) {
+    return read(id, entry -> ShoppingCartService.mapToSummary(entry.cart, entry.version));
+  }
+
+  /**
+   * Writes the buffered update of a cart now, if there is one. Failures propagate to the caller; the update stays
+   * buffered and is retried like a failed scheduled flush.
+   *
+   * @param id cart identifier
+   */
+  void flush(UUID id) {
+    Entry entry = entries.get(id);
+    if (entry != null) {
+      flush(id, entry);
+    }
+  }
+
+  /**
+   * Stops scheduled flushes and writes every buffered update on the calling thread. Updates that fail to flush are
+   * dropped and logged.
+   */
+  void close() {
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(30, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    for (UUID id : List.copyOf(entries.keySet())) {
+      try {
+        flush(id);
+      } catch (RuntimeException ex) {
+        // already logged; keep flushing the remaining carts
+      }
+    }
+  }
+
+  /**
+   * Loads the copy of a new entry, or reloads it for an entry whose update is pending a retry after its copy was
+   * discarded. The pending update and its version survive a failed reload.
+   */
+  private void load(UUID id, Entry entry, Function<UUID, ShoppingCart> loader) {
+    try {
+      entry.cart = loader.apply(id);
+    } catch (RuntimeException ex) {
+      if (entry.request == null) {
+        entry.done = true;
+        entries.remove(id, entry);
+      }
+      throw ex;
+    }
+    entry.version = Math.max(entry.version, entry.cart.getVersion());
+    if (entry.scheduled == null) {
+      entry.scheduled = executor.schedule(() -> flushScheduled(id, entry), windowNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Drops a buffered copy that a rejected update may have left half-applied. The last accepted update, if any, is
+   * still written; it is flushed from its request, not from the copy. If that flush fails, the update stays pending
+   * without a copy: reads go to the database until the next update reloads it.
+   */
+  private void discard(UUID id, Entry entry) {
+    if (entry.request == null) {
+      entry.done = true;
+      entries.remove(id, entry);
+      return;
+    }
+    try {
+      flush(id, entry);
+    } catch (RuntimeException ex) {
+      // retried or dropped in flush; the caller gets the rejection of its own update
+      entry.cart = null;
+    }
+  }
+
+  private void flushScheduled(UUID id, Entry entry) {
+    try {
+      flush(id, entry);
+    } catch (RuntimeException ex) {
+      // retried or dropped in flush; the scheduler has no caller to report to
+    }
+  }
+
+  private void flush(UUID id, Entry entry) {
+    entry.lock.lock();
+    try {
+      if (entry.done || entry.request == null) {
+        return;
+      }
+      try {
+        flusher.flush(id, entry.request, entry.version);
+      } catch (RuntimeException ex) {
+        failed.increment();
+        retryOrDrop(id, entry, ex);
+        throw ex;
+      }
+      flushed.increment();
+      remove(id, entry);
+    } finally {
+      entry.lock.unlock();
+    }
+  }
+
+  /**
+   * Schedules the next attempt of a failed flush with exponential backoff, or gives the update up. Called with the
+   * entry locked.
+   */
+  private void retryOrDrop(UUID id, Entry entry, RuntimeException failure) {
+    entry.failures++;
+    if (entry.failures < maxFlushAttempts && !(failure instanceof EntityNotFoundException)) {
+      long delayNanos = Math.min(windowNanos << Math.min(entry.failures, 20),
+          TimeUnit.SECONDS.toNanos(MAX_RETRY_DELAY_SECONDS));
+      try {
+        entry.scheduled.cancel(false);
+        entry.scheduled = executor.schedule(() -> flushScheduled(id, entry), delayNanos, TimeUnit.NANOSECONDS);
+        log.warn("Flush {} of buffered update to cart {} failed, retrying in {} ms", entry.failures, id,
+            TimeUnit.NANOSECONDS.toMillis(delayNanos), failure);
+        return;
+      } catch (RejectedExecutionException ex) {
+        // shutting down; close() has nobody to retry for
+      }
+    }
+    dropped.increment();
+    remove(id, entry);
+    log.error("Dropped buffered update to cart {} at version {} after {} failed flushes", id, entry.version,
+        entry.failures, failure);
+    dropListener.accept(id);
+  }
+
+  private void remove(UUID id, Entry entry) {
+    entry.done = true;
+    entry.scheduled.cancel(false);
+    entries.remove(id, entry);
+  }
+
+  private <T> Optional<T> read(UUID id, Function<Entry, T> reader) {
+    Entry entry = entries.get(id);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    entry.lock.lock();
+    try {
+      return entry.done || entry.cart == null ? Optional.empty() : Optional.of(reader.apply(entry));
+    } finally {
+      entry.lock.unlock();
+    }
+  }
+
+  /**
+   * Persists the last buffered update of a cart.
+   */
+  @FunctionalInterface
+  interface Flusher {
+
+    /**
+     * Writes the update and leaves the stored cart at {@code version}.
+     *
+     * @param id cart identifier
+     * @param request last buffered update
+     * @param version version the buffered state was reported with
+     */
+    void flush(UUID id, ShoppingCartDto.UpdateRequest request, long version);
+  }
+
+  /**
+   * Buffered state of one cart.
+   */
+  private static final class Entry {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private ShoppingCart cart;
+    private ShoppingCartDto.UpdateRequest request;
+    private long version;
+    private int failures;
+    private ScheduledFuture<?> scheduled;
+    private boolean done;
+  }
+}
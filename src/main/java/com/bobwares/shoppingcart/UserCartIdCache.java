@@ -0,0 +1,167 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: UserCartIdCache.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: UserCartIdCache
+ * Description: Size-bounded in-process map from user id to cart id, invalidated when carts are created or deleted
+ *              and instrumented with Micrometer cache metrics.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Remembers which cart each user owns, so resolving it on a hit is a hash lookup. A cart never changes owner, so an
+ * entry only goes stale when the cart is deleted or the user gets a new one; users without a cart are not cached.
+ *
+ * <p>Deletes know the cart, not the user, so a reverse map from cart id to user id is kept alongside. A load is
+ * discarded when the same user is invalidated while it runs, tracked per user with {@link InFlightLoads} as in
+ * {@link ShoppingCartResponseCache}; invalidations of other users do not affect it. A cart delete reaches an in-flight
+ * load only through the reverse map, so an entry can still outlive its cart, e.g. when the delete lands before the
+ * load has recorded the cart or after the reverse entry was evicted. The caller catches that when the cart turns out
+ * to be gone.
+ */
+@Component
+public class UserCartIdCache {
+
+  static final String CACHE_NAME = "user-cart-ids";
+
+  private final Cache<UUID, UUID> cartIdsByUser;
+  private final Cache<UUID, UUID> usersByCartId;
+  private final boolean enabled;
+  private final InFlightLoads<UUID> loads = new InFlightLoads<>();
+
+  public UserCartIdCache(AppProperties properties, MeterRegistry meterRegistry) {
+    AppProperties.UserCartCache settings = properties.getUserCartCache();
+    this.enabled = settings.isEnabled();
+    this.cartIdsByUser = Caffeine.newBuilder()
+        .maximumSize(settings.getMaximumSize())
+        .expireAfterWrite(settings.getTtl())
+        .recordStats()
+        .build();
+    this.usersByCartId = Caffeine.newBuilder()
+        .maximumSize(settings.getMaximumSize())
+        .expireAfterWrite(settings.getTtl())
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cartIdsByUser, CACHE_NAME);
+  }
+
+  /**
+   * Returns the cached cart id of a user.
+   *
+   * @param userId owner of the cart
+   * @return the cart id, or empty on a miss
+   */
+  public Optional<UUID> find(UUID userId) {
+    return enabled ? Optional.ofNullable(cartIdsByUser.getIfPresent(userId)) : Optional.empty();
+  }
+
+  /**
+   * Returns the cart id of a user, loading and caching it on a miss.
+   *
+   * @param userId owner of the cart
+   * @param loader looks the cart id up on a miss
+   * @return the cart id, or empty when the user has no cart
+   */
+  public Optional<UUID> get(UUID userId, Function<UUID, Optional<UUID>> loader) {
+    Optional<UUID> cached = find(userId);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    try (InFlightLoads<UUID>.Load load = loads.start(userId)) {
+      Optional<UUID> loaded = loader.apply(userId);
+      if (enabled && loaded.isPresent() && !load.invalidated()) {
+        put(userId, loaded.get());
+        if (load.invalidated()) {
+          invalidateUser(userId);
+        }
+      }
+      return loaded;
+    }
+  }
+
+  /**
+   * Records the cart a user owns, as returned by a statement that read or created it.
+   *
+   * @param userId owner of the cart
+   * @param cartId cart identifier
+   */
+  public void put(UUID userId, UUID cartId) {
+    if (enabled) {
+      usersByCartId.put(cartId, userId);
+      cartIdsByUser.put(userId, cartId);
+    }
+  }
+
+  /**
+   * Drops the entry of a user once the current transaction commits, or immediately when no transaction is active.
+   *
+   * @param userId owner of the cart
+   */
+  public void invalidateUserAfterCommit(UUID userId) {
+    afterCommit(() -> invalidateUser(userId));
+  }
+
+  /**
+   * Drops the entry pointing at a cart once the current transaction commits, or immediately when no transaction is
+   * active.
+   *
+   * @param cartId cart identifier
+   */
+  public void invalidateCartAfterCommit(UUID cartId) {
+    afterCommit(() -> invalidateCart(cartId));
+  }
+
+  /**
+   * Drops the entry of a user immediately.
+   *
+   * @param userId owner of the cart
+   */
+  public void invalidateUser(UUID userId) {
+    loads.invalidate(userId);
+    UUID cartId = cartIdsByUser.asMap().remove(userId);
+    if (cartId != null) {
+      usersByCartId.asMap().remove(cartId, userId);
+    }
+  }
+
+  /**
+   * Drops the entry pointing at a cart immediately.
+   *
+   * @param cartId cart identifier
+   */
+  public void invalidateCart(UUID cartId) {
+    UUID userId = usersByCartId.asMap().remove(cartId);
+    if (userId != null) {
+      loads.invalidate(userId);
+      cartIdsByUser.asMap().remove(userId, cartId);
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: UserShoppingCartRepository.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: UserShoppingCartRepository
+ * Description: Single-statement get-or-create of the cart owned by a user.
+ */
+package com.bobwares.shoppingcart;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Resolves the cart of a user, creating an empty one when there is none, in one statement. The insert is guarded by
+ * {@code ON CONFLICT (user_id) DO NOTHING}, so concurrent callers never hit the unique constraint; when the insert is
+ * skipped the same statement returns the existing cart with its items and discounts aggregated as JSON.
+ *
+ * <p>A conflicting insert committed after the statement took its snapshot is skipped by the insert but invisible to
+ * the read, and the statement returns no row. Running it again sees the committed cart.
+ */
+@Repository
+public class UserShoppingCartRepository {
+
+  private static final String GET_OR_CREATE = """
+      WITH inserted AS (
+          INSERT INTO shopping_cart.shopping_cart
+              (shopping_cart_id, user_id, subtotal, tax, shipping, total, currency, item_count, item_total,
+               discount_total)
+          VALUES (:id, :userId, :subtotal, :tax, :shipping, :total, :currency, 0, :itemTotal, :discountTotal)
+          ON CONFLICT (user_id) DO NOTHING
+          RETURNING shopping_cart_id, user_id, subtotal, tax, shipping, total, currency, created_at, updated_at,
+                    version)
+      SELECT n.*, TRUE AS created, '[]'::json AS items, '[]'::json AS discounts
+      FROM inserted n
+      UNION ALL
+      SELECT c.shopping_cart_id, c.user_id, c.subtotal, c.tax, c.shipping, c.total, c.currency, c.created_at,
+             c.updated_at, c.version, FALSE,
+             COALESCE((SELECT json_agg(json_build_object(
+                          'id', i.cart_item_id, 'productId', i.product_id, 'name', i.name,
+                          'quantity', i.quantity, 'unitPrice', i.unit_price, 'totalPrice', i.total_price,
+                          'currency', i.currency))
+                       FROM shopping_cart.shopping_cart_item i
+                       WHERE i.shopping_cart_id = c.shopping_cart_id), '[]'::json),
+             COALESCE((SELECT json_agg(json_build_object('id', d.discount_id, 'code', d.code, 'amount', d.amount))
+                       FROM shopping_cart.shopping_cart_discount d
+                       WHERE d.shopping_cart_id = c.shopping_cart_id), '[]'::json)
+      FROM shopping_cart.shopping_cart c
+      WHERE c.user_id = :userId AND NOT EXISTS (SELECT 1 FROM inserted)""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final JavaType itemList;
+  private final JavaType discountList;
+
+  public UserShoppingCartRepository(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.itemList = objectMapper.getTypeFactory().constructCollectionType(List.class, ShoppingCartDto.Item.class);
+    this.discountList =
+        objectMapper.getTypeFactory().constructCollectionType(List.class, ShoppingCartDto.Discount.class);
+  }
+
+  /**
+   * Inserts {@code cart} unless its user already has one, and returns whichever cart the user now owns.
+   *
+   * @param cart new, empty cart carrying the user id, currency and totals to insert
+   * @return the new or existing cart, or empty when a concurrent insert for the same user raced this statement
+   */
+  public Optional<ShoppingCartDto.UserCart> getOrCreate(ShoppingCart cart) {
+    return jdbcTemplate.query(GET_OR_CREATE, new MapSqlParameterSource("id", cart.getId())
+            .addValue("userId", cart.getUserId())
+            .addValue("subtotal", cart.getSubtotal())
+            .addValue("tax", cart.getTax())
+            .addValue("shipping", cart.getShipping())
+            .addValue("total", cart.getTotal())
+            .addValue("currency", cart.getCurrency())
+            .addValue("itemTotal", cart.getItemTotal())
+            .addValue("discountTotal", cart.getDiscountTotal()), this::map)
+        .stream().findFirst();
+  }
+
+  private ShoppingCartDto.UserCart map(ResultSet rs, int rowNum) throws SQLException {
+    ShoppingCartDto.Response cart = new ShoppingCartDto.Response(
+        rs.getObject("shopping_cart_id", UUID.class),
+        rs.getObject("user_id", UUID.class),
+        rs.getBigDecimal("subtotal"),
+        rs.getBigDecimal("tax"),
+        rs.getBigDecimal("shipping"),
+        rs.getBigDecimal("total"),
+        rs.getString("currency"),
+        rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+        rs.getObject("updated_at", OffsetDateTime.class).toInstant(),
+        rs.getLong("version"),
+        readJson(rs.getString("items"), itemList),
+        readJson(rs.getString("discounts"), discountList)
+    );
+    return new ShoppingCartDto.UserCart(cart, rs.getBoolean("created"));
+  }
+
+  private <T> List<T> readJson(String json, JavaType type) throws SQLException {
+    try {
+      return objectMapper.readValue(json, type);
+    } catch (JsonProcessingException ex) {
+      throw new SQLException("Unreadable aggregated cart lines", ex);
+    }
+  }
+}
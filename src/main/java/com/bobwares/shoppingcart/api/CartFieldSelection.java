@@ -0,0 +1,138 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.api
+ * File: CartFieldSelection.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: CartFieldSelection
+ * Description: Resolves the view and sparse fieldset requested on cart reads and trims responses to it.
+ */
+package com.bobwares.shoppingcart.api;
+
+import com.bobwares.shoppingcart.InvalidFieldSelectionException;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Parsed {@code view} and {@code fields} parameters of a cart read. {@code view=summary} is served from
+ * {@link ShoppingCartDto.Summary}, read from the cart row alone; {@code view=full} from
+ * {@link ShoppingCartDto.Response} with its items and discounts. Without a view, the summary is used whenever it has
+ * every requested field, so a selection such as {@code fields=itemCount,total} never loads a line. Field names are the
+ * JSON property names of the chosen record; the response keeps them in declaration order.
+ *
+ * @param summary whether the summary projection serves the read
+ * @param fields requested property names, or {@code null} for all of them
+ */
+record CartFieldSelection(boolean summary, Set<String> fields) {
+
+  private static final Set<String> SUMMARY = names(ShoppingCartDto.Summary.class);
+  private static final Set<String> FULL = names(ShoppingCartDto.Response.class);
+
+  /**
+   * Resolves the request parameters.
+   *
+   * @param view {@code summary}, {@code full} or {@code null}
+   * @param fields comma-separated property names, or {@code null}
+   * @return the selection
+   * @throws InvalidFieldSelectionException for an unknown view or fields the view does not have
+   */
+  static CartFieldSelection resolve(String view, String fields) {
+    Set<String> requested = parse(fields);
+    if (view == null || view.isBlank()) {
+      if (requested == null || SUMMARY.containsAll(requested)) {
+        return new CartFieldSelection(requested != null, requested);
+      }
+      return new CartFieldSelection(false, check(FULL, requested, "full"));
+    }
+    return switch (view) {
+      case "summary" -> new CartFieldSelection(true, check(SUMMARY, requested, "summary"));
+      case "full" -> new CartFieldSelection(false, check(FULL, requested, "full"));
+      default -> throw new InvalidFieldSelectionException("Unknown view: " + view + "; expected summary or full");
+    };
+  }
+
+  /**
+   * Whether the response must be trimmed to {@link #fields()}.
+   */
+  boolean sparse() {
+    return fields != null;
+  }
+
+  /**
+   * Entity tag of the selected representation at a cart version. The full representation is tagged with the version
+   * alone; the summary view and sparse fieldsets append the view and the sorted field names after a {@code ;}, so a
+   * cache holding one representation never revalidates another with a 304.
+   *
+   * @param version cart version
+   * @return quoted strong entity tag
+   */
+  String eTag(long version) {
+    StringBuilder tag = new StringBuilder().append('"').append(version);
+    if (summary) {
+      tag.append(";summary");
+    }
+    if (fields != null) {
+      tag.append(";fields=").append(String.join(",", new TreeSet<>(fields)));
+    }
+    return tag.append('"').toString();
+  }
+
+  /**
+   * Copies the selected properties of a summary or response, keeping their Java types so every payload format
+   * encodes them as it would the whole record.
+   *
+   * @param source {@link ShoppingCartDto.Summary} or {@link ShoppingCartDto.Response}
+   * @return selected properties in declaration order
+   */
+  Map<String, Object> select(Record source) {
+    Map<String, Object> selected = new LinkedHashMap<>();
+    for (RecordComponent component : source.getClass().getRecordComponents()) {
+      if (fields.contains(component.getName())) {
+        try {
+          selected.put(component.getName(), component.getAccessor().invoke(source));
+        } catch (ReflectiveOperationException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }
+    }
+    return selected;
+  }
+
+  private static Set<String> parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return null;
+    }
+    Set<String> names = Arrays.stream(fields.split(","))
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    return names.isEmpty() ? null : names;
+  }
+
+  private static Set<String> check(Set<String> available, Set<String> requested, String view) {
+    if (requested == null) {
+      return null;
+    }
+    Set<String> unknown = new LinkedHashSet<>(requested);
+    unknown.removeAll(available);
+    if (!unknown.isEmpty()) {
+      throw new InvalidFieldSelectionException("Unknown fields for the " + view + " view: "
+          + String.join(",", unknown) + "; expected any of " + String.join(",", available));
+    }
+    return requested;
+  }
+
+  private static Set<String> names(Class<? extends Record> type) {
+    return Arrays.stream(type.getRecordComponents())
+        .map(RecordComponent::getName)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+}
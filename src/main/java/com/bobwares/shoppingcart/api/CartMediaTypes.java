@@ -0,0 +1,63 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.api
+ * File: CartMediaTypes.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: CartMediaTypes
+ * Description: Accept header negotiation for endpoints that write pre-serialized cart bodies.
+ */
+package com.bobwares.shoppingcart.api;
+
+import com.bobwares.shoppingcart.config.PayloadFormatConfiguration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+/**
+ * Picks the format of a cached cart body. Message converters negotiate every other response; bodies served from
+ * {@link com.bobwares.shoppingcart.ShoppingCartResponseCache} are already bytes, so the controller has to know the
+ * format before it looks them up.
+ */
+final class CartMediaTypes {
+
+  private CartMediaTypes() {
+  }
+
+  /**
+   * Returns the supported media type the client prefers, JSON when it accepts anything.
+   *
+   * @param accept {@code Accept} header, may be {@code null}
+   * @return one of {@link PayloadFormatConfiguration#MEDIA_TYPES}
+   * @throws HttpMediaTypeNotAcceptableException when the header is invalid or accepts none of them
+   */
+  static MediaType select(String accept) throws HttpMediaTypeNotAcceptableException {
+    if (!StringUtils.hasText(accept)) {
+      return MediaType.APPLICATION_JSON;
+    }
+    List<MediaType> requested;
+    try {
+      requested = new ArrayList<>(MediaType.parseMediaTypes(accept));
+    } catch (InvalidMediaTypeException ex) {
+      throw new HttpMediaTypeNotAcceptableException(ex.getMessage());
+    }
+    requested.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+    for (MediaType candidate : requested) {
+      if (candidate.getQualityValue() == 0) {
+        continue;
+      }
+      for (MediaType supported : PayloadFormatConfiguration.MEDIA_TYPES) {
+        if (candidate.includes(supported)) {
+          return supported;
+        }
+      }
+    }
+    throw new HttpMediaTypeNotAcceptableException(PayloadFormatConfiguration.MEDIA_TYPES);
+  }
+}
@@ -11,7 +11,14 @@
  */
 package com.bobwares.shoppingcart.api;
 
+import com.bobwares.shoppingcart.CartVersionMismatchException;
+import com.bobwares.shoppingcart.ShoppingCartImporter;
+import com.bobwares.shoppingcart.ShoppingCartResponseCache;
 import com.bobwares.shoppingcart.ShoppingCartService;
+import com.bobwares.shoppingcart.config.PayloadFormatConfiguration;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -19,19 +26,34 @@ import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST controller providing CRUD operations for shopping carts.
@@ -42,9 +64,17 @@ import org.springframework.web.bind.annotation.RestController;
 public class ShoppingCartController {
 
   private final ShoppingCartService shoppingCartService;
+  private final ShoppingCartResponseCache responseCache;
+  private final ShoppingCartImporter importer;
+  private final ObjectWriter exportWriter;
 
-  public ShoppingCartController(ShoppingCartService shoppingCartService) {
+  public ShoppingCartController(ShoppingCartService shoppingCartService, ShoppingCartResponseCache responseCache,
+      ShoppingCartImporter importer, ObjectMapper objectMapper) {
     this.shoppingCartService = shoppingCartService;
+    this.responseCache = responseCache;
+    this.importer = importer;
+    this.exportWriter = objectMapper.writerFor(ShoppingCartDto.Response.class)
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
   }
 
   @PostMapping
@@ -59,49 +89,262 @@ public class ShoppingCartController {
       @RequestBody(description = "Shopping cart creation payload", required = true)
       ShoppingCartDto.CreateRequest request) {
     ShoppingCartDto.Response response = shoppingCartService.create(request);
-    return ResponseEntity.created(URI.create("/api/shopping-carts/" + response.id())).body(response);
+    return ResponseEntity.created(URI.create("/api/shopping-carts/" + response.id()))
+        .eTag(eTag(response.version()))
+        .body(response);
   }
 
-  @GetMapping("/{id}")
-  @Operation(summary = "Retrieve a shopping cart by id")
+  @GetMapping(value = "/{id}", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      PayloadFormatConfiguration.APPLICATION_SMILE_VALUE
+  })
+  @Operation(summary = "Retrieve a shopping cart by id",
+      description = "Sends the cart version as a strong ETag, suffixed with the view and fields when they trim the "
+          + "body. A matching If-None-Match returns 304 after reading only the version. Send Accept: application/cbor "
+          + "or application/x-jackson-smile for a binary body. "
+          + "view=summary returns the cart summary from one row read; fields=a,b returns only those properties, "
+          + "from the summary when it has all of them.")
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Cart found",
           content = @Content(schema = @Schema(implementation = ShoppingCartDto.Response.class))),
+      @ApiResponse(responseCode = "304", description = "Cart unchanged since the supplied ETag", content = @Content),
+      @ApiResponse(responseCode = "400", description = "Unknown view or field", content = @Content),
       @ApiResponse(responseCode = "404", description = "Cart not found", content = @Content)
   })
-  public ResponseEntity<ShoppingCartDto.Response> get(@PathVariable UUID id) {
-    return ResponseEntity.ok(shoppingCartService.get(id));
+  public ResponseEntity<?> get(
+      @PathVariable UUID id,
+      @RequestParam(required = false) String view,
+      @RequestParam(required = false) String fields,
+      WebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+    CartFieldSelection selection = CartFieldSelection.resolve(view, fields);
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+        && webRequest.checkNotModified(selection.eTag(shoppingCartService.getVersion(id)))) {
+      return null;
+    }
+    if (selection.summary()) {
+      ShoppingCartDto.Summary summary = shoppingCartService.getSummary(id);
+      return ResponseEntity.ok()
+          .eTag(selection.eTag(summary.version()))
+          .body(selection.sparse() ? selection.select(summary) : summary);
+    }
+    if (selection.sparse()) {
+      ShoppingCartDto.Response response = shoppingCartService.get(id);
+      return ResponseEntity.ok().eTag(selection.eTag(response.version())).body(selection.select(response));
+    }
+    MediaType mediaType = CartMediaTypes.select(webRequest.getHeader(HttpHeaders.ACCEPT));
+    ShoppingCartResponseCache.CachedResponse response = responseCache.get(id, mediaType, shoppingCartService::get);
+    return ResponseEntity.ok()
+        .eTag(eTag(response.version()))
+        .varyBy(HttpHeaders.ACCEPT)
+        .contentType(mediaType)
+        .body(response.body());
   }
 
   @GetMapping
-  @Operation(summary = "List shopping carts")
-  @ApiResponse(responseCode = "200", description = "List of carts",
-      content = @Content(schema = @Schema(implementation = ShoppingCartDto.Response.class)))
-  public ResponseEntity<List<ShoppingCartDto.Response>> list() {
-    return ResponseEntity.ok(shoppingCartService.list());
+  @Operation(summary = "List shopping carts",
+      description = "Returns carts ordered by most recent update. Pass nextCursor back as cursor to fetch the next "
+          + "page. view=summary returns cart summaries read from the cart rows alone; fields=a,b returns only those "
+          + "properties of each cart, from the summaries when they have all of them.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Page of carts",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.PageResponse.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor, view or field", content = @Content)
+  })
+  public ResponseEntity<?> list(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String view,
+      @RequestParam(required = false) String fields) {
+    CartFieldSelection selection = CartFieldSelection.resolve(view, fields);
+    if (selection.summary()) {
+      ShoppingCartDto.SummaryPageResponse page = shoppingCartService.listSummaries(cursor, limit);
+      return ResponseEntity.ok(selection.sparse()
+          ? new ShoppingCartDto.SparsePageResponse(
+              page.items().stream().map(selection::select).toList(), page.nextCursor())
+          : page);
+    }
+    ShoppingCartDto.PageResponse page = shoppingCartService.list(cursor, limit);
+    return ResponseEntity.ok(selection.sparse()
+        ? new ShoppingCartDto.SparsePageResponse(
+            page.items().stream().map(selection::select).toList(), page.nextCursor())
+        : page);
+  }
+
+  @GetMapping("/summaries")
+  @Operation(summary = "List shopping cart summaries",
+      description = "Item count, item total, discount and totals per cart, read from the cart row alone. Ordered and "
+          + "paginated like the cart list.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Page of cart summaries",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.SummaryPageResponse.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content)
+  })
+  public ResponseEntity<ShoppingCartDto.SummaryPageResponse> listSummaries(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(shoppingCartService.listSummaries(cursor, limit));
+  }
+
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Export all shopping carts",
+      description = "Streams every cart with its items and discounts as newline-delimited JSON, one cart per line, "
+          + "in no particular order. Send Accept-Encoding: gzip to receive a compressed stream.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "NDJSON stream of carts",
+          content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = ShoppingCartDto.Response.class)))
+  })
+  public void export(HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    OutputStream out = response.getOutputStream();
+    shoppingCartService.export(cart -> writeLine(out, cart));
+    out.flush();
+  }
+
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Bulk import shopping carts",
+      description = "Reads one cart creation payload per line and stores valid carts in batches. Invalid records, and "
+          + "records for users that already have a cart, are reported by line number without stopping the import.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Import finished",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.ImportResult.class)))
+  })
+  public ResponseEntity<ShoppingCartDto.ImportResult> importCarts(InputStream body) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    return ResponseEntity.ok(importer.importCarts(reader));
+  }
+
+  @GetMapping("/{id}/summary")
+  @Operation(summary = "Retrieve the summary of a shopping cart")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Cart summary",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.Summary.class))),
+      @ApiResponse(responseCode = "404", description = "Cart not found", content = @Content)
+  })
+  public ResponseEntity<ShoppingCartDto.Summary> getSummary(@PathVariable UUID id) {
+    ShoppingCartDto.Summary summary = shoppingCartService.getSummary(id);
+    return ResponseEntity.ok().eTag(eTag(summary.version())).body(summary);
   }
 
   @PutMapping("/{id}")
-  @Operation(summary = "Update a shopping cart")
+  @Operation(summary = "Update a shopping cart",
+      description = "Send the ETag from a previous read as If-Match to reject the update when the cart changed since.")
   @ApiResponses({
       @ApiResponse(responseCode = "200", description = "Cart updated",
           content = @Content(schema = @Schema(implementation = ShoppingCartDto.Response.class))),
       @ApiResponse(responseCode = "400", description = "Validation error", content = @Content),
-      @ApiResponse(responseCode = "404", description = "Cart not found", content = @Content)
+      @ApiResponse(responseCode = "404", description = "Cart not found", content = @Content),
+      @ApiResponse(responseCode = "409", description = "Concurrent updates kept conflicting", content = @Content),
+      @ApiResponse(responseCode = "412", description = "Cart no longer matches If-Match", content = @Content)
   })
   public ResponseEntity<ShoppingCartDto.Response> update(
       @PathVariable UUID id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @Valid @org.springframework.web.bind.annotation.RequestBody
       @RequestBody(description = "Shopping cart update payload", required = true)
       ShoppingCartDto.UpdateRequest request) {
-    return ResponseEntity.ok(shoppingCartService.update(id, request));
+    ShoppingCartDto.Response response = shoppingCartService.update(id, request, expectedVersion(id, ifMatch));
+    return ResponseEntity.ok().eTag(eTag(response.version())).body(response);
   }
 
   @DeleteMapping("/{id}")
   @Operation(summary = "Delete a shopping cart")
-  @ApiResponse(responseCode = "204", description = "Cart deleted")
-  public ResponseEntity<Void> delete(@PathVariable UUID id) {
-    shoppingCartService.delete(id);
+  @ApiResponses({
+      @ApiResponse(responseCode = "204", description = "Cart deleted"),
+      @ApiResponse(responseCode = "404", description = "Cart not found", content = @Content),
+      @ApiResponse(responseCode = "412", description = "Cart no longer matches If-Match", content = @Content)
+  })
+  public ResponseEntity<Void> delete(@PathVariable UUID id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    shoppingCartService.delete(id, expectedVersion(id, ifMatch));
     return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
   }
+
+  @PostMapping("/{id}/items/{productId}")
+  @Operation(summary = "Add a product to a shopping cart",
+      description = "Creates the line or adds to its quantity in one small transaction and returns the new totals.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Line added",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.Totals.class))),
+      @ApiResponse(responseCode = "404", description = "Cart not found", content = @Content),
+      @ApiResponse(responseCode = "409", description = "Currency does not match the cart", content = @Content),
+      @ApiResponse(responseCode = "422",
+          description = "Unit price is finer than the currency's minor unit, or the line total is too large to store",
+          content = @Content)
+  })
+  public ResponseEntity<ShoppingCartDto.Totals> addItem(
+      @PathVariable UUID id,
+      @PathVariable String productId,
+      @Valid @org.springframework.web.bind.annotation.RequestBody
+      @RequestBody(description = "Line item payload", required = true)
+      ShoppingCartDto.AddItemRequest request) {
+    return ResponseEntity.ok(shoppingCartService.addItem(id, productId, request));
+  }
+
+  @PatchMapping("/{id}/items/{productId}")
+  @Operation(summary = "Change the quantity of a cart line")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Quantity changed",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.Totals.class))),
+      @ApiResponse(responseCode = "404", description = "Cart or line not found", content = @Content)
+  })
+  public ResponseEntity<ShoppingCartDto.Totals> updateItemQuantity(
+      @PathVariable UUID id,
+      @PathVariable String productId,
+      @Valid @org.springframework.web.bind.annotation.RequestBody
+      @RequestBody(description = "Quantity payload", required = true)
+      ShoppingCartDto.ItemQuantityRequest request) {
+    return ResponseEntity.ok(shoppingCartService.updateItemQuantity(id, productId, request));
+  }
+
+  @DeleteMapping("/{id}/items/{productId}")
+  @Operation(summary = "Remove a line from a shopping cart")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Line removed",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.Totals.class))),
+      @ApiResponse(responseCode = "404", description = "Cart or line not found", content = @Content)
+  })
+  public ResponseEntity<ShoppingCartDto.Totals> removeItem(@PathVariable UUID id, @PathVariable String productId) {
+    return ResponseEntity.ok(shoppingCartService.removeItem(id, productId));
+  }
+
+  private void writeLine(OutputStream out, ShoppingCartDto.Response cart) {
+    try {
+      exportWriter.writeValue(out, cart);
+      out.write('\n');
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static String eTag(long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Extracts the cart version from an {@code If-Match} header. If-Match uses strong comparison, so weak or foreign
+   * tags can never match and fail the precondition straight away. The tag of a summary or sparse read names the same
+   * cart version before its {@code ;}.
+   */
+  private static Long expectedVersion(UUID id, String ifMatch) {
+    if (ifMatch == null) {
+      return null;
+    }
+    for (ETag tag : ETag.parse(ifMatch)) {
+      if (tag.isWildcard()) {
+        return null;
+      }
+      if (!tag.weak()) {
+        try {
+          String value = tag.tag();
+          int representation = value.indexOf(';');
+          return Long.valueOf(representation < 0 ? value : value.substring(0, representation));
+        } catch (NumberFormatException ex) {
+          // not a tag issued by this API; try the next one
+        }
+      }
+    }
+    throw new CartVersionMismatchException(id);
+  }
 }
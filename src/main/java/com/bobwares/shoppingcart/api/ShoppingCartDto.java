@@ -23,6 +23,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -33,32 +34,54 @@ public final class ShoppingCartDto {
   private ShoppingCartDto() {
   }
 
+  /**
+   * Cart contents priced by the server. Client-supplied totals are optional; when present they must equal the
+   * server-computed values.
+   */
+  public interface CartPayload {
+
+    BigDecimal getSubtotal();
+
+    BigDecimal getTax();
+
+    BigDecimal getShipping();
+
+    BigDecimal getTotal();
+
+    String getCurrency();
+
+    List<ItemPayload> getItems();
+
+    List<DiscountPayload> getDiscounts();
+  }
+
   /**
    * Payload submitted when creating a shopping cart.
    */
   @Schema(description = "Request payload for creating a shopping cart")
-  public static final class CreateRequest {
+  public static final class CreateRequest implements CartPayload {
 
     @NotNull
     @Schema(description = "Identifier of the user that owns the cart", example = "d0fbb13a-7d5d-4d9a-9fc8-20a5c0dd768e")
     private UUID userId;
 
-    @NotNull
     @PositiveOrZero
-    @Schema(description = "Subtotal of cart items before taxes or discounts", example = "120.00")
+    @Schema(description = "Subtotal of cart items before taxes or discounts; optional, checked against server "
+        + "pricing", example = "120.00")
     private BigDecimal subtotal;
 
     @PositiveOrZero
-    @Schema(description = "Total tax applied to the cart", example = "9.20")
-    private BigDecimal tax = BigDecimal.ZERO;
+    @Schema(description = "Total tax applied to the cart; optional, checked against server pricing",
+        example = "9.20")
+    private BigDecimal tax;
 
     @PositiveOrZero
-    @Schema(description = "Shipping cost applied to the cart", example = "5.99")
-    private BigDecimal shipping = BigDecimal.ZERO;
+    @Schema(description = "Shipping cost applied to the cart; optional, checked against server pricing",
+        example = "5.99")
+    private BigDecimal shipping;
 
-    @NotNull
     @PositiveOrZero
-    @Schema(description = "Grand total for the cart", example = "135.19")
+    @Schema(description = "Grand total for the cart; optional, checked against server pricing", example = "135.19")
     private BigDecimal total;
 
     @NotBlank
@@ -83,6 +106,7 @@ public final class ShoppingCartDto {
       this.userId = userId;
     }
 
+    @Override
     public BigDecimal getSubtotal() {
       return subtotal;
     }
@@ -91,6 +115,7 @@ public final class ShoppingCartDto {
       this.subtotal = subtotal;
     }
 
+    @Override
     public BigDecimal getTax() {
       return tax;
     }
@@ -99,6 +124,7 @@ public final class ShoppingCartDto {
       this.tax = tax;
     }
 
+    @Override
     public BigDecimal getShipping() {
       return shipping;
     }
@@ -107,6 +133,7 @@ public final class ShoppingCartDto {
       this.shipping = shipping;
     }
 
+    @Override
     public BigDecimal getTotal() {
       return total;
     }
@@ -115,6 +142,7 @@ public final class ShoppingCartDto {
       this.total = total;
     }
 
+    @Override
     public String getCurrency() {
       return currency;
     }
@@ -123,6 +151,7 @@ public final class ShoppingCartDto {
       this.currency = currency;
     }
 
+    @Override
     public List<ItemPayload> getItems() {
       return items;
     }
@@ -131,6 +160,7 @@ public final class ShoppingCartDto {
       this.items = items;
     }
 
+    @Override
     public List<DiscountPayload> getDiscounts() {
       return discounts;
     }
@@ -144,24 +174,22 @@ public final class ShoppingCartDto {
    * Payload submitted when updating a shopping cart.
    */
   @Schema(description = "Request payload for updating a shopping cart")
-  public static final class UpdateRequest {
+  public static final class UpdateRequest implements CartPayload {
 
-    @NotNull
     @PositiveOrZero
-    @Schema(description = "Updated subtotal", example = "125.00")
+    @Schema(description = "Expected subtotal; optional, checked against server pricing", example = "125.00")
     private BigDecimal subtotal;
 
     @PositiveOrZero
-    @Schema(description = "Updated tax value", example = "10.00")
-    private BigDecimal tax = BigDecimal.ZERO;
+    @Schema(description = "Expected tax; optional, checked against server pricing", example = "10.00")
+    private BigDecimal tax;
 
     @PositiveOrZero
-    @Schema(description = "Updated shipping amount", example = "4.00")
-    private BigDecimal shipping = BigDecimal.ZERO;
+    @Schema(description = "Expected shipping; optional, checked against server pricing", example = "4.00")
+    private BigDecimal shipping;
 
-    @NotNull
     @PositiveOrZero
-    @Schema(description = "Updated total", example = "139.00")
+    @Schema(description = "Expected total; optional, checked against server pricing", example = "139.00")
     private BigDecimal total;
 
     @NotBlank
@@ -178,6 +206,7 @@ public final class ShoppingCartDto {
     @Valid
     private List<DiscountPayload> discounts = new ArrayList<>();
 
+    @Override
     public BigDecimal getSubtotal() {
       return subtotal;
     }
@@ -186,6 +215,7 @@ public final class ShoppingCartDto {
       this.subtotal = subtotal;
     }
 
+    @Override
     public BigDecimal getTax() {
       return tax;
     }
@@ -194,6 +224,7 @@ public final class ShoppingCartDto {
       this.tax = tax;
     }
 
+    @Override
     public BigDecimal getShipping() {
       return shipping;
     }
@@ -202,6 +233,7 @@ public final class ShoppingCartDto {
       this.shipping = shipping;
     }
 
+    @Override
     public BigDecimal getTotal() {
       return total;
     }
@@ -210,6 +242,7 @@ public final class ShoppingCartDto {
       this.total = total;
     }
 
+    @Override
     public String getCurrency() {
       return currency;
     }
@@ -218,6 +251,7 @@ public final class ShoppingCartDto {
       this.currency = currency;
     }
 
+    @Override
     public List<ItemPayload> getItems() {
       return items;
     }
@@ -226,6 +260,7 @@ public final class ShoppingCartDto {
       this.items = items;
     }
 
+    @Override
     public List<DiscountPayload> getDiscounts() {
       return discounts;
     }
@@ -249,11 +284,226 @@ public final class ShoppingCartDto {
       String currency,
       Instant createdAt,
       Instant updatedAt,
+      @Schema(description = "Cart version; also sent as the ETag")
+      long version,
       List<Item> items,
       List<Discount> discounts
   ) {
   }
 
+  /**
+   * Payload submitted when adding a product to a cart.
+   */
+  @Schema(description = "Request payload for adding a product to a shopping cart")
+  public static final class AddItemRequest {
+
+    @NotBlank
+    @Size(max = 255)
+    @Schema(description = "Product display name", example = "Mechanical Keyboard")
+    private String name;
+
+    @NotNull
+    @Positive
+    @Schema(description = "Quantity to add; accumulates onto an existing line", example = "1")
+    private Integer quantity;
+
+    @NotNull
+    @PositiveOrZero
+    @Schema(description = "Current unit price of the product", example = "120.00")
+    private BigDecimal unitPrice;
+
+    @NotBlank
+    @Size(min = 3, max = 3)
+    @Pattern(regexp = "^[A-Z]{3}$")
+    @Schema(description = "Three-letter ISO currency code matching the cart", example = "USD")
+    private String currency;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Integer getQuantity() {
+      return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+      this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+      return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+      this.unitPrice = unitPrice;
+    }
+
+    public String getCurrency() {
+      return currency;
+    }
+
+    public void setCurrency(String currency) {
+      this.currency = currency;
+    }
+  }
+
+  /**
+   * Payload submitted when changing the quantity of an existing line.
+   */
+  @Schema(description = "Request payload for changing the quantity of a cart line")
+  public static final class ItemQuantityRequest {
+
+    @NotNull
+    @Positive
+    @Schema(description = "New quantity for the line", example = "3")
+    private Integer quantity;
+
+    public Integer getQuantity() {
+      return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+      this.quantity = quantity;
+    }
+  }
+
+  /**
+   * Optional payload for resolving a user's cart, applied only when the cart has to be created.
+   */
+  @Schema(description = "Request payload for getting or creating the cart of a user")
+  public static final class UserCartRequest {
+
+    @Size(min = 3, max = 3)
+    @Pattern(regexp = "^[A-Z]{3}$")
+    @Schema(description = "Currency of a newly created cart; defaults to the first supported currency",
+        example = "USD")
+    private String currency;
+
+    public String getCurrency() {
+      return currency;
+    }
+
+    public void setCurrency(String currency) {
+      this.currency = currency;
+    }
+  }
+
+  /**
+   * Cart resolved for a user, and whether resolving it created the cart.
+   *
+   * @param cart the user's cart
+   * @param created {@code true} when the cart did not exist before the call
+   */
+  public record UserCart(Response cart, boolean created) {
+  }
+
+  /**
+   * Cart-level totals returned by single-line mutations.
+   */
+  @Schema(description = "Shopping cart totals after a line item change")
+  public record Totals(
+      UUID id,
+      BigDecimal subtotal,
+      BigDecimal tax,
+      BigDecimal shipping,
+      BigDecimal total,
+      String currency,
+      Instant updatedAt,
+      @Schema(description = "Cart version; also sent as the ETag")
+      long version
+  ) {
+  }
+
+  /**
+   * Page of carts returned by the keyset-paginated list endpoint.
+   */
+  @Schema(description = "Page of shopping carts ordered by most recent update")
+  public record PageResponse(
+      List<Response> items,
+      @Schema(description = "Opaque token for the next page; absent on the last page")
+      String nextCursor
+  ) {
+  }
+
+  /**
+   * Cart header with its maintained summary columns, read without touching item or discount rows.
+   */
+  @Schema(description = "Shopping cart summary for reporting")
+  public record Summary(
+      UUID id,
+      UUID userId,
+      @Schema(description = "Number of cart lines")
+      int itemCount,
+      @Schema(description = "Sum of line totals")
+      BigDecimal itemTotal,
+      @Schema(description = "Discount applied: the sum of discount amounts, capped at the item total")
+      BigDecimal discountTotal,
+      BigDecimal tax,
+      BigDecimal shipping,
+      BigDecimal total,
+      String currency,
+      Instant createdAt,
+      Instant updatedAt,
+      @Schema(description = "Cart version; also sent as the ETag")
+      long version
+  ) {
+  }
+
+  /**
+   * Page of cart summaries returned by the keyset-paginated summary endpoint.
+   */
+  @Schema(description = "Page of shopping cart summaries ordered by most recent update")
+  public record SummaryPageResponse(
+      List<Summary> items,
+      @Schema(description = "Opaque token for the next page; absent on the last page")
+      String nextCursor
+  ) {
+  }
+
+  /**
+   * Page of carts trimmed to the properties named by the {@code fields} parameter.
+   */
+  @Schema(description = "Page of shopping carts with only the requested fields, ordered by most recent update")
+  public record SparsePageResponse(
+      @Schema(description = "Requested properties of each cart or cart summary")
+      List<Map<String, Object>> items,
+      @Schema(description = "Opaque token for the next page; absent on the last page")
+      String nextCursor
+  ) {
+  }
+
+  /**
+   * Outcome of an NDJSON bulk import.
+   */
+  @Schema(description = "Result of a bulk import")
+  public record ImportResult(
+      @Schema(description = "Carts stored")
+      long imported,
+      @Schema(description = "Records rejected")
+      long failed,
+      @Schema(description = "Rejected records in the order they were detected, capped at "
+          + "app.bulk-import.max-reported-errors")
+      List<ImportError> errors
+  ) {
+  }
+
+  /**
+   * A rejected bulk import record.
+   */
+  @Schema(description = "Rejected bulk import record")
+  public record ImportError(
+      @Schema(description = "1-based line number of the record in the request body")
+      long line,
+      String message,
+      @Schema(description = "Per-field details for validation and pricing failures")
+      Map<String, String> details
+  ) {
+  }
+
   /**
    * Representation of a cart line item in API responses.
    */
@@ -0,0 +1,115 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.api
+ * File: UserShoppingCartController.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: UserShoppingCartController
+ * Description: REST controller resolving the shopping cart owned by a user.
+ */
+package com.bobwares.shoppingcart.api;
+
+import com.bobwares.shoppingcart.ShoppingCartResponseCache;
+import com.bobwares.shoppingcart.ShoppingCartService;
+import com.bobwares.shoppingcart.config.PayloadFormatConfiguration;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.net.URI;
+import java.util.UUID;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * REST controller addressing a shopping cart through the user that owns it.
+ */
+@RestController
+@RequestMapping("/api/users/{userId}/shopping-cart")
+@Tag(name = "User Shopping Carts", description = "Shopping cart owned by a user")
+public class UserShoppingCartController {
+
+  private final ShoppingCartService shoppingCartService;
+  private final ShoppingCartResponseCache responseCache;
+
+  public UserShoppingCartController(ShoppingCartService shoppingCartService,
+      ShoppingCartResponseCache responseCache) {
+    this.shoppingCartService = shoppingCartService;
+    this.responseCache = responseCache;
+  }
+
+  @GetMapping(produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE,
+      PayloadFormatConfiguration.APPLICATION_SMILE_VALUE
+  })
+  @Operation(summary = "Retrieve the cart of a user",
+      description = "Resolves the cart id from an in-process cache and serves the cart like GET "
+          + "/api/shopping-carts/{id}, including If-None-Match handling.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Cart found",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.Response.class))),
+      @ApiResponse(responseCode = "304", description = "Cart unchanged since the supplied ETag", content = @Content),
+      @ApiResponse(responseCode = "404", description = "User has no cart", content = @Content)
+  })
+  public ResponseEntity<byte[]> get(@PathVariable UUID userId, WebRequest webRequest)
+      throws HttpMediaTypeNotAcceptableException {
+    MediaType mediaType = CartMediaTypes.select(webRequest.getHeader(HttpHeaders.ACCEPT));
+    if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+      long version = shoppingCartService.readForUser(userId, shoppingCartService::getVersion);
+      if (webRequest.checkNotModified(eTag(version))) {
+        return null;
+      }
+    }
+    ShoppingCartResponseCache.CachedResponse response =
+        shoppingCartService.readForUser(userId, id -> responseCache.get(id, mediaType, shoppingCartService::get));
+    return ResponseEntity.ok()
+        .eTag(eTag(response.version()))
+        .varyBy(HttpHeaders.ACCEPT)
+        .contentType(mediaType)
+        .body(response.body());
+  }
+
+  @PutMapping
+  @Operation(summary = "Get or create the cart of a user",
+      description = "Returns the user's cart, creating an empty one when there is none. Safe to call concurrently: "
+          + "every caller gets the same cart.")
+  @ApiResponses({
+      @ApiResponse(responseCode = "200", description = "Existing cart",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.Response.class))),
+      @ApiResponse(responseCode = "201", description = "Cart created",
+          content = @Content(schema = @Schema(implementation = ShoppingCartDto.Response.class))),
+      @ApiResponse(responseCode = "422", description = "Invalid currency", content = @Content)
+  })
+  public ResponseEntity<ShoppingCartDto.Response> getOrCreate(
+      @PathVariable UUID userId,
+      @Valid @org.springframework.web.bind.annotation.RequestBody(required = false)
+      @RequestBody(description = "Settings applied when the cart is created", required = false)
+      ShoppingCartDto.UserCartRequest request) {
+    ShoppingCartDto.UserCart resolved =
+        shoppingCartService.getOrCreateForUser(userId, request == null ? null : request.getCurrency());
+    ShoppingCartDto.Response response = resolved.cart();
+    ResponseEntity.BodyBuilder builder = resolved.created()
+        ? ResponseEntity.created(URI.create("/api/shopping-carts/" + response.id()))
+        : ResponseEntity.ok();
+    return builder.eTag(eTag(response.version())).body(response);
+  }
+
+  private static String eTag(long version) {
+    return "\"" + version + "\"";
+  }
+}
@@ -12,6 +12,8 @@
  */
 package com.bobwares.shoppingcart.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -19,11 +21,13 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 /**
@@ -59,4 +63,347 @@ public class AppProperties {
   @NotNull
   @NotEmpty
   private List<String> supportedCurrencies = new ArrayList<>(List.of("USD"));
+
+  /** Limits applied to keyset-paginated list endpoints. */
+  @Valid
+  @NotNull
+  private Pagination pagination = new Pagination();
+
+  /** In-process cache of serialized cart responses served by the read endpoint. */
+  @Valid
+  @NotNull
+  private ResponseCache responseCache = new ResponseCache();
+
+  /** In-process map from user id to cart id behind the by-user read endpoint. */
+  @Valid
+  @NotNull
+  private UserCartCache userCartCache = new UserCartCache();
+
+  /** Routing of read-only transactions to streaming replicas of the primary database. */
+  @Valid
+  @NotNull
+  private ReadReplicas readReplicas = new ReadReplicas();
+
+  /** Request execution model and the adaptive in-flight request limit that protects the JDBC pool. */
+  @Valid
+  @NotNull
+  private Concurrency concurrency = new Concurrency();
+
+  /** Retry policy for cart writes that lose an optimistic-locking race. */
+  @Valid
+  @NotNull
+  private OptimisticRetry optimisticRetry = new OptimisticRetry();
+
+  /** Expiry of abandoned carts and the pace of the sweeper that deletes them. */
+  @Valid
+  @NotNull
+  private CartTtl cartTtl = new CartTtl();
+
+  /** Batching and error reporting of the NDJSON bulk import. */
+  @Valid
+  @NotNull
+  private BulkImport bulkImport = new BulkImport();
+
+  /** Coalescing of rapid unconditional cart replacements before they are written. */
+  @Valid
+  @NotNull
+  private WriteBehind writeBehind = new WriteBehind();
+
+  /** Replay of responses to requests retried with the same {@code Idempotency-Key}. */
+  @Valid
+  @NotNull
+  private Idempotency idempotency = new Idempotency();
+
+  /**
+   * Page size settings for list endpoints.
+   */
+  @Getter
+  @Setter
+  public static class Pagination {
+
+    /** Page size used when the client does not request one. */
+    @NotNull
+    @Min(1)
+    private Integer defaultPageSize = 50;
+
+    /** Upper bound on the page size a client may request. */
+    @NotNull
+    @Min(1)
+    @Max(1000)
+    private Integer maxPageSize = 200;
+  }
+
+  /**
+   * Settings for the serialized cart response cache.
+   */
+  @Getter
+  @Setter
+  public static class ResponseCache {
+
+    /** Whether cart reads are served from the cache. */
+    private boolean enabled = true;
+
+    /** Upper bound on the total size of cached response bodies. */
+    @NotNull
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    /** Time after which a cached response expires even without a write. */
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(5);
+  }
+
+  /**
+   * Settings for the user id to cart id cache.
+   */
+  @Getter
+  @Setter
+  public static class UserCartCache {
+
+    /** Whether by-user reads resolve the cart id from the cache. */
+    private boolean enabled = true;
+
+    /** Maximum number of users whose cart id is kept. */
+    @NotNull
+    @Min(1)
+    private Long maximumSize = 100_000L;
+
+    /** Time after which a cached cart id is looked up again even without a create or delete. */
+    @NotNull
+    private Duration ttl = Duration.ofHours(1);
+  }
+
+  /**
+   * Replica data sources and the lag and stickiness rules that decide when reads may use them.
+   */
+  @Getter
+  @Setter
+  public static class ReadReplicas {
+
+    /** Whether read-only transactions are routed to {@link #urls}; when off every statement uses the primary. */
+    private boolean enabled = false;
+
+    /** JDBC URLs of the replicas, each served by its own connection pool. */
+    @NotNull
+    private List<String> urls = new ArrayList<>();
+
+    /** Replica user name; {@code spring.datasource.username} when blank. */
+    private String username;
+
+    /** Replica password; {@code spring.datasource.password} when blank. */
+    private String password;
+
+    /** Connections per replica pool. */
+    @NotNull
+    @Min(1)
+    private Integer maximumPoolSize = 10;
+
+    /** Replication lag above which a replica receives no reads until it catches up. */
+    @NotNull
+    private Duration maxLag = Duration.ofSeconds(1);
+
+    /** How often the lag of each replica is measured. */
+    @NotNull
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    /** How long a client's reads stay on the primary after it writes; keep it above {@link #maxLag}. */
+    @NotNull
+    private Duration primaryStickiness = Duration.ofSeconds(5);
+  }
+
+  /**
+   * Thread model for request handling and the bulkhead in front of the data source.
+   */
+  @Getter
+  @Setter
+  public static class Concurrency {
+
+    /**
+     * Runs Tomcat request handling, the application task executor and scheduled work on virtual threads. Mirrored
+     * into {@code spring.threads.virtual.enabled} by {@code application.yml}.
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Most API requests allowed to execute at once. Platform threads are capped by Tomcat's worker pool; virtual
+     * threads are not, so this keeps them from queueing unboundedly on the JDBC pool. When unset, it is the primary
+     * pool's {@code maximum-pool-size} times {@link #maxInFlightPerConnection}; a larger value fails startup.
+     */
+    @Min(1)
+    private Integer maxInFlightRequests;
+
+    /** In-flight requests allowed per primary pool connection, which bounds {@link #maxInFlightRequests}. */
+    @NotNull
+    @Min(1)
+    @Max(50)
+    private Integer maxInFlightPerConnection = 4;
+
+    /**
+     * Moves the in-flight limit between {@link #minInFlightRequests} and {@link #maxInFlightRequests} with request
+     * latency; when off, the limit stays at {@link #maxInFlightRequests}.
+     */
+    private boolean adaptiveLimit = true;
+
+    /** Floor of the adaptive limit. */
+    @NotNull
+    @Min(1)
+    private Integer minInFlightRequests = 8;
+
+    /** Adaptive limit at startup, before any latency has been measured. */
+    @NotNull
+    @Min(1)
+    private Integer initialInFlightRequests = 20;
+
+    /** Ratio of recent to long-term average latency tolerated before the adaptive limit shrinks. */
+    @NotNull
+    @DecimalMin("1.0")
+    private Double latencyTolerance = 1.5;
+
+    /** Weight of each new estimate in the adaptive limit; higher reacts faster but oscillates more. */
+    @NotNull
+    @DecimalMin("0.01")
+    @DecimalMax("1.0")
+    private Double limitSmoothing = 0.2;
+  }
+
+  /**
+   * Bounded retry with full-jitter exponential backoff for optimistic-locking conflicts.
+   */
+  @Getter
+  @Setter
+  public static class OptimisticRetry {
+
+    /** Total attempts, including the first one. */
+    @NotNull
+    @Min(1)
+    @Max(10)
+    private Integer maxAttempts = 3;
+
+    /** Backoff ceiling before the first retry; doubles on every further retry. */
+    @NotNull
+    private Duration initialBackoff = Duration.ofMillis(10);
+
+    /** Upper bound on the backoff ceiling. */
+    @NotNull
+    private Duration maxBackoff = Duration.ofMillis(100);
+  }
+
+  /**
+   * Abandoned-cart expiry. The sweeper deletes carts in keyset-ordered batches and paces itself so purges do not
+   * crowd out request traffic or flood replication and vacuum. Off by default, since it deletes customer data.
+   */
+  @Getter
+  @Setter
+  public static class CartTtl {
+
+    /** Whether the sweeper runs. */
+    private boolean enabled = false;
+
+    /** Carts not updated for this long are deleted. */
+    @NotNull
+    private Duration ttl = Duration.ofDays(30);
+
+    /** Delay between the end of one sweep and the start of the next; also the delay before the first sweep. */
+    @NotNull
+    private Duration sweepInterval = Duration.ofMinutes(15);
+
+    /** Carts deleted per statement. Children cascade, so each batch touches several times as many rows. */
+    @NotNull
+    @Min(1)
+    @Max(10000)
+    private Integer batchSize = 500;
+
+    /** Upper bound on carts deleted per second; the sweeper sleeps between batches to stay under it. */
+    @NotNull
+    @Min(1)
+    private Integer rowsPerSecond = 2000;
+  }
+
+  /**
+   * Settings for the NDJSON bulk import endpoint.
+   */
+  @Getter
+  @Setter
+  public static class BulkImport {
+
+    /** Valid records written per transaction, as one set-based insert per table. */
+    @NotNull
+    @Min(1)
+    @Max(10000)
+    private Integer batchSize = 1000;
+
+    /** Rejected records listed in the response; further rejections are only counted. */
+    @NotNull
+    @Min(0)
+    private Integer maxReportedErrors = 100;
+  }
+
+  /**
+   * Write-behind buffering of unconditional {@code PUT} requests. Updates to a cart within the window are collapsed
+   * into one write of the last state. Buffered updates are lost if the process dies before they are flushed, so this
+   * is off by default.
+   */
+  @Getter
+  @Setter
+  public static class WriteBehind {
+
+    /** Whether unconditional updates are buffered. */
+    private boolean enabled = false;
+
+    /** How long a cart stays buffered after its first update before the last update is written. */
+    @NotNull
+    private Duration window = Duration.ofMillis(250);
+
+    /** Carts buffered at once; updates to further carts are written synchronously. */
+    @NotNull
+    @Min(1)
+    private Integer maxPendingCarts = 10000;
+
+    /** Threads that write buffered updates when their window closes. */
+    @NotNull
+    @Min(1)
+    @Max(64)
+    private Integer flushThreads = 2;
+
+    /** Attempts to write a buffered update, backing off exponentially, before it is dropped and logged. */
+    @NotNull
+    @Min(1)
+    @Max(20)
+    private Integer maxFlushAttempts = 5;
+  }
+
+  /**
+   * {@code Idempotency-Key} handling. Responses are cached in memory and stored in the {@code idempotency_key} table
+   * so retries are answered on any instance.
+   */
+  @Getter
+  @Setter
+  public static class Idempotency {
+
+    /** Whether requests with an {@code Idempotency-Key} header are deduplicated. */
+    private boolean enabled = true;
+
+    /** How long a response is replayed after the request that produced it. */
+    @NotNull
+    private Duration ttl = Duration.ofHours(24);
+
+    /** How long a claim by a request that never finished blocks the key, e.g. after an instance crash. */
+    @NotNull
+    private Duration lockTimeout = Duration.ofMinutes(1);
+
+    /** How long a duplicate waits for the original to finish before it is answered with 409. */
+    @NotNull
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /** Upper bound on the total size of response bodies kept in memory. */
+    @NotNull
+    private DataSize maximumSize = DataSize.ofMegabytes(16);
+
+    /** Largest request body accepted with an {@code Idempotency-Key}; the body is buffered to fingerprint it. */
+    @NotNull
+    private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+    /** Delay between purges of expired keys from the database. */
+    @NotNull
+    private Duration purgeInterval = Duration.ofHours(1);
+  }
 }
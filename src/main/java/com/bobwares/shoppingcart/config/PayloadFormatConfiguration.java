@@ -0,0 +1,69 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.config
+ * File: PayloadFormatConfiguration.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: PayloadFormatConfiguration
+ * Description: Registers CBOR and Smile message converters that share the JSON mapper's configuration.
+ */
+package com.bobwares.shoppingcart.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Lets every endpoint read and write {@code application/cbor} and {@value #APPLICATION_SMILE_VALUE} besides JSON.
+ * Spring MVC would register default converters for both formats on its own, with a mapper of their own; these
+ * replace them with copies of the application's JSON mapper, so modules and {@code spring.jackson.*} settings apply
+ * to every format alike. JSON stays the default: its converter comes first.
+ */
+@Configuration(proxyBeanMethods = false)
+public class PayloadFormatConfiguration {
+
+  /** Media type of Jackson's Smile binary JSON encoding. */
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  /** {@link #APPLICATION_SMILE_VALUE} as a media type. */
+  public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+  /** Media types of cart payloads in order of preference; the first is the default. */
+  public static final List<MediaType> MEDIA_TYPES =
+      List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+    return new MappingJackson2CborHttpMessageConverter(mapperFor(objectMapper, MediaType.APPLICATION_CBOR));
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+    return new MappingJackson2SmileHttpMessageConverter(mapperFor(objectMapper, APPLICATION_SMILE));
+  }
+
+  /**
+   * Returns a mapper configured like {@code objectMapper} that encodes one of {@link #MEDIA_TYPES}.
+   *
+   * @param objectMapper application JSON mapper
+   * @param mediaType one of {@link #MEDIA_TYPES}
+   * @return {@code objectMapper} itself for JSON, otherwise a copy over the binary format's factory
+   */
+  public static ObjectMapper mapperFor(ObjectMapper objectMapper, MediaType mediaType) {
+    if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+      return objectMapper.copyWith(new CBORFactory());
+    }
+    if (APPLICATION_SMILE.equalsTypeAndSubtype(mediaType)) {
+      return objectMapper.copyWith(new SmileFactory());
+    }
+    return objectMapper;
+  }
+}
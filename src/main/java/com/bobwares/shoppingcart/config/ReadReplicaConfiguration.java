@@ -0,0 +1,72 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.config
+ * File: ReadReplicaConfiguration.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ReadReplicaConfiguration
+ * Description: Replaces the auto-configured data source with primary and replica pools behind a read-only router
+ *              when app.read-replicas.enabled is set.
+ */
+package com.bobwares.shoppingcart.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+/**
+ * Builds the primary pool from {@code spring.datasource.*} exactly as Spring Boot would, and one pool per
+ * {@code app.read-replicas.urls} entry with the same Hikari settings, read-only connections and
+ * {@code app.read-replicas.maximum-pool-size}. Spring Boot's own data source backs off because this one is defined.
+ * Pools register their {@code hikaricp.*} metrics under pool names {@code primary} and {@code replica-<n>}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "app.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+  @Bean
+  public ReadReplicaDataSource dataSource(DataSourceProperties dataSourceProperties, AppProperties properties,
+      Environment environment, MeterRegistry meterRegistry) {
+    AppProperties.ReadReplicas settings = properties.getReadReplicas();
+    HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    if (!StringUtils.hasText(primary.getPoolName())) {
+      primary.setPoolName("primary");
+    }
+    primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+    List<HikariDataSource> replicas = new ArrayList<>();
+    for (int i = 0; i < settings.getUrls().size(); i++) {
+      HikariDataSource replica = new HikariDataSource();
+      primary.copyStateTo(replica);
+      replica.setPoolName("replica-" + i);
+      replica.setJdbcUrl(settings.getUrls().get(i));
+      if (StringUtils.hasText(settings.getUsername())) {
+        replica.setUsername(settings.getUsername());
+      }
+      if (StringUtils.hasText(settings.getPassword())) {
+        replica.setPassword(settings.getPassword());
+      }
+      replica.setMaximumPoolSize(settings.getMaximumPoolSize());
+      if (replica.getMinimumIdle() > settings.getMaximumPoolSize()) {
+        replica.setMinimumIdle(settings.getMaximumPoolSize());
+      }
+      replica.setReadOnly(true);
+      replicas.add(replica);
+    }
+    return new ReadReplicaDataSource(primary, replicas, settings.getMaxLag(), settings.getLagCheckInterval(),
+        meterRegistry);
+  }
+}
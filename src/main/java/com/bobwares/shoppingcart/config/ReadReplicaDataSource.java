@@ -0,0 +1,200 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.config
+ * File: ReadReplicaDataSource.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ReadReplicaDataSource
+ * Description: Data source that hands read-only transactions to replicas within the lag tolerance and everything
+ *              else, including reads pinned after a client's write, to the primary.
+ */
+package com.bobwares.shoppingcart.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Primary data source with streaming replicas behind it for reads. Connections are handed out lazily, so the target
+ * is chosen at the first statement, after the transaction manager has marked the connection read-only. Read-only
+ * connections go to the next replica, round robin, whose measured lag is within {@code app.read-replicas.max-lag};
+ * all other connections, and reads while no replica qualifies, go to the primary.
+ *
+ * <p>Reads on a thread inside {@link #readFromPrimary()} also use the primary. The web layer uses it for clients
+ * that wrote recently, so they read their own writes however far behind the replicas are.
+ *
+ * <p>Lag is {@code now() - pg_last_xact_replay_timestamp()} on each replica, or zero once it has replayed everything
+ * it received, measured every {@code app.read-replicas.lag-check-interval} on a dedicated thread. A replica that
+ * cannot be reached is skipped until a later check succeeds.
+ */
+public class ReadReplicaDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+  private static final String LAG_QUERY = """
+      SELECT CASE
+          WHEN NOT pg_is_in_recovery() THEN 0
+          WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+          ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+      END""";
+
+  private static final ThreadLocal<Boolean> ON_PRIMARY = new ThreadLocal<>();
+
+  private final HikariDataSource primary;
+  private final List<Replica> replicas;
+  private final double maxLagSeconds;
+  private final AtomicInteger next = new AtomicInteger();
+  private final ScheduledExecutorService lagChecks;
+  private final Counter replicaReads;
+  private final Counter pinnedReads;
+  private final Counter fallbackReads;
+
+  public ReadReplicaDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools, Duration maxLag,
+      Duration lagCheckInterval, MeterRegistry meterRegistry) {
+    super(primary);
+    this.primary = primary;
+    this.replicas = replicaPools.stream().map(Replica::new).toList();
+    this.maxLagSeconds = maxLag.toNanos() / 1e9;
+    this.replicaReads = routed(meterRegistry, "replica");
+    this.pinnedReads = routed(meterRegistry, "pinned");
+    this.fallbackReads = routed(meterRegistry, "fallback");
+    for (Replica replica : replicas) {
+      Gauge.builder("shopping.cart.replica.lag", replica, r -> r.lagSeconds)
+          .description("Replication lag of each read replica; NaN while it cannot be reached")
+          .baseUnit("seconds")
+          .tag("replica", replica.pool.getPoolName())
+          .register(meterRegistry);
+    }
+    setReadOnlyDataSource(new ReadOnlyRouter());
+
+    this.lagChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "replica-lag-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = lagCheckInterval.toMillis();
+    lagChecks.scheduleWithFixedDelay(this::checkLag, 0, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Sends read-only connections opened on this thread to the primary until the returned scope is closed.
+   *
+   * @return scope to close when the reads that must observe every committed write are done
+   */
+  public static PrimaryScope readFromPrimary() {
+    boolean outermost = ON_PRIMARY.get() == null;
+    ON_PRIMARY.set(Boolean.TRUE);
+    return new PrimaryScope(outermost);
+  }
+
+  /**
+   * Measures the lag of every replica once.
+   */
+  void checkLag() {
+    for (Replica replica : replicas) {
+      try (Connection connection = replica.pool.getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+        rs.next();
+        replica.lagSeconds = rs.getDouble(1);
+      } catch (SQLException | RuntimeException ex) {
+        replica.lagSeconds = Double.NaN;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    lagChecks.shutdownNow();
+    replicas.forEach(replica -> replica.pool.close());
+    primary.close();
+  }
+
+  private DataSource readTarget() {
+    if (ON_PRIMARY.get() != null) {
+      pinnedReads.increment();
+      return primary;
+    }
+    int size = replicas.size();
+    int start = size == 0 ? 0 : Math.floorMod(next.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      // NaN (unreachable) fails the comparison too.
+      if (replica.lagSeconds <= maxLagSeconds) {
+        replicaReads.increment();
+        return replica.pool;
+      }
+    }
+    fallbackReads.increment();
+    return primary;
+  }
+
+  private static Counter routed(MeterRegistry meterRegistry, String route) {
+    return Counter.builder("shopping.cart.read.routing")
+        .description("Read-only connections by where they were routed")
+        .tag("route", route)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Scope opened by {@link #readFromPrimary()}.
+   */
+  public static final class PrimaryScope implements AutoCloseable {
+
+    private final boolean outermost;
+
+    private PrimaryScope(boolean outermost) {
+      this.outermost = outermost;
+    }
+
+    @Override
+    public void close() {
+      if (outermost) {
+        ON_PRIMARY.remove();
+      }
+    }
+  }
+
+  /**
+   * Read-only target handed to the lazy proxy; picks the data source per connection.
+   */
+  private final class ReadOnlyRouter extends AbstractDataSource {
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return readTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return readTarget().getConnection(username, password);
+    }
+  }
+
+  /**
+   * Replica pool with its last measured lag. Unmeasured replicas count as unreachable.
+   */
+  private static final class Replica {
+
+    private final HikariDataSource pool;
+    private volatile double lagSeconds = Double.NaN;
+
+    private Replica(HikariDataSource pool) {
+      this.pool = pool;
+    }
+  }
+}
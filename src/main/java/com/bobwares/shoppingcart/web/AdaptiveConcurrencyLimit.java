@@ -0,0 +1,161 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: AdaptiveConcurrencyLimit.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: AdaptiveConcurrencyLimit
+ * Description: In-flight request limit that shrinks when latency rises above its long-term average and grows while
+ *              it does not.
+ */
+package com.bobwares.shoppingcart.web;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-gradient concurrency limit. Completed requests are averaged in windows of {@value #WINDOW_SAMPLES}; each
+ * window's average latency is compared with a long-term moving average over {@value #LONG_WINDOWS} windows. The
+ * gradient {@code tolerance * long / short}, capped at 1 and floored at {@value #MIN_GRADIENT}, scales the limit down
+ * as soon as requests slow beyond the tolerance, which happens when they start queueing on the database. While latency
+ * holds, the limit grows by the square root of itself per window. Each new estimate is blended in with the configured
+ * smoothing, and windows that never used half the limit leave it unchanged, since they say nothing about whether more
+ * concurrency would help. A request dropped with a server error, such as a statement or connection-acquire timeout,
+ * cuts the limit to {@value #DROP_DECREASE} of itself at once: a stalled database mostly produces failures, not slow
+ * successes.
+ *
+ * <p>Admission never waits: a request beyond the limit is refused immediately.
+ */
+final class AdaptiveConcurrencyLimit {
+
+  static final int WINDOW_SAMPLES = 10;
+  static final int LONG_WINDOWS = 600;
+  private static final double MIN_GRADIENT = 0.5;
+  private static final double DROP_DECREASE = 0.9;
+
+  private final boolean adaptive;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double smoothing;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile int limit;
+
+  // Guarded by this.
+  private double estimatedLimit;
+  private double longRtt;
+  private long longSamples;
+  private double windowRttSum;
+  private int windowSamples;
+  private int windowMaxInFlight;
+
+  AdaptiveConcurrencyLimit(AppProperties.Concurrency concurrency, int maxLimit) {
+    this.adaptive = concurrency.isAdaptiveLimit();
+    this.maxLimit = maxLimit;
+    this.minLimit = Math.min(concurrency.getMinInFlightRequests(), maxLimit);
+    this.tolerance = concurrency.getLatencyTolerance();
+    this.smoothing = concurrency.getLimitSmoothing();
+    this.estimatedLimit = adaptive ? clamp(concurrency.getInitialInFlightRequests()) : maxLimit;
+    this.limit = (int) estimatedLimit;
+  }
+
+  /**
+   * Takes a slot if fewer than {@link #limit()} requests are in flight.
+   *
+   * @return requests in flight including this one, or {@code -1} when the request must be rejected
+   */
+  int tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return -1;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return current + 1;
+      }
+    }
+  }
+
+  /**
+   * Frees a slot without learning from the request, for client errors and requests that are long-running by design.
+   */
+  void release() {
+    inFlight.decrementAndGet();
+  }
+
+  /**
+   * Frees a slot and feeds the request's latency into the limit.
+   *
+   * @param rttNanos time the request held its slot
+   * @param inFlightAtStart value returned by {@link #tryAcquire()} for the request
+   */
+  void release(long rttNanos, int inFlightAtStart) {
+    inFlight.decrementAndGet();
+    if (adaptive) {
+      sample(rttNanos, inFlightAtStart);
+    }
+  }
+
+  /**
+   * Frees the slot of a request that ended in a server error or exception and shrinks the limit, never below the
+   * minimum.
+   */
+  void releaseDropped() {
+    inFlight.decrementAndGet();
+    if (adaptive) {
+      drop();
+    }
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void sample(long rttNanos, int inFlightAtStart) {
+    windowRttSum += rttNanos;
+    windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+    if (++windowSamples < WINDOW_SAMPLES) {
+      return;
+    }
+    double shortRtt = Math.max(1, windowRttSum / windowSamples);
+    int maxInFlight = windowMaxInFlight;
+    windowRttSum = 0;
+    windowSamples = 0;
+    windowMaxInFlight = 0;
+
+    // Plain average until the long window has filled, exponential moving average after.
+    if (longSamples < LONG_WINDOWS) {
+      longSamples++;
+      longRtt += (shortRtt - longRtt) / longSamples;
+    } else {
+      longRtt += (shortRtt - longRtt) * 2 / (LONG_WINDOWS + 1);
+    }
+    // Let the baseline follow a lasting drop in latency instead of waiting out the long window.
+    if (longRtt / shortRtt > 2) {
+      longRtt *= 0.95;
+    }
+    if (maxInFlight < estimatedLimit / 2) {
+      return;
+    }
+
+    double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+    double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + target * smoothing);
+    limit = (int) estimatedLimit;
+  }
+
+  private synchronized void drop() {
+    estimatedLimit = clamp(estimatedLimit * DROP_DECREASE);
+    limit = (int) estimatedLimit;
+  }
+
+  private double clamp(double value) {
+    return Math.max(minLimit, Math.min(maxLimit, value));
+  }
+}
@@ -0,0 +1,229 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: IdempotencyKeyFilter.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: IdempotencyKeyFilter
+ * Description: Executes API writes that carry an Idempotency-Key once and replays the stored response to retries.
+ */
+package com.bobwares.shoppingcart.web;
+
+import com.bobwares.shoppingcart.IdempotentResponseStore;
+import com.bobwares.shoppingcart.config.AppProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes {@code POST}, {@code PUT}, {@code PATCH} and {@code DELETE} API requests safe to retry when the client sends
+ * an {@code Idempotency-Key} header. The first request with a key executes and its response is stored through
+ * {@link IdempotentResponseStore}; later requests with the same key and the same method, URI, {@code Content-Type},
+ * {@code If-Match} and body get that response back with {@code Idempotent-Replayed: true} and never reach the
+ * controller.
+ *
+ * <p>Reusing a key for a different request is rejected with 422. A duplicate that is still waiting for the original
+ * after {@code app.idempotency.wait-timeout} gets 409 and {@code Retry-After}. The bulk import streams its body and is
+ * not covered; a body larger than {@code app.idempotency.max-body-size} is rejected with 413.
+ *
+ * <p>Runs after {@link RequestConcurrencyLimitFilter}, so requests it sheds are neither recorded nor replayed, and
+ * before {@link ReadYourWritesFilter}, whose cookie is stored with the response and sent again on replay.
+ */
+@Component
+@Order(IdempotencyKeyFilter.ORDER)
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+  static final int ORDER = RequestConcurrencyLimitFilter.ORDER + 10;
+
+  static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  static final String REPLAYED = "Idempotent-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+  private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+  private final IdempotentResponseStore store;
+  private final AppProperties.Idempotency settings;
+
+  public IdempotencyKeyFilter(IdempotentResponseStore store, AppProperties properties) {
+    this.store = store;
+    this.settings = properties.getIdempotency();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String api = request.getContextPath() + "/api/";
+    return !settings.isEnabled()
+        || request.getHeader(IDEMPOTENCY_KEY) == null
+        || !METHODS.contains(request.getMethod())
+        || !request.getRequestURI().startsWith(api)
+        || request.getRequestURI().endsWith("/import");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String key = request.getHeader(IDEMPOTENCY_KEY).strip();
+    if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+      return;
+    }
+    long maxBody = settings.getMaxBodySize().toBytes();
+    byte[] body = request.getInputStream().readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxBody + 1));
+    if (body.length > maxBody) {
+      response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          "Requests with an " + IDEMPOTENCY_KEY + " are limited to " + maxBody + " bytes");
+      return;
+    }
+
+    IdempotentResponseStore.Claim claim = store.claim(key, fingerprint(request, body));
+    switch (claim.outcome()) {
+      case REPLAY -> replay(claim.response(), response);
+      case MISMATCH -> response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+          IDEMPOTENCY_KEY + " was already used for a different request");
+      case IN_PROGRESS -> {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.sendError(HttpServletResponse.SC_CONFLICT,
+            "A request with this " + IDEMPOTENCY_KEY + " is still being processed");
+      }
+      case EXECUTE -> execute(claim, new BufferedBodyRequest(request, body), response, chain);
+    }
+  }
+
+  private void execute(IdempotentResponseStore.Claim claim, HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws ServletException, IOException {
+    ContentCachingResponseWrapper recorder = new ContentCachingResponseWrapper(response);
+    try {
+      chain.doFilter(request, recorder);
+    } catch (ServletException | IOException | RuntimeException ex) {
+      store.release(claim);
+      throw ex;
+    }
+    store.complete(claim, new IdempotentResponseStore.StoredResponse(
+        recorder.getStatus(),
+        recorder.getContentType(),
+        recorder.getHeader(HttpHeaders.ETAG),
+        recorder.getHeader(HttpHeaders.LOCATION),
+        List.copyOf(recorder.getHeaders(HttpHeaders.SET_COOKIE)),
+        recorder.getContentAsByteArray(),
+        store.responseExpiry()));
+    recorder.copyBodyToResponse();
+  }
+
+  private static void replay(IdempotentResponseStore.StoredResponse stored, HttpServletResponse response)
+      throws IOException {
+    response.setStatus(stored.status());
+    response.setHeader(REPLAYED, "true");
+    if (stored.eTag() != null) {
+      response.setHeader(HttpHeaders.ETAG, stored.eTag());
+    }
+    if (stored.location() != null) {
+      response.setHeader(HttpHeaders.LOCATION, stored.location());
+    }
+    for (String cookie : stored.cookies()) {
+      response.addHeader(HttpHeaders.SET_COOKIE, cookie);
+    }
+    if (stored.contentType() != null) {
+      response.setContentType(stored.contentType());
+    }
+    response.setContentLength(stored.body().length);
+    response.getOutputStream().write(stored.body());
+  }
+
+  /**
+   * SHA-256 of the method, URI, query string, {@code Content-Type}, {@code If-Match} and body, so a key cannot be
+   * replayed against a different request. The two headers change how the body is decoded and whether the write
+   * applies.
+   */
+  static byte[] fingerprint(HttpServletRequest request, byte[] body) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+    String query = request.getQueryString();
+    String target = request.getMethod() + ' ' + request.getRequestURI() + (query == null ? "" : '?' + query) + '\n'
+        + header(request, HttpHeaders.CONTENT_TYPE) + '\n' + header(request, HttpHeaders.IF_MATCH) + '\n';
+    digest.update(target.getBytes(StandardCharsets.UTF_8));
+    return digest.digest(body);
+  }
+
+  private static String header(HttpServletRequest request, String name) {
+    return String.join(",", Collections.list(request.getHeaders(name)));
+  }
+
+  /**
+   * Request whose body was read up front to fingerprint it, replayed to the rest of the chain.
+   */
+  private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream input = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+        @Override
+        public int read() {
+          return input.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+          return input.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return input.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+          throw new UnsupportedOperationException("Buffered request bodies are read synchronously");
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      String encoding = getCharacterEncoding();
+      Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+      return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+  }
+}
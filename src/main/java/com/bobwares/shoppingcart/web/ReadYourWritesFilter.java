@@ -0,0 +1,95 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: ReadYourWritesFilter.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ReadYourWritesFilter
+ * Description: Keeps a client's reads on the primary database for a short window after it writes.
+ */
+package com.bobwares.shoppingcart.web;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.bobwares.shoppingcart.config.ReadReplicaDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Every API write answers with a {@value #COOKIE} cookie holding the epoch millisecond until which the client's
+ * reads must not go to a replica, {@code app.read-replicas.primary-stickiness} from now. Reads that carry an
+ * unexpired cookie run inside {@link ReadReplicaDataSource#readFromPrimary()}. The cookie lives on the client, so the
+ * guarantee holds whichever instance serves the next request; clients that do not keep cookies can echo it as a
+ * {@code Cookie} header. Runs inside {@link IdempotencyKeyFilter}, so a replayed write carries the cookie too.
+ */
+@Component
+@Order(IdempotencyKeyFilter.ORDER + 10)
+@ConditionalOnProperty(prefix = "app.read-replicas", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  static final String COOKIE = "read-primary-until";
+
+  private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+  private final Duration stickiness;
+
+  public ReadYourWritesFilter(AppProperties properties) {
+    this.stickiness = properties.getReadReplicas().getPrimaryStickiness();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    if (!READ_METHODS.contains(request.getMethod())) {
+      // Set before the chain runs: the response may be committed by the time it returns.
+      Cookie cookie = new Cookie(COOKIE, Long.toString(now + stickiness.toMillis()));
+      cookie.setPath(request.getContextPath() + "/api/");
+      cookie.setMaxAge((int) Math.max(1, (stickiness.toMillis() + 999) / 1000));
+      cookie.setHttpOnly(true);
+      response.addCookie(cookie);
+      chain.doFilter(request, response);
+      return;
+    }
+    if (readPrimaryUntil(request) > now) {
+      try (ReadReplicaDataSource.PrimaryScope scope = ReadReplicaDataSource.readFromPrimary()) {
+        chain.doFilter(request, response);
+      }
+      return;
+    }
+    chain.doFilter(request, response);
+  }
+
+  private static long readPrimaryUntil(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return 0;
+    }
+    for (Cookie cookie : cookies) {
+      if (COOKIE.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException ex) {
+          return 0;
+        }
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: RequestConcurrencyLimitFilter.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: RequestConcurrencyLimitFilter
+ * Description: Adaptive bulkhead that sheds API requests beyond what the database is currently serving within its
+ *              usual latency.
+ */
+package com.bobwares.shoppingcart.web;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admits API requests up to an {@link AdaptiveConcurrencyLimit} between {@code app.concurrency.min-in-flight-requests}
+ * and {@code app.concurrency.max-in-flight-requests}. When the database slows down, latency rises, the limit drops
+ * and excess requests are rejected at once with 503 and {@code Retry-After} instead of queueing on Tomcat or the
+ * connection pool, which keeps latency of admitted requests bounded and lets the node recover as soon as the
+ * database does. With {@code app.concurrency.adaptive-limit=false} the limit is fixed at the maximum.
+ *
+ * <p>The maximum is tied to the primary connection pool: by default it is the pool size times
+ * {@code app.concurrency.max-in-flight-per-connection}, and a configured maximum above that fails startup, so
+ * admitted requests never pile up on {@code getConnection()} far beyond what the pool can serve.
+ *
+ * <p>Requests that end in an exception or a 5xx shrink the limit, since timeouts and exhausted connection pools are
+ * what an overloaded database produces. Client errors take a slot but do not feed the limit, and neither do export
+ * and import requests, which are long by design, not because the database is slow.
+ *
+ * <p>Runs ahead of {@link IdempotencyKeyFilter}, so a shed request never claims or stores an idempotency key.
+ */
+@Component
+@Order(RequestConcurrencyLimitFilter.ORDER)
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+  /** HikariCP's own default, used when {@code spring.datasource.hikari.maximum-pool-size} is not set. */
+  private static final int DEFAULT_POOL_SIZE = 10;
+
+  private final AdaptiveConcurrencyLimit limit;
+  private final Counter rejected;
+
+  @Autowired
+  public RequestConcurrencyLimitFilter(AppProperties properties, Environment environment,
+      MeterRegistry meterRegistry) {
+    this(properties, Binder.get(environment).bind("spring.datasource.hikari.maximum-pool-size", Integer.class)
+        .orElse(DEFAULT_POOL_SIZE), meterRegistry);
+  }
+
+  RequestConcurrencyLimitFilter(AppProperties properties, int poolSize, MeterRegistry meterRegistry) {
+    AppProperties.Concurrency concurrency = properties.getConcurrency();
+    this.limit = new AdaptiveConcurrencyLimit(concurrency, maxInFlightRequests(concurrency, poolSize));
+    this.rejected = meterRegistry.counter("shopping.cart.requests.rejected");
+    Gauge.builder("shopping.cart.requests.in.flight", limit, AdaptiveConcurrencyLimit::inFlight)
+        .register(meterRegistry);
+    Gauge.builder("shopping.cart.requests.limit", limit, AdaptiveConcurrencyLimit::limit)
+        .description("Current in-flight request limit")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Upper bound of the limit: {@code app.concurrency.max-in-flight-requests} when set, else the pool size times
+   * {@code app.concurrency.max-in-flight-per-connection}.
+   *
+   * @throws IllegalStateException when the configured maximum exceeds that multiple of the pool size
+   */
+  static int maxInFlightRequests(AppProperties.Concurrency concurrency, int poolSize) {
+    int ceiling = Math.multiplyExact(poolSize, concurrency.getMaxInFlightPerConnection());
+    Integer configured = concurrency.getMaxInFlightRequests();
+    if (configured == null) {
+      return ceiling;
+    }
+    if (configured > ceiling) {
+      throw new IllegalStateException("app.concurrency.max-in-flight-requests (" + configured + ") exceeds "
+          + concurrency.getMaxInFlightPerConnection() + " requests per connection of the " + poolSize
+          + "-connection pool; lower it or raise app.concurrency.max-in-flight-per-connection");
+    }
+    return configured;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    int inFlight = limit.tryAcquire();
+    if (inFlight < 0) {
+      rejected.increment();
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many concurrent requests");
+      return;
+    }
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      chain.doFilter(request, response);
+      failed = response.getStatus() >= 500;
+    } finally {
+      if (isBulk(request) || !failed && response.getStatus() >= 400) {
+        limit.release();
+      } else if (failed) {
+        limit.releaseDropped();
+      } else {
+        limit.release(System.nanoTime() - start, inFlight);
+      }
+    }
+  }
+
+  private static boolean isBulk(HttpServletRequest request) {
+    String uri = request.getRequestURI();
+    return uri.endsWith("/export") || uri.endsWith("/import");
+  }
+}
@@ -0,0 +1,259 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: RequestPayloadMetricsFilter.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: RequestPayloadMetricsFilter
+ * Description: Records the bytes of API request and response bodies as Micrometer distribution summaries.
+ */
+package com.bobwares.shoppingcart.web;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records {@value #PAYLOAD_SUMMARY} and {@value #RESPONSE_PAYLOAD_SUMMARY} for API requests, tagged by HTTP method.
+ * Both count the bytes that actually pass through the body streams, so chunked requests and streamed responses such
+ * as the export are measured too, without buffering them. A request body the application never reads falls back to
+ * its {@code Content-Length}. Response sizes are before any compression by the server; error pages rendered by the
+ * container after {@code sendError} are not counted. Empty bodies are not recorded.
+ *
+ * <p>Runs ahead of the other API filters, so replayed idempotent responses and requests shed by the concurrency limit
+ * are measured as well.
+ */
+@Component
+@Order(RequestConcurrencyLimitFilter.ORDER - 10)
+public class RequestPayloadMetricsFilter extends OncePerRequestFilter {
+
+  static final String PAYLOAD_SUMMARY = "shopping.cart.request.payload.size";
+  static final String RESPONSE_PAYLOAD_SUMMARY = "shopping.cart.response.payload.size";
+
+  private final MeterRegistry meterRegistry;
+
+  public RequestPayloadMetricsFilter(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    CountingRequest countingRequest = new CountingRequest(request);
+    CountingResponse countingResponse = new CountingResponse(response);
+    try {
+      chain.doFilter(countingRequest, countingResponse);
+      countingResponse.flushWriter();
+    } finally {
+      record(PAYLOAD_SUMMARY, "Bytes of API request bodies", request.getMethod(),
+          Math.max(countingRequest.bytes(), request.getContentLengthLong()));
+      record(RESPONSE_PAYLOAD_SUMMARY, "Bytes of API response bodies", request.getMethod(),
+          countingResponse.bytes());
+    }
+  }
+
+  private void record(String name, String description, String method, long bytes) {
+    if (bytes > 0) {
+      DistributionSummary.builder(name)
+          .description(description)
+          .baseUnit("bytes")
+          .tag("method", method)
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(bytes);
+    }
+  }
+
+  private static Charset charset(String encoding) {
+    return encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+  }
+
+  /**
+   * Request whose body stream counts the bytes read through it.
+   */
+  private static final class CountingRequest extends HttpServletRequestWrapper {
+
+    private CountingInputStream input;
+    private BufferedReader reader;
+
+    private CountingRequest(HttpServletRequest request) {
+      super(request);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (input == null) {
+        input = new CountingInputStream(super.getInputStream());
+      }
+      return input;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+      if (reader == null) {
+        reader = new BufferedReader(new InputStreamReader(getInputStream(), charset(getCharacterEncoding())));
+      }
+      return reader;
+    }
+
+    long bytes() {
+      return input == null ? 0 : input.bytes;
+    }
+  }
+
+  /**
+   * Response whose body stream counts the bytes written through it.
+   */
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+
+    private CountingOutputStream output;
+    private PrintWriter writer;
+
+    private CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (output == null) {
+        output = new CountingOutputStream(super.getOutputStream());
+      }
+      return output;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset(getCharacterEncoding())));
+      }
+      return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      flushWriter();
+      super.flushBuffer();
+    }
+
+    void flushWriter() {
+      if (writer != null) {
+        writer.flush();
+      }
+    }
+
+    long bytes() {
+      return output == null ? 0 : output.bytes;
+    }
+  }
+
+  private static final class CountingInputStream extends ServletInputStream {
+
+    private final ServletInputStream delegate;
+    private long bytes;
+
+    private CountingInputStream(ServletInputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int next = delegate.read();
+      if (next >= 0) {
+        bytes++;
+      }
+      return next;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = delegate.read(buffer, offset, length);
+      if (read > 0) {
+        bytes += read;
+      }
+      return read;
+    }
+
+    @Override
+    public boolean isFinished() {
+      return delegate.isFinished();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setReadListener(ReadListener listener) {
+      delegate.setReadListener(listener);
+    }
+  }
+
+  private static final class CountingOutputStream extends ServletOutputStream {
+
+    private final ServletOutputStream delegate;
+    private long bytes;
+
+    private CountingOutputStream(ServletOutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      delegate.write(b);
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+      delegate.write(buffer, offset, length);
+      bytes += length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener listener) {
+      delegate.setWriteListener(listener);
+    }
+  }
+}
@@ -11,12 +11,18 @@
  */
 package com.bobwares.shoppingcart.web;
 
+import com.bobwares.shoppingcart.CartVersionMismatchException;
+import com.bobwares.shoppingcart.InvalidAmountException;
+import com.bobwares.shoppingcart.InvalidCursorException;
+import com.bobwares.shoppingcart.InvalidFieldSelectionException;
+import com.bobwares.shoppingcart.PricingMismatchException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -54,6 +60,67 @@ public class RestExceptionHandler {
         .body(new ErrorResponse(ex.getMessage(), Map.of(), Instant.now()));
   }
 
+  /**
+   * Handles malformed pagination tokens and field selections supplied by clients.
+   *
+   * @param ex exception raised while decoding the cursor or resolving the requested fields
+   * @return 400 response payload
+   */
+  @ExceptionHandler({InvalidCursorException.class, InvalidFieldSelectionException.class})
+  public ResponseEntity<ErrorResponse> handleInvalidQuery(IllegalArgumentException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body(new ErrorResponse(ex.getMessage(), Map.of(), Instant.now()));
+  }
+
+  /**
+   * Handles conditional writes whose {@code If-Match} version is no longer current.
+   *
+   * @param ex exception raised by the service layer
+   * @return 412 response payload
+   */
+  @ExceptionHandler(CartVersionMismatchException.class)
+  public ResponseEntity<ErrorResponse> handleVersionMismatch(CartVersionMismatchException ex) {
+    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+        .body(new ErrorResponse(ex.getMessage(), Map.of(), Instant.now()));
+  }
+
+  /**
+   * Handles writes that kept losing optimistic-locking races after the configured retries.
+   *
+   * @param ex exception raised when the final attempt conflicted
+   * @return 409 response payload
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(new ErrorResponse("Shopping cart was modified concurrently; retry the request", Map.of(),
+            Instant.now()));
+  }
+
+  /**
+   * Handles requests whose amounts disagree with server-side pricing.
+   *
+   * @param ex exception listing each mismatched field with the expected amount
+   * @return 422 response payload with per-field expectations
+   */
+  @ExceptionHandler(PricingMismatchException.class)
+  public ResponseEntity<ErrorResponse> handlePricingMismatch(PricingMismatchException ex) {
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+        .body(new ErrorResponse(ex.getMessage(), ex.getMismatches(), Instant.now()));
+  }
+
+  /**
+   * Handles amounts finer than the minor unit of their currency.
+   *
+   * @param ex exception naming the offending field
+   * @return 422 response payload with the field error
+   */
+  @ExceptionHandler(InvalidAmountException.class)
+  public ResponseEntity<ErrorResponse> handleInvalidAmount(InvalidAmountException ex) {
+    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+        .body(new ErrorResponse(ex.getMessage(), Map.of(ex.getField(), ex.getMessage()), Instant.now()));
+  }
+
   /**
    * Handles bean validation errors originating from controller method parameters.
    *
@@ -0,0 +1,14 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 02_shopping_cart_keyset_index.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: idx_shopping_cart_updated_at_id
+ * Description: Adds the (updated_at, shopping_cart_id) keyset index backing paginated cart listing. Built
+ *              concurrently so existing tables stay writable while the index is created.
+ */
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_shopping_cart_updated_at_id
+    ON shopping_cart.shopping_cart (updated_at DESC, shopping_cart_id DESC);
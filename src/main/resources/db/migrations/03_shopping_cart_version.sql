@@ -0,0 +1,14 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 03_shopping_cart_version.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: shopping_cart.version
+ * Description: Adds the monotonically increasing cart version used for entity tags. The constant default keeps
+ *              the ALTER a catalog-only change on PostgreSQL 11+.
+ */
+ALTER TABLE shopping_cart.shopping_cart
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,37 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 04_shopping_cart_summary_columns.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: shopping_cart.item_count, shopping_cart.item_total, shopping_cart.discount_total,
+ *          shopping_cart_summary
+ * Description: Adds summary columns maintained on every cart write and redefines shopping_cart_summary over them.
+ *              The previous view joined items and discounts together, so every item row was repeated once per
+ *              discount and the counts and sums were inflated. Constant defaults keep the ALTER catalog-only;
+ *              05_shopping_cart_summary_backfill.sql fills existing rows.
+ */
+ALTER TABLE shopping_cart.shopping_cart
+    ADD COLUMN IF NOT EXISTS item_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS item_total NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS discount_total NUMERIC(12, 2) NOT NULL DEFAULT 0;
+
+DROP VIEW IF EXISTS shopping_cart.shopping_cart_summary;
+
+CREATE VIEW shopping_cart.shopping_cart_summary AS
+SELECT
+    shopping_cart_id,
+    user_id,
+    subtotal,
+    tax,
+    shipping,
+    total,
+    currency,
+    created_at,
+    updated_at,
+    item_count,
+    item_total,
+    discount_total
+FROM shopping_cart.shopping_cart;
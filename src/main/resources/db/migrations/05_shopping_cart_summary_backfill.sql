@@ -0,0 +1,52 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 05_shopping_cart_summary_backfill.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: none
+ * Description: Backfills the summary columns of existing carts in primary-key order, 1000 carts per transaction,
+ *              so row locks are short-lived and WAL is produced in small bursts. version and updated_at are left
+ *              untouched because the carts themselves do not change. Must run outside a transaction block so the
+ *              COMMIT between chunks is allowed.
+ */
+DO $$
+DECLARE
+    chunk_size CONSTANT INTEGER := 1000;
+    last_id UUID := '00000000-0000-0000-0000-000000000000';
+    chunk_end UUID;
+BEGIN
+    LOOP
+        SELECT max_id INTO chunk_end
+        FROM (SELECT shopping_cart_id AS max_id
+              FROM shopping_cart.shopping_cart
+              WHERE shopping_cart_id > last_id
+              ORDER BY shopping_cart_id
+              LIMIT chunk_size) chunk
+        ORDER BY max_id DESC
+        LIMIT 1;
+        EXIT WHEN chunk_end IS NULL;
+
+        UPDATE shopping_cart.shopping_cart c
+        SET item_count = COALESCE(i.item_count, 0),
+            item_total = COALESCE(i.item_total, 0),
+            discount_total = LEAST(COALESCE(d.discount_total, 0), COALESCE(i.item_total, 0))
+        FROM shopping_cart.shopping_cart k
+        LEFT JOIN (SELECT shopping_cart_id, COUNT(*) AS item_count, SUM(total_price) AS item_total
+                   FROM shopping_cart.shopping_cart_item
+                   WHERE shopping_cart_id > last_id AND shopping_cart_id <= chunk_end
+                   GROUP BY shopping_cart_id) i ON i.shopping_cart_id = k.shopping_cart_id
+        LEFT JOIN (SELECT shopping_cart_id, SUM(amount) AS discount_total
+                   FROM shopping_cart.shopping_cart_discount
+                   WHERE shopping_cart_id > last_id AND shopping_cart_id <= chunk_end
+                   GROUP BY shopping_cart_id) d ON d.shopping_cart_id = k.shopping_cart_id
+        WHERE k.shopping_cart_id > last_id AND k.shopping_cart_id <= chunk_end
+          AND c.shopping_cart_id = k.shopping_cart_id;
+
+        last_id := chunk_end;
+        COMMIT;
+    END LOOP;
+END
+$$;
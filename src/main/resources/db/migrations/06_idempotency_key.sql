@@ -0,0 +1,26 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 06_idempotency_key.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: shopping_cart.idempotency_key, idx_idempotency_key_expires_at
+ * Description: Stores responses to requests sent with an Idempotency-Key so retries are answered without
+ *              re-executing them. A row without a status code is a claim held by the instance executing the
+ *              request; expires_at bounds both the claim and the stored response.
+ */
+CREATE TABLE IF NOT EXISTS shopping_cart.idempotency_key (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash BYTEA NOT NULL,
+    status_code INTEGER,
+    content_type VARCHAR(255),
+    etag VARCHAR(255),
+    location VARCHAR(2048),
+    body BYTEA,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_expires_at ON shopping_cart.idempotency_key (expires_at);
@@ -0,0 +1,107 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 07_shopping_cart_line_partitions.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: shopping_cart_item_partitioned, shopping_cart_discount_partitioned and their sync triggers
+ * Description: First step of moving the line tables to hash partitions on shopping_cart_id. Creates empty
+ *              partitioned copies of shopping_cart_item and shopping_cart_discount with ${cartPartitionCount}
+ *              partitions each, and row triggers that mirror every write on the live tables into them, so the
+ *              backfill in 08 can copy existing rows while the application keeps writing. The primary keys include
+ *              shopping_cart_id, as PostgreSQL requires of unique constraints on a partitioned table. The separate
+ *              shopping_cart_id indexes are not recreated: the (shopping_cart_id, product_id) and
+ *              (shopping_cart_id, code) unique indexes already serve lookups by cart.
+ */
+SET LOCAL lock_timeout = '5s';
+
+CREATE TABLE shopping_cart.shopping_cart_item_partitioned (
+    cart_item_id UUID NOT NULL DEFAULT gen_random_uuid(),
+    shopping_cart_id UUID NOT NULL,
+    product_id VARCHAR(64) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    unit_price NUMERIC(12, 2) NOT NULL CHECK (unit_price >= 0),
+    currency CHAR(3) NOT NULL,
+    total_price NUMERIC(12, 2) NOT NULL CHECK (total_price >= 0),
+    CONSTRAINT shopping_cart_item_partitioned_pkey PRIMARY KEY (cart_item_id, shopping_cart_id),
+    CONSTRAINT shopping_cart_item_partitioned_cart_product_key UNIQUE (shopping_cart_id, product_id),
+    CONSTRAINT shopping_cart_item_partitioned_cart_fkey FOREIGN KEY (shopping_cart_id)
+        REFERENCES shopping_cart.shopping_cart (shopping_cart_id) ON DELETE CASCADE
+) PARTITION BY HASH (shopping_cart_id);
+
+CREATE INDEX idx_cart_item_partitioned_product_id ON shopping_cart.shopping_cart_item_partitioned (product_id);
+
+CREATE TABLE shopping_cart.shopping_cart_discount_partitioned (
+    discount_id UUID NOT NULL DEFAULT gen_random_uuid(),
+    shopping_cart_id UUID NOT NULL,
+    code VARCHAR(64) NOT NULL,
+    amount NUMERIC(12, 2) NOT NULL CHECK (amount >= 0),
+    CONSTRAINT shopping_cart_discount_partitioned_pkey PRIMARY KEY (discount_id, shopping_cart_id),
+    CONSTRAINT shopping_cart_discount_partitioned_cart_code_key UNIQUE (shopping_cart_id, code),
+    CONSTRAINT shopping_cart_discount_partitioned_cart_fkey FOREIGN KEY (shopping_cart_id)
+        REFERENCES shopping_cart.shopping_cart (shopping_cart_id) ON DELETE CASCADE
+) PARTITION BY HASH (shopping_cart_id);
+
+CREATE INDEX idx_cart_discount_partitioned_code ON shopping_cart.shopping_cart_discount_partitioned (code);
+
+DO $$
+DECLARE
+    partitions CONSTANT INTEGER := ${cartPartitionCount};
+BEGIN
+    IF partitions < 1 THEN
+        RAISE EXCEPTION 'cartPartitionCount must be at least 1, was %', partitions;
+    END IF;
+    FOR remainder IN 0 .. partitions - 1 LOOP
+        EXECUTE format('CREATE TABLE shopping_cart.shopping_cart_item_p%s PARTITION OF '
+                           'shopping_cart.shopping_cart_item_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       remainder, partitions, remainder);
+        EXECUTE format('CREATE TABLE shopping_cart.shopping_cart_discount_p%s PARTITION OF '
+                           'shopping_cart.shopping_cart_discount_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       remainder, partitions, remainder);
+    END LOOP;
+END
+$$;
+
+-- An update is mirrored as delete and insert, so it also lands right for a row the backfill has not copied yet.
+CREATE FUNCTION shopping_cart.sync_shopping_cart_item_partitioned() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM shopping_cart.shopping_cart_item_partitioned
+        WHERE cart_item_id = OLD.cart_item_id AND shopping_cart_id = OLD.shopping_cart_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO shopping_cart.shopping_cart_item_partitioned
+            (cart_item_id, shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price)
+        VALUES (NEW.cart_item_id, NEW.shopping_cart_id, NEW.product_id, NEW.name, NEW.quantity, NEW.unit_price,
+                NEW.currency, NEW.total_price);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER sync_shopping_cart_item_partitioned
+AFTER INSERT OR UPDATE OR DELETE ON shopping_cart.shopping_cart_item
+FOR EACH ROW EXECUTE FUNCTION shopping_cart.sync_shopping_cart_item_partitioned();
+
+CREATE FUNCTION shopping_cart.sync_shopping_cart_discount_partitioned() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM shopping_cart.shopping_cart_discount_partitioned
+        WHERE discount_id = OLD.discount_id AND shopping_cart_id = OLD.shopping_cart_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO shopping_cart.shopping_cart_discount_partitioned (discount_id, shopping_cart_id, code, amount)
+        VALUES (NEW.discount_id, NEW.shopping_cart_id, NEW.code, NEW.amount);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER sync_shopping_cart_discount_partitioned
+AFTER INSERT OR UPDATE OR DELETE ON shopping_cart.shopping_cart_discount
+FOR EACH ROW EXECUTE FUNCTION shopping_cart.sync_shopping_cart_discount_partitioned();
@@ -0,0 +1,78 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 08_shopping_cart_line_partitions_backfill.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: none
+ * Description: Copies existing items and discounts into the partitioned tables in primary-key order, 1000 rows per
+ *              transaction, while the triggers from 07 mirror concurrent writes. Each chunk takes FOR SHARE locks
+ *              on the rows it copies, so a concurrent update or delete of such a row waits for the chunk to commit
+ *              and its trigger then finds the copy; rows the trigger has already mirrored are skipped by
+ *              ON CONFLICT DO NOTHING. A chunk waits at most 100 ms for a row an application transaction has locked
+ *              and is then retried, so it never holds up writes for long or waits out deadlock detection. Must run
+ *              outside a transaction block so the COMMIT between chunks is allowed.
+ */
+DO $$
+DECLARE
+    chunk_size CONSTANT INTEGER := 1000;
+    last_id UUID := '00000000-0000-0000-0000-000000000000';
+    chunk_end UUID;
+BEGIN
+    LOOP
+        BEGIN
+            PERFORM set_config('lock_timeout', '100ms', true);
+            WITH chunk AS (
+                SELECT cart_item_id, shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price
+                FROM shopping_cart.shopping_cart_item
+                WHERE cart_item_id > last_id
+                ORDER BY cart_item_id
+                LIMIT chunk_size
+                FOR SHARE
+            ), copied AS (
+                INSERT INTO shopping_cart.shopping_cart_item_partitioned
+                    (cart_item_id, shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price)
+                SELECT cart_item_id, shopping_cart_id, product_id, name, quantity, unit_price, currency, total_price
+                FROM chunk
+                ON CONFLICT DO NOTHING
+            )
+            SELECT cart_item_id INTO chunk_end FROM chunk ORDER BY cart_item_id DESC LIMIT 1;
+        EXCEPTION WHEN lock_not_available OR deadlock_detected THEN
+            CONTINUE;
+        END;
+        EXIT WHEN chunk_end IS NULL;
+
+        last_id := chunk_end;
+        COMMIT;
+    END LOOP;
+
+    last_id := '00000000-0000-0000-0000-000000000000';
+    LOOP
+        BEGIN
+            PERFORM set_config('lock_timeout', '100ms', true);
+            WITH chunk AS (
+                SELECT discount_id, shopping_cart_id, code, amount
+                FROM shopping_cart.shopping_cart_discount
+                WHERE discount_id > last_id
+                ORDER BY discount_id
+                LIMIT chunk_size
+                FOR SHARE
+            ), copied AS (
+                INSERT INTO shopping_cart.shopping_cart_discount_partitioned (discount_id, shopping_cart_id, code, amount)
+                SELECT discount_id, shopping_cart_id, code, amount
+                FROM chunk
+                ON CONFLICT DO NOTHING
+            )
+            SELECT discount_id INTO chunk_end FROM chunk ORDER BY discount_id DESC LIMIT 1;
+        EXCEPTION WHEN lock_not_available OR deadlock_detected THEN
+            CONTINUE;
+        END;
+        EXIT WHEN chunk_end IS NULL;
+
+        last_id := chunk_end;
+        COMMIT;
+    END LOOP;
+END
+$$;
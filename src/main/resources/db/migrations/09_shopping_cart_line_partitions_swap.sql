@@ -0,0 +1,44 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 09_shopping_cart_line_partitions_swap.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: partitioned shopping_cart_item and shopping_cart_discount
+ * Description: Last step of the move to hash partitions. Collects planner statistics for the backfilled tables,
+ *              then, in one short transaction, drops the unpartitioned tables with their sync triggers and gives the
+ *              partitioned tables, constraints and indexes the original names. The table locks give up after five
+ *              seconds instead of queueing application traffic behind a long-running transaction; the change set is
+ *              then retried on the next update.
+ */
+ANALYZE shopping_cart.shopping_cart_item_partitioned;
+ANALYZE shopping_cart.shopping_cart_discount_partitioned;
+
+SET LOCAL lock_timeout = '5s';
+
+LOCK TABLE shopping_cart.shopping_cart_item, shopping_cart.shopping_cart_discount IN ACCESS EXCLUSIVE MODE;
+
+DROP TABLE shopping_cart.shopping_cart_item;
+DROP TABLE shopping_cart.shopping_cart_discount;
+DROP FUNCTION shopping_cart.sync_shopping_cart_item_partitioned();
+DROP FUNCTION shopping_cart.sync_shopping_cart_discount_partitioned();
+
+ALTER TABLE shopping_cart.shopping_cart_item_partitioned RENAME TO shopping_cart_item;
+ALTER TABLE shopping_cart.shopping_cart_item
+    RENAME CONSTRAINT shopping_cart_item_partitioned_pkey TO shopping_cart_item_pkey;
+ALTER TABLE shopping_cart.shopping_cart_item
+    RENAME CONSTRAINT shopping_cart_item_partitioned_cart_product_key TO shopping_cart_item_shopping_cart_id_product_id_key;
+ALTER TABLE shopping_cart.shopping_cart_item
+    RENAME CONSTRAINT shopping_cart_item_partitioned_cart_fkey TO shopping_cart_item_shopping_cart_id_fkey;
+ALTER INDEX shopping_cart.idx_cart_item_partitioned_product_id RENAME TO idx_cart_item_product_id;
+
+ALTER TABLE shopping_cart.shopping_cart_discount_partitioned RENAME TO shopping_cart_discount;
+ALTER TABLE shopping_cart.shopping_cart_discount
+    RENAME CONSTRAINT shopping_cart_discount_partitioned_pkey TO shopping_cart_discount_pkey;
+ALTER TABLE shopping_cart.shopping_cart_discount
+    RENAME CONSTRAINT shopping_cart_discount_partitioned_cart_code_key TO shopping_cart_discount_shopping_cart_id_code_key;
+ALTER TABLE shopping_cart.shopping_cart_discount
+    RENAME CONSTRAINT shopping_cart_discount_partitioned_cart_fkey TO shopping_cart_discount_shopping_cart_id_fkey;
+ALTER INDEX shopping_cart.idx_cart_discount_partitioned_code RENAME TO idx_cart_discount_code;
@@ -0,0 +1,13 @@
+/*
+ * App: Shopping Cart API
+ * Package: db.migrations
+ * File: 10_idempotency_key_set_cookie.sql
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: shopping_cart.idempotency_key.set_cookie
+ * Description: Keeps the Set-Cookie headers of a stored response, one per line, so replays carry the same cookies
+ *              as the original response.
+ */
+ALTER TABLE shopping_cart.idempotency_key ADD COLUMN IF NOT EXISTS set_cookie TEXT;
@@ -0,0 +1,155 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: IdempotentResponseStoreTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: IdempotentResponseStoreTests
+ * Description: Unit tests for claiming, replaying and releasing Idempotency-Key executions.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IdempotentResponseStore}.
+ */
+class IdempotentResponseStoreTests {
+
+  private static final byte[] HASH = "request".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] OTHER_HASH = "other".getBytes(StandardCharsets.UTF_8);
+
+  private IdempotencyKeyRepository repository;
+  private SimpleMeterRegistry meterRegistry;
+  private IdempotentResponseStore store;
+
+  @BeforeEach
+  void setUp() {
+    AppProperties properties = new AppProperties();
+    properties.getIdempotency().setWaitTimeout(Duration.ofMillis(200));
+    repository = mock(IdempotencyKeyRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    store = new IdempotentResponseStore(repository, properties, meterRegistry);
+  }
+
+  @Test
+  void claim_shouldReplayCompletedResponseFromMemory() {
+    when(repository.claim(eq("key-1"), eq(HASH), any(), any())).thenReturn(true);
+    IdempotentResponseStore.Claim first = store.claim("key-1", HASH);
+    assertThat(first.outcome()).isEqualTo(IdempotentResponseStore.Outcome.EXECUTE);
+    IdempotentResponseStore.StoredResponse response = response(201);
+    store.complete(first, response);
+
+    IdempotentResponseStore.Claim retry = store.claim("key-1", HASH);
+
+    assertThat(retry.outcome()).isEqualTo(IdempotentResponseStore.Outcome.REPLAY);
+    assertThat(retry.response()).isSameAs(response);
+    assertThat(store.claim("key-1", OTHER_HASH).outcome()).isEqualTo(IdempotentResponseStore.Outcome.MISMATCH);
+    verify(repository, times(1)).claim(anyString(), any(), any(), any());
+    verify(repository).complete("key-1", HASH, response);
+    assertThat(meterRegistry.get("shopping.cart.idempotency.requests").tag("outcome", "replayed").counter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void claim_shouldMakeConcurrentDuplicateWaitForTheFirstExecution() throws Exception {
+    when(repository.claim(eq("key-1"), eq(HASH), any(), any())).thenReturn(true);
+    IdempotentResponseStore.Claim first = store.claim("key-1", HASH);
+
+    CompletableFuture<IdempotentResponseStore.Claim> duplicate =
+        CompletableFuture.supplyAsync(() -> store.claim("key-1", HASH));
+    Thread.sleep(50);
+    IdempotentResponseStore.StoredResponse response = response(200);
+    store.complete(first, response);
+
+    IdempotentResponseStore.Claim waited = duplicate.get(5, TimeUnit.SECONDS);
+    assertThat(waited.outcome()).isEqualTo(IdempotentResponseStore.Outcome.REPLAY);
+    assertThat(waited.response()).isSameAs(response);
+    verify(repository, times(1)).claim(anyString(), any(), any(), any());
+  }
+
+  @Test
+  void claim_shouldReportInProgressWhenAnotherInstanceHoldsTheKey() {
+    when(repository.claim(eq("key-1"), eq(HASH), any(), any())).thenReturn(false);
+    when(repository.find("key-1")).thenReturn(Optional.of(new IdempotencyKeyRepository.StoredKey(HASH, null)));
+
+    assertThat(store.claim("key-1", HASH).outcome()).isEqualTo(IdempotentResponseStore.Outcome.IN_PROGRESS);
+  }
+
+  @Test
+  void claim_shouldReplayResponseStoredByAnotherInstance() {
+    IdempotentResponseStore.StoredResponse response = response(201);
+    when(repository.claim(eq("key-1"), eq(HASH), any(), any())).thenReturn(false);
+    when(repository.find("key-1")).thenReturn(Optional.of(new IdempotencyKeyRepository.StoredKey(HASH, response)));
+
+    assertThat(store.claim("key-1", HASH).response()).isSameAs(response);
+    assertThat(store.claim("key-1", HASH).outcome()).isEqualTo(IdempotentResponseStore.Outcome.REPLAY);
+    verify(repository, times(1)).find("key-1");
+  }
+
+  @Test
+  void complete_shouldReleaseServerErrorsSoTheRetryExecutes() {
+    when(repository.claim(eq("key-1"), eq(HASH), any(), any())).thenReturn(true);
+    IdempotentResponseStore.Claim first = store.claim("key-1", HASH);
+
+    store.complete(first, response(503));
+
+    verify(repository).release("key-1", HASH);
+    verify(repository, never()).complete(anyString(), any(), any());
+    assertThat(store.claim("key-1", HASH).outcome()).isEqualTo(IdempotentResponseStore.Outcome.EXECUTE);
+  }
+
+  @Test
+  void complete_shouldReleaseConflictsAndRateLimitsSoTheRetryExecutes() {
+    when(repository.claim(eq("key-1"), eq(HASH), any(), any())).thenReturn(true);
+
+    store.complete(store.claim("key-1", HASH), response(409));
+    store.complete(store.claim("key-1", HASH), response(429));
+
+    verify(repository, times(2)).release("key-1", HASH);
+    verify(repository, never()).complete(anyString(), any(), any());
+    assertThat(store.claim("key-1", HASH).outcome()).isEqualTo(IdempotentResponseStore.Outcome.EXECUTE);
+  }
+
+  @Test
+  void complete_shouldKeepDefinitiveClientErrorsWithTheirCookies() {
+    when(repository.claim(eq("key-1"), eq(HASH), any(), any())).thenReturn(true);
+    IdempotentResponseStore.StoredResponse rejected = new IdempotentResponseStore.StoredResponse(422,
+        "application/json", null, null, List.of("read-primary-until=1; Path=/api/; HttpOnly"),
+        "{}".getBytes(StandardCharsets.UTF_8), Instant.now().plusSeconds(60));
+
+    store.complete(store.claim("key-1", HASH), rejected);
+
+    verify(repository).complete("key-1", HASH, rejected);
+    IdempotentResponseStore.Claim retry = store.claim("key-1", HASH);
+    assertThat(retry.outcome()).isEqualTo(IdempotentResponseStore.Outcome.REPLAY);
+    assertThat(retry.response().cookies()).containsExactly("read-primary-until=1; Path=/api/; HttpOnly");
+  }
+
+  private static IdempotentResponseStore.StoredResponse response(int status) {
+    return new IdempotentResponseStore.StoredResponse(status, "application/json", "\"0\"", null, List.of(),
+        "{}".getBytes(StandardCharsets.UTF_8), Instant.now().plusSeconds(60));
+  }
+}
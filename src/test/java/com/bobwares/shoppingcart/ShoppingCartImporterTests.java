@@ -0,0 +1,126 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartImporterTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartImporterTests
+ * Description: Unit tests for NDJSON bulk import batching and per-record error reporting.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for {@link ShoppingCartImporter}.
+ */
+class ShoppingCartImporterTests {
+
+  private ShoppingCartImportRepository importRepository;
+  private SimpleMeterRegistry meterRegistry;
+  private ShoppingCartImporter importer;
+
+  @BeforeEach
+  void setUp() {
+    AppProperties properties = new AppProperties();
+    properties.getBulkImport().setBatchSize(2);
+    importRepository = mock(ShoppingCartImportRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    importer = new ShoppingCartImporter(new ObjectMapper().findAndRegisterModules(),
+        Validation.buildDefaultValidatorFactory().getValidator(), new ShoppingCartPricing(properties),
+        importRepository, mock(PlatformTransactionManager.class), properties, meterRegistry);
+  }
+
+  @Test
+  void importCarts_shouldBatchValidRecordsAndReportRejectsByLine() throws Exception {
+    UUID duplicateUser = UUID.randomUUID();
+    when(importRepository.insertCarts(anyList())).thenAnswer(invocation -> {
+      List<ShoppingCart> carts = invocation.getArgument(0);
+      return carts.stream()
+          .filter(cart -> !cart.getUserId().equals(duplicateUser))
+          .map(ShoppingCart::getId)
+          .collect(Collectors.toSet());
+    });
+    String body = String.join("\n",
+        cart(UUID.randomUUID()),
+        "{not json",
+        "",
+        cart(duplicateUser),
+        "{\"userId\":\"" + UUID.randomUUID() + "\",\"currency\":\"USD\",\"items\":[]}",
+        cart(UUID.randomUUID()).replace("\"total\":null", "\"total\":1.00"),
+        cart(UUID.randomUUID()));
+
+    ShoppingCartDto.ImportResult result = importer.importCarts(new BufferedReader(new StringReader(body)));
+
+    assertThat(result.imported()).isEqualTo(2);
+    assertThat(result.failed()).isEqualTo(4);
+    assertThat(result.errors()).extracting(ShoppingCartDto.ImportError::line).containsExactly(2L, 4L, 5L, 6L);
+    assertThat(result.errors().get(0).message()).startsWith("Malformed JSON");
+    assertThat(result.errors().get(1).message()).isEqualTo(ShoppingCartService.DUPLICATE_USER_MESSAGE);
+    assertThat(result.errors().get(2).details()).containsKey("items");
+    assertThat(result.errors().get(3).details()).containsKey("total");
+    verify(importRepository, times(2)).insertCarts(anyList());
+    verify(importRepository, times(2)).insertItems(anyList());
+    verify(importRepository, times(2)).insertDiscounts(anyList());
+    assertThat(meterRegistry.get("shopping.cart.import.records").tag("outcome", "imported").counter().count())
+        .isEqualTo(2);
+    assertThat(meterRegistry.get("shopping.cart.import.records").tag("outcome", "rejected").counter().count())
+        .isEqualTo(4);
+  }
+
+  @Test
+  void importCarts_shouldRetryFailedBatchOneRecordAtATime() throws Exception {
+    UUID badUser = UUID.randomUUID();
+    Set<UUID> attempts = new HashSet<>();
+    when(importRepository.insertCarts(anyList())).thenAnswer(invocation -> {
+      List<ShoppingCart> carts = invocation.getArgument(0);
+      if (carts.stream().anyMatch(cart -> cart.getUserId().equals(badUser))) {
+        throw new DataIntegrityViolationException("duplicate product");
+      }
+      carts.forEach(cart -> attempts.add(cart.getId()));
+      return carts.stream().map(ShoppingCart::getId).collect(Collectors.toSet());
+    });
+    String body = cart(UUID.randomUUID()) + "\n" + cart(badUser) + "\n";
+
+    ShoppingCartDto.ImportResult result = importer.importCarts(new BufferedReader(new StringReader(body)));
+
+    assertThat(result.imported()).isEqualTo(1);
+    assertThat(result.errors()).singleElement().satisfies(error -> {
+      assertThat(error.line()).isEqualTo(2);
+      assertThat(error.message()).startsWith("Could not store cart");
+    });
+    assertThat(attempts).hasSize(1);
+    verify(importRepository, times(3)).insertCarts(anyList());
+  }
+
+  private static String cart(UUID userId) {
+    return "{\"userId\":\"" + userId + "\",\"currency\":\"USD\",\"total\":null,"
+        + "\"items\":[{\"productId\":\"SKU-1\",\"name\":\"Pen\",\"quantity\":2,\"unitPrice\":1.50,"
+        + "\"currency\":\"USD\"}],"
+        + "\"discounts\":[{\"code\":\"PROMO\",\"amount\":0.50}]}";
+  }
+}
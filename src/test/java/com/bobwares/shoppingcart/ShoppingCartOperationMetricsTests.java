@@ -0,0 +1,107 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartOperationMetricsTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartOperationMetricsTests
+ * Description: Unit tests for the service operation timer and item count aspect.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Unit tests for {@link ShoppingCartOperationMetrics}.
+ */
+class ShoppingCartOperationMetricsTests {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ShoppingCartService target;
+  private ShoppingCartService service;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    target = mock(ShoppingCartService.class);
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.setProxyTargetClass(true);
+    factory.addAspect(new ShoppingCartOperationMetrics(meterRegistry));
+    service = factory.getProxy();
+  }
+
+  @Test
+  void shouldTimeSuccessfulOperationAndRecordItemCount() {
+    UUID cartId = UUID.randomUUID();
+    when(target.get(cartId)).thenReturn(response(cartId, 3));
+
+    service.get(cartId);
+
+    assertThat(meterRegistry.get("shopping.cart.operation")
+        .tag("operation", "get").tag("outcome", "success").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("shopping.cart.items").tag("operation", "get").summary().totalAmount())
+        .isEqualTo(3);
+  }
+
+  @Test
+  void shouldTagFailuresWithOutcome() {
+    UUID cartId = UUID.randomUUID();
+    when(target.get(cartId)).thenThrow(new EntityNotFoundException("missing"));
+    when(target.getVersion(cartId)).thenThrow(new ObjectOptimisticLockingFailureException(ShoppingCart.class, cartId));
+
+    assertThatThrownBy(() -> service.get(cartId)).isInstanceOf(EntityNotFoundException.class);
+    assertThatThrownBy(() -> service.getVersion(cartId)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+    assertThat(meterRegistry.get("shopping.cart.operation")
+        .tag("operation", "get").tag("outcome", "not_found").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("shopping.cart.operation")
+        .tag("operation", "getVersion").tag("outcome", "conflict").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.find("shopping.cart.items").summary()).isNull();
+  }
+
+  @Test
+  void shouldMapExceptionsToOutcomes() {
+    assertThat(ShoppingCartOperationMetrics.outcome(new CartVersionMismatchException(UUID.randomUUID())))
+        .isEqualTo("precondition_failed");
+    assertThat(ShoppingCartOperationMetrics.outcome(new InvalidCursorException("bad"))).isEqualTo("invalid");
+    assertThat(ShoppingCartOperationMetrics.outcome(new IllegalArgumentException("dup"))).isEqualTo("conflict");
+    assertThat(ShoppingCartOperationMetrics.outcome(new IllegalStateException("boom"))).isEqualTo("error");
+  }
+
+  private static ShoppingCartDto.Response response(UUID id, int itemCount) {
+    ShoppingCart cart = new ShoppingCart();
+    cart.setId(id);
+    cart.setUserId(UUID.randomUUID());
+    cart.setCurrency("USD");
+    List<ShoppingCartItem> items = new ArrayList<>();
+    for (int i = 0; i < itemCount; i++) {
+      ShoppingCartItem item = new ShoppingCartItem();
+      item.setProductId("SKU-" + i);
+      item.setName("Product " + i);
+      item.setQuantity(1);
+      item.setUnitPrice(BigDecimal.ONE);
+      item.setTotalPrice(BigDecimal.ONE);
+      item.setCurrency("USD");
+      items.add(item);
+    }
+    cart.replaceItems(items);
+    return ShoppingCartService.mapToResponse(cart);
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartPricingTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartPricingTests
+ * Description: Unit tests for minor-unit cart pricing and client total validation.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ShoppingCartPricing}.
+ */
+class ShoppingCartPricingTests {
+
+  private ShoppingCartPricing pricing;
+
+  @BeforeEach
+  void setUp() {
+    AppProperties properties = new AppProperties();
+    properties.setDefaultTaxRate(new BigDecimal("0.0825"));
+    properties.setDefaultShippingCost(new BigDecimal("4.99"));
+    pricing = new ShoppingCartPricing(properties);
+  }
+
+  @Test
+  void price_shouldComputeLinesDiscountTaxAndShipping() {
+    ShoppingCartDto.CreateRequest request = request("USD",
+        List.of(item("SKU-1", 3, "19.99"), item("SKU-2", 1, "5.00")),
+        List.of(discount("SAVE5", "5.00")));
+
+    ShoppingCartPricing.Quote quote = pricing.price(request);
+
+    assertThat(quote.lineTotals()).containsExactly(5997L, 500L);
+    assertThat(quote.subtotal()).isEqualTo(6497L);
+    assertThat(quote.discount()).isEqualTo(500L);
+    // 59.97 * 0.0825 = 4.947525 -> 4.95
+    assertThat(quote.tax()).isEqualTo(495L);
+    assertThat(quote.shipping()).isEqualTo(499L);
+    assertThat(quote.total()).isEqualTo(5997L + 495L + 499L);
+    assertThat(quote.toAmount(quote.total())).isEqualByComparingTo("69.91");
+  }
+
+  @Test
+  void price_shouldRoundTaxHalfUp() {
+    AppProperties properties = new AppProperties();
+    properties.setDefaultTaxRate(new BigDecimal("0.05"));
+    ShoppingCartPricing flatRate = new ShoppingCartPricing(properties);
+
+    ShoppingCartPricing.Quote quote = flatRate.price(request("USD", List.of(item("SKU-1", 1, "0.10")), List.of()));
+
+    assertThat(quote.tax()).isEqualTo(1L);
+  }
+
+  @Test
+  void price_shouldCapDiscountAtSubtotal() {
+    ShoppingCartPricing.Quote quote = pricing.price(request("USD",
+        List.of(item("SKU-1", 1, "3.00")), List.of(discount("BIG", "10.00"))));
+
+    assertThat(quote.discount()).isEqualTo(300L);
+    assertThat(quote.tax()).isZero();
+    assertThat(quote.total()).isEqualTo(499L);
+  }
+
+  @Test
+  void price_shouldAcceptMatchingClientTotals() {
+    ShoppingCartDto.CreateRequest request = request("USD", List.of(item("SKU-1", 2, "10.00")), List.of());
+    request.setSubtotal(new BigDecimal("20.0"));
+    request.setTax(new BigDecimal("1.65"));
+    request.setShipping(new BigDecimal("4.99"));
+    request.setTotal(new BigDecimal("26.64"));
+
+    assertThat(pricing.price(request).total()).isEqualTo(2664L);
+  }
+
+  @Test
+  void price_shouldReportEveryMismatchedAmount() {
+    ShoppingCartDto.ItemPayload line = item("SKU-1", 2, "10.00");
+    line.setTotalPrice(new BigDecimal("15.00"));
+    ShoppingCartDto.CreateRequest request = request("USD", List.of(line), List.of());
+    request.setSubtotal(new BigDecimal("20.00"));
+    request.setTotal(new BigDecimal("20.00"));
+
+    assertThatThrownBy(() -> pricing.price(request))
+        .isInstanceOf(PricingMismatchException.class)
+        .satisfies(ex -> assertThat(((PricingMismatchException) ex).getMismatches())
+            .containsOnlyKeys("items[0].totalPrice", "total")
+            .containsEntry("items[0].totalPrice", "expected 20.00")
+            .containsEntry("total", "expected 26.64"));
+  }
+
+  @Test
+  void price_shouldUseCurrencyMinorUnit() {
+    ShoppingCartPricing.Quote quote = pricing.price(request("JPY",
+        List.of(item("SKU-1", 2, "1500"), item("SKU-2", 1, "99")), List.of()));
+
+    assertThat(quote.scale()).isZero();
+    assertThat(quote.subtotal()).isEqualTo(3099L);
+    assertThat(quote.toAmount(quote.subtotal())).isEqualByComparingTo("3099");
+    assertThat(quote.tax()).isEqualTo(256L);
+    assertThat(quote.shipping()).isEqualTo(5L);
+  }
+
+  @Test
+  void price_shouldNotChargeShippingForEmptyCart() {
+    ShoppingCartPricing.Quote quote = pricing.price(request("USD", List.of(), List.of()));
+
+    assertThat(quote.subtotal()).isZero();
+    assertThat(quote.tax()).isZero();
+    assertThat(quote.shipping()).isZero();
+    assertThat(quote.total()).isZero();
+  }
+
+  @Test
+  void price_shouldRejectAmountsFinerThanMinorUnit() {
+    assertThatThrownBy(() -> pricing.price(request("USD", List.of(item("SKU-1", 1, "1.005")), List.of())))
+        .isInstanceOf(InvalidAmountException.class)
+        .hasMessageContaining("more than 2 decimal places");
+  }
+
+  @Test
+  void price_shouldRejectAmountsTooLargeToStoreInsteadOfOverflowing() {
+    assertThatThrownBy(() -> pricing.price(request("USD",
+        List.of(item("SKU-1", Integer.MAX_VALUE, "9999999999.99")), List.of())))
+        .isInstanceOf(InvalidAmountException.class)
+        .satisfies(ex -> assertThat(((InvalidAmountException) ex).getField()).isEqualTo("items[0].totalPrice"));
+    assertThatThrownBy(() -> pricing.price(request("USD",
+        List.of(item("SKU-1", 1, "6000000000.00"), item("SKU-2", 1, "6000000000.00")), List.of())))
+        .isInstanceOf(InvalidAmountException.class)
+        .satisfies(ex -> assertThat(((InvalidAmountException) ex).getField()).isEqualTo("subtotal"));
+    assertThatThrownBy(() -> pricing.price(request("USD", List.of(item("SKU-1", 1, "10000000000.00")), List.of())))
+        .isInstanceOf(InvalidAmountException.class)
+        .hasMessageContaining("Amount from unitPrice exceeds the largest storable amount");
+  }
+
+  @Test
+  void price_shouldRejectItemsInAnotherCurrency() {
+    ShoppingCartDto.ItemPayload line = item("SKU-1", 1, "1.00");
+    line.setCurrency("EUR");
+
+    assertThatThrownBy(() -> pricing.price(request("USD", List.of(line), List.of())))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("does not match cart currency");
+  }
+
+  @Test
+  void price_shouldRejectCurrenciesFinerThanStorage() {
+    assertThatThrownBy(() -> pricing.scale("KWD"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ShoppingCartDto.CreateRequest request(String currency, List<ShoppingCartDto.ItemPayload> items,
+      List<ShoppingCartDto.DiscountPayload> discounts) {
+    ShoppingCartDto.CreateRequest request = new ShoppingCartDto.CreateRequest();
+    request.setCurrency(currency);
+    items.forEach(item -> item.setCurrency(item.getCurrency() == null ? currency : item.getCurrency()));
+    request.setItems(items);
+    request.setDiscounts(discounts);
+    return request;
+  }
+
+  private static ShoppingCartDto.ItemPayload item(String productId, int quantity, String unitPrice) {
+    ShoppingCartDto.ItemPayload item = new ShoppingCartDto.ItemPayload();
+    item.setProductId(productId);
+    item.setName("Product " + productId);
+    item.setQuantity(quantity);
+    item.setUnitPrice(new BigDecimal(unitPrice));
+    return item;
+  }
+
+  private static ShoppingCartDto.DiscountPayload discount(String code, String amount) {
+    ShoppingCartDto.DiscountPayload discount = new ShoppingCartDto.DiscountPayload();
+    discount.setCode(code);
+    discount.setAmount(new BigDecimal(amount));
+    return discount;
+  }
+}
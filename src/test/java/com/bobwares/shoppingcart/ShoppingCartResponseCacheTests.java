@@ -0,0 +1,127 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartResponseCacheTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartResponseCacheTests
+ * Description: Unit tests covering hit, miss, invalidation, and metrics behavior of the serialized response cache.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+/**
+ * Unit tests for {@link ShoppingCartResponseCache}.
+ */
+class ShoppingCartResponseCacheTests {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ShoppingCartResponseCache cache;
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cache = new ShoppingCartResponseCache(new AppProperties(), new ObjectMapper().findAndRegisterModules(),
+        meterRegistry);
+  }
+
+  @Test
+  void get_shouldServeRepeatedReadsFromCache() {
+    UUID id = UUID.randomUUID();
+
+    ShoppingCartResponseCache.CachedResponse first = cache.get(id, this::load);
+    ShoppingCartResponseCache.CachedResponse second = cache.get(id, this::load);
+
+    assertThat(second).isSameAs(first);
+    assertThat(new String(first.body(), StandardCharsets.UTF_8)).contains(id.toString());
+    assertThat(first.version()).isEqualTo(3L);
+    assertThat(loads).hasValue(1);
+    assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidate_shouldForceReload() {
+    UUID id = UUID.randomUUID();
+    cache.get(id, this::load);
+
+    cache.invalidateAfterCommit(id);
+    cache.get(id, this::load);
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void get_shouldCacheEachMediaTypeAndInvalidateThemTogether() throws Exception {
+    UUID id = UUID.randomUUID();
+    ObjectMapper cbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+
+    ShoppingCartResponseCache.CachedResponse json = cache.get(id, this::load);
+    ShoppingCartResponseCache.CachedResponse binary = cache.get(id, MediaType.APPLICATION_CBOR, this::load);
+    cache.get(id, MediaType.APPLICATION_CBOR, this::load);
+
+    assertThat(cbor.readValue(binary.body(), ShoppingCartDto.Response.class).id()).isEqualTo(id);
+    assertThat(binary.body()).isNotEqualTo(json.body());
+    assertThat(loads).hasValue(2);
+
+    cache.invalidate(id);
+    cache.get(id, this::load);
+    cache.get(id, MediaType.APPLICATION_CBOR, this::load);
+
+    assertThat(loads).hasValue(4);
+  }
+
+  @Test
+  void get_shouldDiscardBodyLoadedConcurrentlyWithInvalidation() {
+    UUID id = UUID.randomUUID();
+
+    cache.get(id, cartId -> {
+      cache.invalidate(cartId);
+      return load(cartId);
+    });
+    cache.get(id, this::load);
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void get_shouldCacheBodyLoadedConcurrentlyWithWriteToAnotherCart() {
+    UUID id = UUID.randomUUID();
+    UUID other = UUID.randomUUID();
+    cache.get(other, this::load);
+
+    cache.get(id, cartId -> {
+      cache.invalidateAfterCommit(other);
+      return load(cartId);
+    });
+    cache.get(id, this::load);
+    cache.get(other, this::load);
+
+    assertThat(loads).hasValue(3);
+  }
+
+  private ShoppingCartDto.Response load(UUID id) {
+    loads.incrementAndGet();
+    return new ShoppingCartDto.Response(id, UUID.randomUUID(), BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO,
+        BigDecimal.TEN, "USD", Instant.EPOCH, Instant.EPOCH, 3L, List.of(), List.of());
+  }
+}
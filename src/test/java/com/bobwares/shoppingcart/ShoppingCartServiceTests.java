@@ -14,21 +14,36 @@ package com.bobwares.shoppingcart;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Unit tests for {@link ShoppingCartService} using Mockito mocks.
@@ -39,11 +54,40 @@ class ShoppingCartServiceTests {
   @Mock
   private ShoppingCartRepository shoppingCartRepository;
 
+  @Mock
+  private ShoppingCartLineItemRepository lineItemRepository;
+
+  @Mock
+  private ShoppingCartSummaryRepository summaryRepository;
+
+  @Mock
+  private UserShoppingCartRepository userCartRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private UserCartIdCache userCartCache;
+
   private ShoppingCartService shoppingCartService;
 
   @BeforeEach
   void setUp() {
-    shoppingCartService = new ShoppingCartService(shoppingCartRepository);
+    AppProperties properties = new AppProperties();
+    properties.setDefaultTaxRate(new BigDecimal("0.10"));
+    properties.setDefaultShippingCost(BigDecimal.valueOf(5));
+    properties.getOptimisticRetry().setInitialBackoff(Duration.ZERO);
+    meterRegistry = new SimpleMeterRegistry();
+    ShoppingCartResponseCache responseCache =
+        new ShoppingCartResponseCache(properties, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+    userCartCache = new UserCartIdCache(properties, meterRegistry);
+    shoppingCartService = new ShoppingCartService(shoppingCartRepository, lineItemRepository, summaryRepository,
+        userCartRepository, properties, responseCache, userCartCache, new ShoppingCartPricing(properties),
+        transactionManager, meterRegistry, entityManager);
   }
 
   @Test
@@ -81,14 +125,15 @@ class ShoppingCartServiceTests {
     ShoppingCart persisted = captor.getValue();
     assertThat(persisted.getUserId()).isEqualTo(request.getUserId());
     assertThat(persisted.getItems()).hasSize(1);
+    assertThat(persisted.getItemCount()).isEqualTo(1);
+    assertThat(persisted.getItemTotal()).isEqualByComparingTo("100");
+    assertThat(persisted.getDiscountTotal()).isEqualByComparingTo("0");
   }
 
   @Test
   void create_shouldRejectDuplicateUser() {
     ShoppingCartDto.CreateRequest request = new ShoppingCartDto.CreateRequest();
     request.setUserId(UUID.randomUUID());
-    request.setSubtotal(BigDecimal.ONE);
-    request.setTotal(BigDecimal.ONE);
     request.setCurrency("USD");
     ShoppingCartDto.ItemPayload item = new ShoppingCartDto.ItemPayload();
     item.setProductId("SKU");
@@ -105,29 +150,380 @@ class ShoppingCartServiceTests {
         .hasMessageContaining("User already has an active shopping cart");
   }
 
+  @Test
+  void create_shouldRejectClientTotalsThatDisagreeWithPricing() {
+    ShoppingCartDto.CreateRequest request = new ShoppingCartDto.CreateRequest();
+    request.setUserId(UUID.randomUUID());
+    request.setSubtotal(BigDecimal.valueOf(100));
+    request.setTax(BigDecimal.ZERO);
+    request.setTotal(BigDecimal.valueOf(100));
+    request.setCurrency("USD");
+    ShoppingCartDto.ItemPayload item = new ShoppingCartDto.ItemPayload();
+    item.setProductId("SKU");
+    item.setName("Name");
+    item.setQuantity(2);
+    item.setUnitPrice(BigDecimal.valueOf(50));
+    item.setCurrency("USD");
+    request.setItems(List.of(item));
+
+    assertThatThrownBy(() -> shoppingCartService.create(request))
+        .isInstanceOf(PricingMismatchException.class)
+        .satisfies(ex -> assertThat(((PricingMismatchException) ex).getMismatches())
+            .containsOnlyKeys("tax", "total")
+            .containsEntry("total", "expected 115.00"));
+    verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+  }
+
+  @Test
+  void getOrCreateForUser_shouldRetryOnceWhenAConcurrentInsertWins() {
+    UUID userId = UUID.randomUUID();
+    ShoppingCartDto.UserCart existing = new ShoppingCartDto.UserCart(
+        ShoppingCartService.mapToResponse(buildCart(UUID.randomUUID())), false);
+    when(userCartRepository.getOrCreate(any(ShoppingCart.class)))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(existing));
+
+    ShoppingCartDto.UserCart resolved = shoppingCartService.getOrCreateForUser(userId, null);
+
+    assertThat(resolved).isSameAs(existing);
+    ArgumentCaptor<ShoppingCart> captor = ArgumentCaptor.forClass(ShoppingCart.class);
+    verify(userCartRepository, times(2)).getOrCreate(captor.capture());
+    assertThat(captor.getValue().getUserId()).isEqualTo(userId);
+    assertThat(captor.getValue().getCurrency()).isEqualTo("USD");
+    assertThat(captor.getValue().getShipping()).isEqualByComparingTo("0.00");
+    assertThat(captor.getValue().getTotal()).isEqualByComparingTo("0.00");
+    verifyNoMoreInteractions(shoppingCartRepository);
+  }
+
+  @Test
+  void readForUser_shouldResolveCartIdFromCacheAfterFirstLookup() {
+    UUID userId = UUID.randomUUID();
+    UUID cartId = UUID.randomUUID();
+    when(shoppingCartRepository.findIdByUserId(userId)).thenReturn(Optional.of(cartId));
+
+    assertThat(shoppingCartService.<UUID>readForUser(userId, id -> id)).isEqualTo(cartId);
+    assertThat(shoppingCartService.<UUID>readForUser(userId, id -> id)).isEqualTo(cartId);
+
+    verify(shoppingCartRepository, times(1)).findIdByUserId(userId);
+    when(shoppingCartRepository.deleteCartById(cartId)).thenReturn(1);
+    shoppingCartService.delete(cartId, null);
+    assertThat(userCartCache.find(userId)).isEmpty();
+  }
+
+  @Test
+  void readForUser_shouldLookUpAgainWhenCachedCartIsGone() {
+    UUID userId = UUID.randomUUID();
+    UUID deletedId = UUID.randomUUID();
+    UUID currentId = UUID.randomUUID();
+    userCartCache.put(userId, deletedId);
+    when(shoppingCartRepository.findIdByUserId(userId)).thenReturn(Optional.of(currentId));
+
+    UUID read = shoppingCartService.readForUser(userId, id -> {
+      if (id.equals(deletedId)) {
+        throw new EntityNotFoundException("Shopping cart not found: " + id);
+      }
+      return id;
+    });
+
+    assertThat(read).isEqualTo(currentId);
+    assertThat(userCartCache.find(userId)).contains(currentId);
+  }
+
   @Test
   void get_shouldReturnCart() {
     UUID cartId = UUID.randomUUID();
     ShoppingCart cart = buildCart(cartId);
-    when(shoppingCartRepository.findById(cartId)).thenReturn(Optional.of(cart));
+    when(shoppingCartRepository.findAggregateById(cartId)).thenReturn(Optional.of(cart));
 
     ShoppingCartDto.Response response = shoppingCartService.get(cartId);
 
     assertThat(response.id()).isEqualTo(cartId);
     assertThat(response.items()).hasSize(1);
     assertThat(response.discounts()).hasSize(1);
+    verify(shoppingCartRepository).findAggregateById(cartId);
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void list_shouldReturnCursorWhenMorePagesExist() {
+    ShoppingCart first = buildCart(UUID.randomUUID());
+    ShoppingCart second = buildCart(UUID.randomUUID());
+    ReflectionTestUtils.setField(first, "updatedAt", Instant.parse("2025-10-03T00:25:40Z"));
+    when(shoppingCartRepository.findFirstPage(2)).thenReturn(List.of(first, second));
+
+    ShoppingCartDto.PageResponse page = shoppingCartService.list(null, 1);
+
+    assertThat(page.items()).extracting(ShoppingCartDto.Response::id).containsExactly(first.getId());
+    assertThat(page.nextCursor()).isNotNull();
+    verify(shoppingCartRepository).fetchItems(List.of(first.getId()));
+    verify(shoppingCartRepository).fetchDiscounts(List.of(first.getId()));
+    verify(shoppingCartRepository).findFirstPage(2);
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void list_shouldResumeAfterCursorAndClampPageSize() {
+    Instant updatedAt = Instant.parse("2025-10-03T00:25:40.123456Z");
+    UUID boundaryId = UUID.randomUUID();
+    String cursor = new ShoppingCartCursor(updatedAt, boundaryId).encode();
+    when(shoppingCartRepository.findPageAfter(updatedAt, boundaryId, 201)).thenReturn(List.of());
+
+    ShoppingCartDto.PageResponse page = shoppingCartService.list(cursor, 10_000);
+
+    assertThat(page.items()).isEmpty();
+    assertThat(page.nextCursor()).isNull();
+  }
+
+  @Test
+  void listSummaries_shouldPageWithCartCursor() {
+    ShoppingCartDto.Summary first = summary(Instant.parse("2025-10-03T00:25:40.123456Z"));
+    ShoppingCartDto.Summary second = summary(Instant.parse("2025-10-03T00:20:00Z"));
+    when(summaryRepository.findFirstPage(2)).thenReturn(List.of(first, second));
+
+    ShoppingCartDto.SummaryPageResponse page = shoppingCartService.listSummaries(null, 1);
+
+    assertThat(page.items()).containsExactly(first);
+    assertThat(ShoppingCartCursor.decode(page.nextCursor()))
+        .isEqualTo(new ShoppingCartCursor(first.updatedAt(), first.id()));
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void export_shouldFetchChildrenAndClearContextPerChunk() {
+    int size = ShoppingCartRepository.STREAM_FETCH_SIZE + 1;
+    List<ShoppingCart> carts = IntStream.range(0, size).mapToObj(i -> buildCart(UUID.randomUUID())).toList();
+    when(shoppingCartRepository.streamAll()).thenReturn(carts.stream());
+    List<UUID> exported = new ArrayList<>();
+
+    long count = shoppingCartService.export(cart -> exported.add(cart.id()));
+
+    assertThat(count).isEqualTo(size);
+    assertThat(exported).containsExactlyElementsOf(carts.stream().map(ShoppingCart::getId).toList());
+    List<UUID> firstChunk = exported.subList(0, ShoppingCartRepository.STREAM_FETCH_SIZE);
+    verify(shoppingCartRepository).fetchItems(firstChunk);
+    verify(shoppingCartRepository).fetchDiscounts(firstChunk);
+    verify(shoppingCartRepository).fetchItems(List.of(exported.get(size - 1)));
+    verify(shoppingCartRepository).fetchDiscounts(List.of(exported.get(size - 1)));
+    verify(shoppingCartRepository).streamAll();
+    verify(entityManager, times(2)).clear();
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void list_shouldRejectMalformedCursor() {
+    assertThatThrownBy(() -> shoppingCartService.list("not-a-cursor", null))
+        .isInstanceOf(InvalidCursorException.class);
+  }
+
+  @Test
+  void addItem_shouldUpsertLineAndRecomputeTotals() {
+    UUID cartId = UUID.randomUUID();
+    ShoppingCartDto.AddItemRequest request = new ShoppingCartDto.AddItemRequest();
+    request.setName("Keyboard");
+    request.setQuantity(2);
+    request.setUnitPrice(BigDecimal.valueOf(50));
+    request.setCurrency("usd");
+    ShoppingCartDto.Totals totals = new ShoppingCartDto.Totals(cartId, BigDecimal.valueOf(100), BigDecimal.ZERO,
+        BigDecimal.ZERO, BigDecimal.valueOf(100), "USD", Instant.now(), 1L);
+    when(lineItemRepository.lockCart(cartId)).thenReturn(Optional.of("USD"));
+    when(lineItemRepository.recomputeTotals(cartId, new BigDecimal("0.10"), 2, new BigDecimal("5.00")))
+        .thenReturn(totals);
+
+    ShoppingCartDto.Totals result = shoppingCartService.addItem(cartId, "SKU-1", request);
+
+    assertThat(result).isEqualTo(totals);
+    verify(lineItemRepository).upsertItem(cartId, "SKU-1", "Keyboard", 2, new BigDecimal("50.00"),
+        new BigDecimal("100.00"), "USD");
+    verify(lineItemRepository).lockCart(cartId);
+    verify(lineItemRepository).recomputeTotals(cartId, new BigDecimal("0.10"), 2, new BigDecimal("5.00"));
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void addItem_shouldRejectUnitPriceFinerThanMinorUnitBeforeWriting() {
+    UUID cartId = UUID.randomUUID();
+    ShoppingCartDto.AddItemRequest request = new ShoppingCartDto.AddItemRequest();
+    request.setName("Keyboard");
+    request.setQuantity(3);
+    request.setUnitPrice(new BigDecimal("1.005"));
+    request.setCurrency("USD");
+
+    assertThatThrownBy(() -> shoppingCartService.addItem(cartId, "SKU-1", request))
+        .isInstanceOf(InvalidAmountException.class)
+        .hasMessageContaining("unitPrice 1.005 has more than 2 decimal places");
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void addItem_shouldRejectLineTotalTooLargeToStoreBeforeWriting() {
+    UUID cartId = UUID.randomUUID();
+    ShoppingCartDto.AddItemRequest request = new ShoppingCartDto.AddItemRequest();
+    request.setName("Keyboard");
+    request.setQuantity(Integer.MAX_VALUE);
+    request.setUnitPrice(new BigDecimal("9999999999.99"));
+    request.setCurrency("USD");
+
+    assertThatThrownBy(() -> shoppingCartService.addItem(cartId, "SKU-1", request))
+        .isInstanceOf(InvalidAmountException.class)
+        .hasMessageContaining("Amount from quantity exceeds the largest storable amount 9999999999.99");
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void addItem_shouldRejectCurrencyMismatch() {
+    UUID cartId = UUID.randomUUID();
+    ShoppingCartDto.AddItemRequest request = new ShoppingCartDto.AddItemRequest();
+    request.setName("Keyboard");
+    request.setQuantity(1);
+    request.setUnitPrice(BigDecimal.ONE);
+    request.setCurrency("EUR");
+    when(lineItemRepository.lockCart(cartId)).thenReturn(Optional.of("USD"));
+
+    assertThatThrownBy(() -> shoppingCartService.addItem(cartId, "SKU-1", request))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("does not match cart currency");
+  }
+
+  @Test
+  void removeItem_shouldFailWhenLineMissing() {
+    UUID cartId = UUID.randomUUID();
+    when(lineItemRepository.lockCart(cartId)).thenReturn(Optional.of("USD"));
+    when(lineItemRepository.deleteItem(cartId, "SKU-404")).thenReturn(0);
+
+    assertThatThrownBy(() -> shoppingCartService.removeItem(cartId, "SKU-404"))
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  void update_shouldRetryOptimisticLockingConflict() {
+    UUID cartId = UUID.randomUUID();
+    when(shoppingCartRepository.findAggregateById(cartId)).thenReturn(Optional.of(buildCart(cartId)));
+    when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(ShoppingCart.class, cartId))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    ShoppingCartDto.Response response = shoppingCartService.update(cartId, updateRequest(), null);
+
+    assertThat(response.id()).isEqualTo(cartId);
+    verify(shoppingCartRepository, times(2)).findAggregateById(cartId);
+    assertThat(meterRegistry.get("shopping.cart.optimistic.conflicts").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("shopping.cart.optimistic.retries").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void update_shouldGiveUpAfterMaxAttempts() {
+    UUID cartId = UUID.randomUUID();
+    when(shoppingCartRepository.findAggregateById(cartId)).thenReturn(Optional.of(buildCart(cartId)));
+    when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(ShoppingCart.class, cartId));
+
+    assertThatThrownBy(() -> shoppingCartService.update(cartId, updateRequest(), null))
+        .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+    verify(shoppingCartRepository, times(3)).saveAndFlush(any(ShoppingCart.class));
+    assertThat(meterRegistry.get("shopping.cart.optimistic.retries.exhausted").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void update_shouldRejectStaleIfMatchWithoutWriting() {
+    UUID cartId = UUID.randomUUID();
+    when(shoppingCartRepository.findAggregateById(cartId)).thenReturn(Optional.of(buildCart(cartId)));
+
+    assertThatThrownBy(() -> shoppingCartService.update(cartId, updateRequest(), 5L))
+        .isInstanceOf(CartVersionMismatchException.class);
+
+    verify(shoppingCartRepository, never()).saveAndFlush(any(ShoppingCart.class));
+    assertThat(meterRegistry.get("shopping.cart.precondition.failures").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void update_shouldNotRetryConditionalUpdateThatLosesRace() {
+    UUID cartId = UUID.randomUUID();
+    when(shoppingCartRepository.findAggregateById(cartId)).thenReturn(Optional.of(buildCart(cartId)));
+    when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(ShoppingCart.class, cartId));
+
+    assertThatThrownBy(() -> shoppingCartService.update(cartId, updateRequest(), 0L))
+        .isInstanceOf(CartVersionMismatchException.class);
+
+    verify(shoppingCartRepository, times(1)).saveAndFlush(any(ShoppingCart.class));
+  }
+
+  @Test
+  void update_shouldEvictBufferedResponseWhenItsFlushIsDropped() {
+    UUID cartId = UUID.randomUUID();
+    AppProperties properties = new AppProperties();
+    properties.getWriteBehind().setEnabled(true);
+    properties.getWriteBehind().setWindow(Duration.ofHours(1));
+    ShoppingCartResponseCache responseCache =
+        new ShoppingCartResponseCache(properties, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+    ShoppingCartService writeBehindService = new ShoppingCartService(shoppingCartRepository, lineItemRepository,
+        summaryRepository, userCartRepository, properties, responseCache, userCartCache,
+        new ShoppingCartPricing(properties), transactionManager, meterRegistry, entityManager);
+    when(shoppingCartRepository.findAggregateById(cartId)).thenAnswer(invocation -> Optional.of(buildCart(cartId)));
+    when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
+        .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+    ShoppingCartDto.UpdateRequest request = updateRequest();
+    request.getItems().get(0).setQuantity(2);
+
+    assertThat(writeBehindService.update(cartId, request, null).version()).isEqualTo(1);
+    assertThat(responseCache.get(cartId, writeBehindService::get).version()).isEqualTo(1);
+
+    writeBehindService.flushPendingWrites();
+
+    assertThat(responseCache.get(cartId, writeBehindService::get).version()).isZero();
+    assertThat(meterRegistry.get("shopping.cart.write.behind.dropped").counter().count()).isEqualTo(1);
   }
 
   @Test
   void delete_shouldRemoveCart() {
     UUID cartId = UUID.randomUUID();
-    ShoppingCart cart = buildCart(cartId);
-    when(shoppingCartRepository.findById(cartId)).thenReturn(Optional.of(cart));
-    doNothing().when(shoppingCartRepository).delete(cart);
+    when(shoppingCartRepository.deleteCartById(cartId)).thenReturn(1);
+
+    shoppingCartService.delete(cartId, null);
+
+    verify(shoppingCartRepository).deleteCartById(cartId);
+    verifyNoMoreInteractions(shoppingCartRepository, lineItemRepository);
+  }
+
+  @Test
+  void delete_shouldFailWhenCartMissing() {
+    UUID cartId = UUID.randomUUID();
+    when(shoppingCartRepository.deleteCartById(cartId)).thenReturn(0);
+
+    assertThatThrownBy(() -> shoppingCartService.delete(cartId, null))
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  void delete_shouldFailPreconditionWhenVersionMoved() {
+    UUID cartId = UUID.randomUUID();
+    when(shoppingCartRepository.deleteCartByIdAndVersion(cartId, 1L)).thenReturn(0);
+    when(shoppingCartRepository.findVersionById(cartId)).thenReturn(Optional.of(2L));
+
+    assertThatThrownBy(() -> shoppingCartService.delete(cartId, 1L))
+        .isInstanceOf(CartVersionMismatchException.class);
 
-    shoppingCartService.delete(cartId);
+    verify(shoppingCartRepository, never()).deleteCartById(cartId);
+  }
+
+  private static ShoppingCartDto.UpdateRequest updateRequest() {
+    ShoppingCartDto.UpdateRequest request = new ShoppingCartDto.UpdateRequest();
+    request.setCurrency("USD");
+    ShoppingCartDto.ItemPayload item = new ShoppingCartDto.ItemPayload();
+    item.setProductId("SKU-1");
+    item.setName("Keyboard");
+    item.setQuantity(1);
+    item.setUnitPrice(BigDecimal.valueOf(100));
+    item.setCurrency("USD");
+    request.setItems(List.of(item));
+    request.setDiscounts(List.of());
+    return request;
+  }
 
-    verify(shoppingCartRepository).delete(cart);
+  private static ShoppingCartDto.Summary summary(Instant updatedAt) {
+    return new ShoppingCartDto.Summary(UUID.randomUUID(), UUID.randomUUID(), 2, BigDecimal.valueOf(30),
+        BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.valueOf(29), "USD", updatedAt, updatedAt, 0L);
   }
 
   private ShoppingCart buildCart(UUID id) {
@@ -0,0 +1,115 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartSweeperTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartSweeperTests
+ * Description: Unit tests for the batched, throttled expired-cart sweeper.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Unit tests for {@link ShoppingCartSweeper}.
+ */
+class ShoppingCartSweeperTests {
+
+  private static final Instant CUTOFF = Instant.parse("2026-01-01T00:00:00Z");
+
+  private ShoppingCartExpiryRepository expiryRepository;
+  private ShoppingCartResponseCache responseCache;
+  private UserCartIdCache userCartCache;
+  private AppProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+  private ShoppingCartSweeper sweeper;
+
+  @BeforeEach
+  void setUp() {
+    expiryRepository = mock(ShoppingCartExpiryRepository.class);
+    responseCache = mock(ShoppingCartResponseCache.class);
+    userCartCache = mock(UserCartIdCache.class);
+    properties = new AppProperties();
+    properties.getCartTtl().setBatchSize(2);
+    properties.getCartTtl().setRowsPerSecond(1_000_000);
+    meterRegistry = new SimpleMeterRegistry();
+    sweeper = new ShoppingCartSweeper(expiryRepository, responseCache, userCartCache, properties, meterRegistry);
+  }
+
+  @Test
+  void sweep_shouldWalkBatchesFromLastDeletedCartUntilShortBatch() {
+    ShoppingCartExpiryRepository.PurgedCart first = purged(1);
+    ShoppingCartExpiryRepository.PurgedCart second = purged(2);
+    ShoppingCartExpiryRepository.PurgedCart third = purged(3);
+    when(expiryRepository.deleteFirstBatch(CUTOFF, 2)).thenReturn(List.of(first, second));
+    when(expiryRepository.deleteBatchAfter(CUTOFF, second, 2)).thenReturn(List.of(third));
+
+    assertThat(sweeper.sweep(CUTOFF)).isEqualTo(3);
+
+    verify(expiryRepository).deleteFirstBatch(CUTOFF, 2);
+    verify(expiryRepository).deleteBatchAfter(CUTOFF, second, 2);
+    verifyNoMoreInteractions(expiryRepository);
+    verify(responseCache).invalidate(first.id());
+    verify(responseCache).invalidate(second.id());
+    verify(responseCache).invalidate(third.id());
+    verify(userCartCache).invalidateCart(third.id());
+    assertThat(meterRegistry.get("shopping.cart.sweeper.purged").counter().count()).isEqualTo(3);
+    assertThat(meterRegistry.get("shopping.cart.sweeper.duration").tag("outcome", "success").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void sweep_shouldRecordFailedSweep() {
+    when(expiryRepository.deleteFirstBatch(CUTOFF, 2)).thenThrow(new DataAccessResourceFailureException("down"));
+
+    assertThatThrownBy(() -> sweeper.sweep(CUTOFF)).isInstanceOf(DataAccessResourceFailureException.class);
+
+    verifyNoInteractions(responseCache, userCartCache);
+    assertThat(meterRegistry.get("shopping.cart.sweeper.purged").counter().count()).isZero();
+    assertThat(meterRegistry.get("shopping.cart.sweeper.duration").tag("outcome", "error").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void pauseNanos_shouldSpreadBatchesToTargetRate() {
+    assertThat(ShoppingCartSweeper.pauseNanos(500, 0, 1000)).isEqualTo(500_000_000L);
+    assertThat(ShoppingCartSweeper.pauseNanos(500, 200_000_000L, 1000)).isEqualTo(300_000_000L);
+    assertThat(ShoppingCartSweeper.pauseNanos(500, 900_000_000L, 1000)).isZero();
+  }
+
+  @Test
+  void configureTasks_shouldScheduleOnlyWhenEnabled() {
+    ScheduledTaskRegistrar disabled = new ScheduledTaskRegistrar();
+    sweeper.configureTasks(disabled);
+    assertThat(disabled.getFixedDelayTaskList()).isEmpty();
+
+    properties.getCartTtl().setEnabled(true);
+    ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+    new ShoppingCartSweeper(expiryRepository, responseCache, userCartCache, properties, meterRegistry)
+        .configureTasks(registrar);
+    assertThat(registrar.getFixedDelayTaskList()).hasSize(1);
+  }
+
+  private static ShoppingCartExpiryRepository.PurgedCart purged(long seconds) {
+    return new ShoppingCartExpiryRepository.PurgedCart(UUID.randomUUID(), Instant.EPOCH.plusSeconds(seconds));
+  }
+}
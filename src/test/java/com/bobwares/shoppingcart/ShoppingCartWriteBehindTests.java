@@ -0,0 +1,245 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: ShoppingCartWriteBehindTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartWriteBehindTests
+ * Description: Unit tests for coalescing, read-your-writes and flushing of buffered cart updates.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bobwares.shoppingcart.api.ShoppingCartDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for {@link ShoppingCartWriteBehind}.
+ */
+class ShoppingCartWriteBehindTests {
+
+  private final List<Flush> flushes = new CopyOnWriteArrayList<>();
+  private final List<UUID> dropped = new CopyOnWriteArrayList<>();
+  private final AtomicInteger loads = new AtomicInteger();
+  private SimpleMeterRegistry meterRegistry;
+  private ShoppingCartWriteBehind writeBehind;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    writeBehind = newWriteBehind(Duration.ofHours(1), 10);
+  }
+
+  @AfterEach
+  void tearDown() {
+    writeBehind.close();
+  }
+
+  @Test
+  void buffer_shouldCoalesceUpdatesIntoOneFlushOfTheLastState() {
+    UUID cartId = UUID.randomUUID();
+    ShoppingCartDto.UpdateRequest first = request(BigDecimal.ONE);
+    ShoppingCartDto.UpdateRequest second = request(BigDecimal.TEN);
+
+    ShoppingCartDto.Response afterFirst = writeBehind.buffer(cartId, first, this::load, total(1)).orElseThrow();
+    ShoppingCartDto.Response afterSecond = writeBehind.buffer(cartId, second, this::load, total(10)).orElseThrow();
+
+    assertThat(afterFirst.version()).isEqualTo(4);
+    assertThat(afterSecond.version()).isEqualTo(5);
+    assertThat(loads).hasValue(1);
+    assertThat(flushes).isEmpty();
+
+    writeBehind.flush(cartId);
+
+    assertThat(flushes).containsExactly(new Flush(cartId, second, 5));
+    assertThat(writeBehind.find(cartId)).isEmpty();
+    assertThat(meterRegistry.get("shopping.cart.write.behind.buffered").counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("shopping.cart.write.behind.flushes").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void find_shouldServeBufferedStateUntilFlushed() {
+    UUID cartId = UUID.randomUUID();
+    writeBehind.buffer(cartId, request(BigDecimal.TEN), this::load, total(10));
+
+    assertThat(writeBehind.find(cartId)).hasValueSatisfying(response ->
+        assertThat(response.total()).isEqualByComparingTo("10"));
+    assertThat(writeBehind.findVersion(cartId)).contains(4L);
+    assertThat(writeBehind.findSummary(cartId)).hasValueSatisfying(summary ->
+        assertThat(summary.version()).isEqualTo(4));
+    assertThat(writeBehind.find(UUID.randomUUID())).isEmpty();
+    assertThat(meterRegistry.get("shopping.cart.write.behind.pending").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  void buffer_shouldFlushWhenWindowCloses() throws Exception {
+    replaceWriteBehind();
+    CountDownLatch flushed = new CountDownLatch(1);
+    writeBehind = new ShoppingCartWriteBehind(Duration.ofMillis(20), 10, 1, 5, (id, request, version) -> {
+      flushes.add(new Flush(id, request, version));
+      flushed.countDown();
+    }, dropped::add, meterRegistry);
+    UUID cartId = UUID.randomUUID();
+
+    writeBehind.buffer(cartId, request(BigDecimal.ONE), this::load, total(1));
+
+    assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(flushes).singleElement().satisfies(flush -> assertThat(flush.version()).isEqualTo(4));
+  }
+
+  @Test
+  void close_shouldFlushEveryBufferedCart() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    writeBehind.buffer(first, request(BigDecimal.ONE), this::load, total(1));
+    writeBehind.buffer(second, request(BigDecimal.ONE), this::load, total(1));
+
+    writeBehind.close();
+
+    assertThat(flushes).extracting(Flush::id).containsExactlyInAnyOrder(first, second);
+  }
+
+  @Test
+  void buffer_shouldDeclineWhenFull() {
+    replaceWriteBehind();
+    writeBehind = newWriteBehind(Duration.ofHours(1), 1);
+    UUID buffered = UUID.randomUUID();
+    writeBehind.buffer(buffered, request(BigDecimal.ONE), this::load, total(1));
+
+    assertThat(writeBehind.buffer(UUID.randomUUID(), request(BigDecimal.ONE), this::load, total(1))).isEmpty();
+    assertThat(writeBehind.buffer(buffered, request(BigDecimal.TEN), this::load, total(10))).isPresent();
+  }
+
+  @Test
+  void buffer_shouldFlushAcceptedUpdateWhenLaterOneIsRejected() {
+    UUID cartId = UUID.randomUUID();
+    ShoppingCartDto.UpdateRequest accepted = request(BigDecimal.ONE);
+    writeBehind.buffer(cartId, accepted, this::load, total(1));
+
+    assertThatThrownBy(() -> writeBehind.buffer(cartId, request(BigDecimal.TEN), this::load, cart -> {
+      throw new IllegalArgumentException("Duplicate product in cart: SKU-1");
+    })).isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(flushes).containsExactly(new Flush(cartId, accepted, 4));
+    assertThat(writeBehind.find(cartId)).isEmpty();
+  }
+
+  @Test
+  void buffer_shouldPropagateLoadFailureWithoutBuffering() {
+    UUID cartId = UUID.randomUUID();
+
+    assertThatThrownBy(() -> writeBehind.buffer(cartId, request(BigDecimal.ONE), id -> {
+      throw new EntityNotFoundException("Shopping cart not found: " + id);
+    }, total(1))).isInstanceOf(EntityNotFoundException.class);
+
+    assertThat(writeBehind.find(cartId)).isEmpty();
+    writeBehind.flush(cartId);
+    assertThat(flushes).isEmpty();
+  }
+
+  @Test
+  void flush_shouldKeepFailedUpdateBufferedAndRetryIt() throws Exception {
+    replaceWriteBehind();
+    AtomicInteger attempts = new AtomicInteger();
+    CountDownLatch flushed = new CountDownLatch(1);
+    writeBehind = new ShoppingCartWriteBehind(Duration.ofMillis(20), 10, 1, 5, (id, request, version) -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new QueryTimeoutException("canceling statement due to statement timeout");
+      }
+      flushes.add(new Flush(id, request, version));
+      flushed.countDown();
+    }, dropped::add, meterRegistry);
+    UUID cartId = UUID.randomUUID();
+    ShoppingCartDto.UpdateRequest update = request(BigDecimal.TEN);
+    writeBehind.buffer(cartId, update, this::load, total(10));
+
+    assertThatThrownBy(() -> writeBehind.flush(cartId)).isInstanceOf(QueryTimeoutException.class);
+    assertThat(writeBehind.find(cartId)).hasValueSatisfying(response ->
+        assertThat(response.total()).isEqualByComparingTo("10"));
+
+    assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(flushes).containsExactly(new Flush(cartId, update, 4));
+    assertThat(writeBehind.find(cartId)).isEmpty();
+    assertThat(meterRegistry.get("shopping.cart.write.behind.failures").counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("shopping.cart.write.behind.dropped").counter().count()).isZero();
+    assertThat(dropped).isEmpty();
+  }
+
+  @Test
+  void flush_shouldDropUpdateAfterMaxAttempts() {
+    replaceWriteBehind();
+    writeBehind = new ShoppingCartWriteBehind(Duration.ofHours(1), 10, 1, 2, (id, request, version) -> {
+      throw new QueryTimeoutException("canceling statement due to statement timeout");
+    }, dropped::add, meterRegistry);
+    UUID cartId = UUID.randomUUID();
+    writeBehind.buffer(cartId, request(BigDecimal.ONE), this::load, total(1));
+
+    assertThatThrownBy(() -> writeBehind.flush(cartId)).isInstanceOf(QueryTimeoutException.class);
+    assertThat(writeBehind.findVersion(cartId)).contains(4L);
+    assertThatThrownBy(() -> writeBehind.flush(cartId)).isInstanceOf(QueryTimeoutException.class);
+
+    assertThat(writeBehind.find(cartId)).isEmpty();
+    assertThat(meterRegistry.get("shopping.cart.write.behind.dropped").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("shopping.cart.write.behind.pending").gauge().value()).isZero();
+    assertThat(dropped).containsExactly(cartId);
+  }
+
+  /**
+   * Closes the buffer of {@link #setUp()} before a test builds its own. The new buffer gets a fresh registry: the
+   * pending gauge holds its map weakly, and re-registering it would keep reading the closed buffer's map.
+   */
+  private void replaceWriteBehind() {
+    writeBehind.close();
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  private ShoppingCartWriteBehind newWriteBehind(Duration window, int maxPendingCarts) {
+    return new ShoppingCartWriteBehind(window, maxPendingCarts, 1, 5,
+        (id, request, version) -> flushes.add(new Flush(id, request, version)), dropped::add, meterRegistry);
+  }
+
+  private ShoppingCart load(UUID id) {
+    loads.incrementAndGet();
+    ShoppingCart cart = new ShoppingCart();
+    cart.setId(id);
+    cart.setUserId(UUID.randomUUID());
+    cart.setCurrency("USD");
+    ReflectionTestUtils.setField(cart, "version", 3L);
+    return cart;
+  }
+
+  private static Consumer<ShoppingCart> total(long total) {
+    return cart -> cart.setTotal(BigDecimal.valueOf(total));
+  }
+
+  private static ShoppingCartDto.UpdateRequest request(BigDecimal total) {
+    ShoppingCartDto.UpdateRequest request = new ShoppingCartDto.UpdateRequest();
+    request.setCurrency("USD");
+    request.setTotal(total);
+    request.setItems(List.of());
+    request.setDiscounts(List.of());
+    return request;
+  }
+
+  private record Flush(UUID id, ShoppingCartDto.UpdateRequest request, long version) {
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart
+ * File: UserCartIdCacheTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: UserCartIdCacheTests
+ * Description: Unit tests covering loads of the user-to-cart id cache that race with invalidations.
+ */
+package com.bobwares.shoppingcart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link UserCartIdCache}.
+ */
+class UserCartIdCacheTests {
+
+  private UserCartIdCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new UserCartIdCache(new AppProperties(), new SimpleMeterRegistry());
+  }
+
+  @Test
+  void get_shouldCacheCartIdLoadedConcurrentlyWithInvalidationOfAnotherUser() {
+    UUID userId = UUID.randomUUID();
+    UUID cartId = UUID.randomUUID();
+    UUID otherUser = UUID.randomUUID();
+    UUID otherCart = UUID.randomUUID();
+    cache.put(otherUser, otherCart);
+
+    cache.get(userId, user -> {
+      cache.invalidateUser(otherUser);
+      cache.invalidateCart(UUID.randomUUID());
+      return Optional.of(cartId);
+    });
+
+    assertThat(cache.find(userId)).contains(cartId);
+    assertThat(cache.find(otherUser)).isEmpty();
+  }
+
+  @Test
+  void get_shouldDiscardCartIdLoadedConcurrentlyWithInvalidationOfTheSameUser() {
+    UUID userId = UUID.randomUUID();
+
+    Optional<UUID> loaded = cache.get(userId, user -> {
+      cache.invalidateUser(user);
+      return Optional.of(UUID.randomUUID());
+    });
+
+    assertThat(loaded).isPresent();
+    assertThat(cache.find(userId)).isEmpty();
+  }
+
+  @Test
+  void invalidateCart_shouldDropTheOwnersEntry() {
+    UUID userId = UUID.randomUUID();
+    UUID cartId = UUID.randomUUID();
+    cache.put(userId, cartId);
+
+    cache.invalidateCart(cartId);
+
+    assertThat(cache.find(userId)).isEmpty();
+  }
+}
@@ -15,22 +15,60 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.bobwares.shoppingcart.IdempotencyKeyRepository;
+import com.bobwares.shoppingcart.IdempotentResponseStore;
+import com.bobwares.shoppingcart.ShoppingCartRepository;
+import com.bobwares.shoppingcart.ShoppingCartSweeper;
+import com.bobwares.shoppingcart.config.AppProperties;
+import com.bobwares.shoppingcart.support.SqlStatementCounter;
+import com.bobwares.shoppingcart.support.SqlStatementCountingConfiguration;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -44,6 +82,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
  */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@Import(SqlStatementCountingConfiguration.class)
 @Testcontainers
 class ShoppingCartControllerIT {
 
@@ -56,6 +96,24 @@ class ShoppingCartControllerIT {
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ShoppingCartSweeper sweeper;
+
+  @Autowired
+  private IdempotencyKeyRepository idempotencyKeyRepository;
+
+  @Autowired
+  private AppProperties appProperties;
+
+  @LocalServerPort
+  private int port;
+
   @DynamicPropertySource
   static void registerProperties(DynamicPropertyRegistry registry) {
     registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
@@ -64,6 +122,10 @@ class ShoppingCartControllerIT {
     registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
     registry.add("spring.jpa.properties.hibernate.default_schema", () -> "shopping_cart");
     registry.add("spring.datasource.hikari.maximum-pool-size", () -> "2");
+    registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    registry.add("app.default-tax-rate", () -> "0.10");
+    registry.add("app.default-shipping-cost", () -> "5.00");
+    registry.add("app.cart-ttl.batch-size", () -> "2");
   }
 
   @Test
@@ -72,9 +134,9 @@ class ShoppingCartControllerIT {
     Map<String, Object> createPayload = Map.of(
         "userId", userId,
         "subtotal", BigDecimal.valueOf(120.00),
-        "tax", BigDecimal.valueOf(10.00),
+        "tax", BigDecimal.valueOf(11.50),
         "shipping", BigDecimal.valueOf(5.00),
-        "total", BigDecimal.valueOf(135.00),
+        "total", BigDecimal.valueOf(131.50),
         "currency", "USD",
         "items", List.of(Map.of(
             "productId", "SKU-100",
@@ -105,11 +167,12 @@ class ShoppingCartControllerIT {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.userId").value(userId.toString()));
 
+    mockMvc.perform(get("/api/shopping-carts").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].items[0].productId", notNullValue()));
+
     Map<String, Object> updatePayload = Map.of(
-        "subtotal", BigDecimal.valueOf(110.00),
-        "tax", BigDecimal.valueOf(8.00),
-        "shipping", BigDecimal.valueOf(4.00),
-        "total", BigDecimal.valueOf(122.00),
         "currency", "USD",
         "items", List.of(Map.of(
             "productId", "SKU-101",
@@ -122,10 +185,27 @@ class ShoppingCartControllerIT {
         "discounts", List.of()
     );
 
+    Map<String, Object> mispricedPayload = new HashMap<>(updatePayload);
+    mispricedPayload.put("total", BigDecimal.valueOf(122.00));
+    mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(mispricedPayload)))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.errors.total").value("expected 93.00"));
+
     mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(updatePayload)))
         .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].productId").value("SKU-101"))
+        .andExpect(jsonPath("$.subtotal").value(80.00))
+        .andExpect(jsonPath("$.tax").value(8.00))
+        .andExpect(jsonPath("$.shipping").value(5.00))
+        .andExpect(jsonPath("$.total").value(93.00));
+
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
         .andExpect(jsonPath("$.items[0].productId").value("SKU-101"));
 
     mockMvc.perform(delete("/api/shopping-carts/{id}", cartId))
@@ -134,4 +214,938 @@ class ShoppingCartControllerIT {
     mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
         .andExpect(status().isNotFound());
   }
+
+  @Test
+  void shouldLoadCartAggregateWithoutCartesianProduct() throws Exception {
+    Map<String, Object> createPayload = Map.of(
+        "userId", UUID.randomUUID(),
+        "currency", "USD",
+        "items", List.of(
+            Map.of("productId", "SKU-A", "name", "Cable", "quantity", 1,
+                "unitPrice", BigDecimal.valueOf(20.00), "currency", "USD"),
+            Map.of("productId", "SKU-B", "name", "Adapter", "quantity", 2,
+                "unitPrice", BigDecimal.valueOf(20.00), "currency", "USD")),
+        "discounts", List.of(
+            Map.of("code", "SAVE1", "amount", BigDecimal.ONE),
+            Map.of("code", "SAVE2", "amount", BigDecimal.ONE))
+    );
+    MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(createPayload)))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String cartId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(2))
+          .andExpect(jsonPath("$.discounts.length()").value(2));
+      sql.assertCount(2);
+
+      sql.reset();
+      mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(2));
+      sql.assertCount(0);
+
+      sql.reset();
+      mockMvc.perform(delete("/api/shopping-carts/{id}", cartId))
+          .andExpect(status().isNoContent());
+      sql.assertCount(1);
+    }
+  }
+
+  @Test
+  void shouldChangeSingleLinesWithoutRewritingCart() throws Exception {
+    MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(Map.of("productId", "SKU-A", "name", "Cable", "quantity", 1,
+                    "unitPrice", BigDecimal.valueOf(20.00), "currency", "USD"))
+            ))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String cartId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+    Map<String, Object> addPayload = Map.of("name", "Adapter", "quantity", 1,
+        "unitPrice", BigDecimal.valueOf(7.50), "currency", "USD");
+
+    mockMvc.perform(post("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-B")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(addPayload)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.subtotal").value(27.50))
+        .andExpect(jsonPath("$.tax").value(2.75))
+        .andExpect(jsonPath("$.total").value(35.25));
+
+    mockMvc.perform(post("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-B")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(addPayload)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.subtotal").value(35.00));
+
+    mockMvc.perform(patch("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-A")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of("quantity", 3))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.subtotal").value(75.00))
+        .andExpect(jsonPath("$.tax").value(7.50))
+        .andExpect(jsonPath("$.total").value(87.50));
+
+    mockMvc.perform(delete("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-B"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.subtotal").value(60.00));
+
+    mockMvc.perform(delete("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-B"))
+        .andExpect(status().isNotFound());
+
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].quantity").value(3))
+        .andExpect(jsonPath("$.subtotal").value(60.00));
+  }
+
+  @Test
+  void shouldWriteOnlyChangedRowsOnUpdate() throws Exception {
+    List<Map<String, Object>> items = List.of(
+        cartItem("SKU-1", 1, 10.00), cartItem("SKU-2", 1, 20.00), cartItem("SKU-3", 1, 30.00));
+    List<Map<String, Object>> discounts = List.of(Map.of("code", "SAVE1", "amount", BigDecimal.ONE));
+    MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", items,
+                "discounts", discounts))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String cartId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "currency", "USD",
+                "items", List.of(items.get(0), cartItem("SKU-2", 2, 20.00), items.get(2)),
+                "discounts", discounts))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(3));
+
+    assertThat(statistics.getEntityInsertCount()).isZero();
+    assertThat(statistics.getEntityDeleteCount()).isZero();
+    assertThat(statistics.getEntityUpdateCount()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldAnswerConditionalGetFromVersion() throws Exception {
+    MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-A", 1, 20.00))
+            ))))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+        .andReturn();
+    String cartId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+
+    String eTag = mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(0))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(eTag).isEqualTo("\"0\"");
+
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(get("/api/shopping-carts/{id}", cartId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+          .andExpect(status().isNotModified());
+      sql.assertCount(1);
+    }
+
+    mockMvc.perform(post("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-B")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of("name", "Adapter", "quantity", 1,
+                "unitPrice", BigDecimal.valueOf(5.00), "currency", "USD"))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(1));
+
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+        .andExpect(jsonPath("$.items.length()").value(2));
+
+    mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-A", 1, 20.00))
+            ))))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+  }
+
+  @Test
+  void shouldEnforceIfMatchAndResolveConcurrentUpdates() throws Exception {
+    MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-A", 1, 20.00))
+            ))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String cartId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+    String updatePayload = objectMapper.writeValueAsString(Map.of(
+        "currency", "USD",
+        "items", List.of(cartItem("SKU-A", 2, 20.00))
+    ));
+
+    mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(updatePayload))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+    mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(updatePayload))
+        .andExpect(status().isPreconditionFailed());
+
+    mockMvc.perform(delete("/api/shopping-carts/{id}", cartId).header(HttpHeaders.IF_MATCH, "W/\"1\""))
+        .andExpect(status().isPreconditionFailed());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        results.add(executor.submit(() -> mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(updatePayload))
+            .andReturn().getResponse().getStatus()));
+      }
+      for (Future<Integer> result : results) {
+        assertThat(result.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(3));
+
+    mockMvc.perform(delete("/api/shopping-carts/{id}", cartId).header(HttpHeaders.IF_MATCH, "\"2\""))
+        .andExpect(status().isPreconditionFailed());
+    mockMvc.perform(delete("/api/shopping-carts/{id}", cartId).header(HttpHeaders.IF_MATCH, "\"3\""))
+        .andExpect(status().isNoContent());
+  }
+
+  /**
+   * Statement budget per endpoint. A change that adds a query (an N+1 over items or discounts, an extra lookup)
+   * fails here with the issued SQL listed; a change that removes one should lower the budget in the same commit.
+   */
+  @Test
+  void shouldIssueFixedStatementCountPerEndpoint() throws Exception {
+    List<Map<String, Object>> items = List.of(cartItem("SKU-1", 1, 10.00), cartItem("SKU-2", 2, 5.00));
+    List<Map<String, Object>> discounts = List.of(
+        Map.of("code", "SAVE1", "amount", BigDecimal.ONE), Map.of("code", "SAVE2", "amount", BigDecimal.ONE));
+    Map<String, Object> addPayload = Map.of("name", "Adapter", "quantity", 1,
+        "unitPrice", BigDecimal.valueOf(7.50), "currency", "USD");
+
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(Map.of(
+                  "userId", UUID.randomUUID(),
+                  "currency", "USD",
+                  "items", items,
+                  "discounts", discounts))))
+          .andExpect(status().isCreated())
+          .andReturn();
+      sql.assertCount(6);
+      String cartId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+
+      sql.reset();
+      String eTag = mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+      sql.assertCount(2);
+
+      sql.reset();
+      mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+          .andExpect(status().isOk());
+      sql.assertCount(0);
+
+      sql.reset();
+      mockMvc.perform(get("/api/shopping-carts/{id}", cartId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+          .andExpect(status().isNotModified());
+      sql.assertCount(1);
+
+      sql.reset();
+      mockMvc.perform(get("/api/shopping-carts").param("limit", "5"))
+          .andExpect(status().isOk());
+      sql.assertCount(3);
+
+      sql.reset();
+      mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(Map.of(
+                  "currency", "USD",
+                  "items", List.of(items.get(0), cartItem("SKU-2", 3, 5.00)),
+                  "discounts", discounts))))
+          .andExpect(status().isOk());
+      sql.assertCount(4);
+
+      sql.reset();
+      mockMvc.perform(post("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-3")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(addPayload)))
+          .andExpect(status().isOk());
+      sql.assertCount(3);
+
+      sql.reset();
+      mockMvc.perform(patch("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-3")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(Map.of("quantity", 2))))
+          .andExpect(status().isOk());
+      sql.assertCount(3);
+
+      sql.reset();
+      mockMvc.perform(delete("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-3"))
+          .andExpect(status().isOk());
+      sql.assertCount(3);
+
+      sql.reset();
+      mockMvc.perform(delete("/api/shopping-carts/{id}", cartId))
+          .andExpect(status().isNoContent());
+      sql.assertCount(1);
+    }
+  }
+
+  @Test
+  void shouldMaintainSummaryColumnsOnEveryWrite() throws Exception {
+    MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-1", 1, 10.00), cartItem("SKU-2", 2, 5.00)),
+                "discounts", List.of(
+                    Map.of("code", "SAVE1", "amount", BigDecimal.ONE),
+                    Map.of("code", "SAVE2", "amount", BigDecimal.ONE))))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String cartId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText();
+
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(get("/api/shopping-carts/{id}/summary", cartId))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+          .andExpect(jsonPath("$.itemCount").value(2))
+          .andExpect(jsonPath("$.itemTotal").value(20.00))
+          .andExpect(jsonPath("$.discountTotal").value(2.00))
+          .andExpect(jsonPath("$.total").value(24.80));
+      sql.assertCount(1);
+
+      sql.reset();
+      mockMvc.perform(get("/api/shopping-carts/summaries").param("limit", "2"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items.length()").value(2));
+      sql.assertCount(1);
+    }
+
+    mockMvc.perform(post("/api/shopping-carts/{id}/items/{productId}", cartId, "SKU-3")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of("name", "Adapter", "quantity", 1,
+                "unitPrice", BigDecimal.valueOf(7.50), "currency", "USD"))))
+        .andExpect(status().isOk());
+
+    Map<String, Object> row = jdbcTemplate.queryForMap("""
+        SELECT item_count, item_total, discount_total FROM shopping_cart.shopping_cart_summary
+        WHERE shopping_cart_id = ?""", UUID.fromString(cartId));
+    assertThat(row.get("item_count")).isEqualTo(3);
+    assertThat((BigDecimal) row.get("item_total")).isEqualByComparingTo("27.50");
+    assertThat((BigDecimal) row.get("discount_total")).isEqualByComparingTo("2.00");
+
+    mockMvc.perform(get("/api/shopping-carts/{id}/summary", UUID.randomUUID()))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void shouldBackfillSummaryColumnsInChunks() throws Exception {
+    MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-1", 1, 3.00)),
+                "discounts", List.of(Map.of("code", "BIG", "amount", BigDecimal.TEN))))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    UUID cartId = UUID.fromString(
+        objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText());
+    jdbcTemplate.update("""
+        UPDATE shopping_cart.shopping_cart SET item_count = 0, item_total = 0, discount_total = 0
+        WHERE shopping_cart_id = ?""", cartId);
+
+    String backfill = new ClassPathResource("db/migrations/05_shopping_cart_summary_backfill.sql")
+        .getContentAsString(StandardCharsets.UTF_8);
+    jdbcTemplate.execute(backfill);
+
+    Map<String, Object> row = jdbcTemplate.queryForMap("""
+        SELECT item_count, item_total, discount_total, version FROM shopping_cart.shopping_cart
+        WHERE shopping_cart_id = ?""", cartId);
+    assertThat(row.get("item_count")).isEqualTo(1);
+    assertThat((BigDecimal) row.get("item_total")).isEqualByComparingTo("3.00");
+    assertThat((BigDecimal) row.get("discount_total")).isEqualByComparingTo("3.00");
+    assertThat(row.get("version")).isEqualTo(0L);
+  }
+
+  @Test
+  void shouldSweepExpiredCartsWithTheirChildren() throws Exception {
+    List<UUID> expired = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(Map.of(
+                  "userId", UUID.randomUUID(),
+                  "currency", "USD",
+                  "items", List.of(cartItem("SKU-1", 1, 4.00), cartItem("SKU-2", 1, 6.00)),
+                  "discounts", List.of(Map.of("code", "OLD", "amount", BigDecimal.ONE))))))
+          .andExpect(status().isCreated())
+          .andReturn();
+      expired.add(UUID.fromString(
+          objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText()));
+    }
+    MvcResult freshResult = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-1", 1, 4.00))))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String freshId = objectMapper.readTree(freshResult.getResponse().getContentAsString()).get("id").asText();
+    for (int i = 0; i < expired.size(); i++) {
+      jdbcTemplate.update("UPDATE shopping_cart.shopping_cart SET updated_at = ? WHERE shopping_cart_id = ?",
+          Timestamp.from(Instant.parse("2001-01-01T00:00:00Z").plusSeconds(i)), expired.get(i));
+    }
+    mockMvc.perform(get("/api/shopping-carts/{id}", expired.get(0))).andExpect(status().isOk());
+
+    assertThat(sweeper.sweep(Instant.parse("2002-01-01T00:00:00Z"))).isEqualTo(5);
+
+    for (UUID id : expired) {
+      assertThat(jdbcTemplate.queryForObject("""
+          SELECT (SELECT COUNT(*) FROM shopping_cart.shopping_cart WHERE shopping_cart_id = ?)
+               + (SELECT COUNT(*) FROM shopping_cart.shopping_cart_item WHERE shopping_cart_id = ?)
+               + (SELECT COUNT(*) FROM shopping_cart.shopping_cart_discount WHERE shopping_cart_id = ?)""",
+          Long.class, id, id, id)).isZero();
+    }
+    mockMvc.perform(get("/api/shopping-carts/{id}", expired.get(0))).andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/shopping-carts/{id}", freshId)).andExpect(status().isOk());
+    assertThat(sweeper.sweep(Instant.parse("2002-01-01T00:00:00Z"))).isZero();
+  }
+
+  @Test
+  void shouldStreamExportAsNdjson() throws Exception {
+    Set<String> created = new HashSet<>();
+    for (int i = 0; i < 3; i++) {
+      MvcResult createResult = mockMvc.perform(post("/api/shopping-carts")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(Map.of(
+                  "userId", UUID.randomUUID(),
+                  "currency", "USD",
+                  "items", List.of(cartItem("SKU-E", 2, 3.00)),
+                  "discounts", List.of(Map.of("code", "EXP", "amount", BigDecimal.ONE))))))
+          .andExpect(status().isCreated())
+          .andReturn();
+      created.add(objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asText());
+    }
+
+    String body;
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      body = mockMvc.perform(get("/api/shopping-carts/export"))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE))
+          .andReturn().getResponse().getContentAsString();
+      String[] lines = body.split("\n");
+      int chunks = (lines.length + ShoppingCartRepository.STREAM_FETCH_SIZE - 1)
+          / ShoppingCartRepository.STREAM_FETCH_SIZE;
+      sql.assertCount(1 + 2 * chunks);
+    }
+    assertThat(body).endsWith("\n");
+    Map<String, JsonNode> exported = new HashMap<>();
+    for (String line : body.split("\n")) {
+      JsonNode cart = objectMapper.readTree(line);
+      exported.put(cart.get("id").asText(), cart);
+    }
+    assertThat(exported.keySet()).containsAll(created);
+    JsonNode sample = exported.get(created.iterator().next());
+    assertThat(sample.get("items").get(0).get("productId").asText()).isEqualTo("SKU-E");
+    assertThat(sample.get("discounts").get(0).get("code").asText()).isEqualTo("EXP");
+
+    HttpResponse<byte[]> gzipped = HttpClient.newHttpClient().send(
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/shopping-carts/export"))
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+    assertThat(gzipped.statusCode()).isEqualTo(200);
+    assertThat(gzipped.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+      String unzipped = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      assertThat(unzipped.split("\n")).hasSameSizeAs(body.split("\n"));
+    }
+  }
+
+  @Test
+  void shouldBulkImportNdjsonAndReportRejectedLines() throws Exception {
+    UUID existingUser = UUID.randomUUID();
+    mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", existingUser,
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-1", 1, 1.00))))))
+        .andExpect(status().isCreated());
+    UUID importedUser = UUID.randomUUID();
+    String body = String.join("\n",
+        importLine(importedUser, List.of(cartItem("SKU-1", 2, 5.00), cartItem("SKU-2", 1, 2.50))),
+        importLine(existingUser, List.of(cartItem("SKU-1", 1, 1.00))),
+        importLine(UUID.randomUUID(), List.of(cartItem("SKU-9", 1, 1.00), cartItem("SKU-9", 1, 1.00))),
+        "{\"userId\": 42",
+        importLine(UUID.randomUUID(), List.of(cartItem("SKU-3", 3, 1.00))));
+
+    mockMvc.perform(post("/api/shopping-carts/import")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported").value(2))
+        .andExpect(jsonPath("$.failed").value(3))
+        .andExpect(jsonPath("$.errors[0].line").value(3))
+        .andExpect(jsonPath("$.errors[0].message").value("Duplicate product in cart: SKU-9"))
+        .andExpect(jsonPath("$.errors[1].line").value(4))
+        .andExpect(jsonPath("$.errors[2].line").value(2))
+        .andExpect(jsonPath("$.errors[2].message").value("User already has an active shopping cart"));
+
+    Map<String, Object> row = jdbcTemplate.queryForMap("""
+        SELECT shopping_cart_id, item_count, item_total, discount_total, tax, shipping, total, version
+        FROM shopping_cart.shopping_cart WHERE user_id = ?""", importedUser);
+    assertThat(row.get("item_count")).isEqualTo(2);
+    assertThat((BigDecimal) row.get("item_total")).isEqualByComparingTo("12.50");
+    assertThat((BigDecimal) row.get("discount_total")).isEqualByComparingTo("1.00");
+    assertThat((BigDecimal) row.get("total")).isEqualByComparingTo("17.65");
+    mockMvc.perform(get("/api/shopping-carts/{id}", row.get("shopping_cart_id")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(2))
+        .andExpect(jsonPath("$.discounts[0].code").value("BULK"));
+
+    String batch = String.join("\n",
+        importLine(UUID.randomUUID(), List.of(cartItem("SKU-1", 1, 1.00))),
+        importLine(UUID.randomUUID(), List.of(cartItem("SKU-1", 1, 1.00))),
+        importLine(UUID.randomUUID(), List.of(cartItem("SKU-1", 1, 1.00))));
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(post("/api/shopping-carts/import")
+              .contentType(MediaType.APPLICATION_NDJSON)
+              .content(batch))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.imported").value(3));
+      sql.assertCount(3);
+    }
+  }
+
+  @Test
+  void shouldReplayRequestsRetriedWithTheSameIdempotencyKey() throws Exception {
+    String key = UUID.randomUUID().toString();
+    String payload = objectMapper.writeValueAsString(Map.of(
+        "userId", UUID.randomUUID(),
+        "currency", "USD",
+        "items", List.of(cartItem("SKU-1", 1, 10.00))));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    List<MvcResult> results = new ArrayList<>();
+    try {
+      List<Future<MvcResult>> attempts = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        attempts.add(executor.submit(() -> mockMvc.perform(post("/api/shopping-carts")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+            .andReturn()));
+      }
+      for (Future<MvcResult> attempt : attempts) {
+        results.add(attempt.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(results).allSatisfy(result -> assertThat(result.getResponse().getStatus()).isEqualTo(201));
+    assertThat(results).extracting(result -> result.getResponse().getHeader("Idempotent-Replayed"))
+        .containsExactlyInAnyOrder(null, "true");
+    String body = results.get(0).getResponse().getContentAsString();
+    assertThat(results.get(1).getResponse().getContentAsString()).isEqualTo(body);
+    String cartId = objectMapper.readTree(body).get("id").asText();
+
+    mockMvc.perform(post("/api/shopping-carts")
+            .header("Idempotency-Key", key)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Idempotent-Replayed", "true"))
+        .andExpect(header().string(HttpHeaders.LOCATION, results.get(0).getResponse().getHeader(HttpHeaders.LOCATION)))
+        .andExpect(jsonPath("$.id").value(cartId));
+    mockMvc.perform(post("/api/shopping-carts")
+            .header("Idempotency-Key", key)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload.replace("SKU-1", "SKU-2")))
+        .andExpect(status().isUnprocessableEntity());
+    assertThat(jdbcTemplate.queryForObject("SELECT status_code FROM shopping_cart.idempotency_key "
+        + "WHERE idempotency_key = ? AND set_cookie IS NULL", Integer.class, key)).isEqualTo(201);
+
+    // A retry reaching another instance, with nothing cached, replays the row stored without a cookie.
+    byte[] requestHash = jdbcTemplate.queryForObject("SELECT request_hash FROM shopping_cart.idempotency_key "
+        + "WHERE idempotency_key = ?", byte[].class, key);
+    IdempotentResponseStore.Claim fromDatabase =
+        new IdempotentResponseStore(idempotencyKeyRepository, appProperties, new SimpleMeterRegistry())
+            .claim(key, requestHash);
+    assertThat(fromDatabase.outcome()).isEqualTo(IdempotentResponseStore.Outcome.REPLAY);
+    assertThat(fromDatabase.response().status()).isEqualTo(201);
+    assertThat(fromDatabase.response().cookies()).isEmpty();
+    assertThat(new String(fromDatabase.response().body(), StandardCharsets.UTF_8)).isEqualTo(body);
+
+    String deleteKey = UUID.randomUUID().toString();
+    for (int i = 0; i < 2; i++) {
+      mockMvc.perform(delete("/api/shopping-carts/{id}", cartId).header("Idempotency-Key", deleteKey))
+          .andExpect(status().isNoContent());
+    }
+  }
+
+  @Test
+  void shouldGetOrCreateCartByUserInOneStatement() throws Exception {
+    UUID userId = UUID.randomUUID();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<MvcResult> results = new ArrayList<>();
+    try {
+      List<Future<MvcResult>> attempts = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        attempts.add(executor.submit(() -> mockMvc.perform(put("/api/users/{userId}/shopping-cart", userId))
+            .andReturn()));
+      }
+      for (Future<MvcResult> attempt : attempts) {
+        results.add(attempt.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(results).extracting(result -> result.getResponse().getStatus())
+        .containsOnly(200, 201)
+        .containsOnlyOnce(201);
+    Set<String> ids = new HashSet<>();
+    for (MvcResult result : results) {
+      ids.add(objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText());
+    }
+    assertThat(ids).hasSize(1);
+    String cartId = ids.iterator().next();
+
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(put("/api/users/{userId}/shopping-cart", userId))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+          .andExpect(jsonPath("$.id").value(cartId))
+          .andExpect(jsonPath("$.items.length()").value(0))
+          .andExpect(jsonPath("$.shipping").value(0.00))
+          .andExpect(jsonPath("$.total").value(0.00));
+      sql.assertCount(1);
+    }
+
+    UUID shopper = UUID.randomUUID();
+    mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", shopper,
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-1", 2, 10.00), cartItem("SKU-2", 1, 5.00)),
+                "discounts", List.of(Map.of("code", "SAVE", "amount", BigDecimal.ONE))))))
+        .andExpect(status().isCreated());
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(put("/api/users/{userId}/shopping-cart", shopper)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"currency\": \"EUR\"}"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.currency").value("USD"))
+          .andExpect(jsonPath("$.items.length()").value(2))
+          .andExpect(jsonPath("$.items[?(@.productId == 'SKU-1')].totalPrice").value(20.00))
+          .andExpect(jsonPath("$.discounts[0].code").value("SAVE"));
+      sql.assertCount(1);
+    }
+
+    mockMvc.perform(put("/api/users/{userId}/shopping-cart", UUID.randomUUID())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"currency\": \"usd\"}"))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  void shouldResolveCartByUserFromCache() throws Exception {
+    UUID userId = UUID.randomUUID();
+    mockMvc.perform(get("/api/users/{userId}/shopping-cart", userId)).andExpect(status().isNotFound());
+    MvcResult created = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", userId,
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-1", 1, 10.00))))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String cartId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(get("/api/users/{userId}/shopping-cart", userId))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+          .andExpect(jsonPath("$.id").value(cartId))
+          .andExpect(jsonPath("$.items[0].productId").value("SKU-1"));
+      sql.assertCount(3);
+      sql.reset();
+      mockMvc.perform(get("/api/users/{userId}/shopping-cart", userId))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.id").value(cartId));
+      mockMvc.perform(get("/api/users/{userId}/shopping-cart", userId).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+          .andExpect(status().isNotModified());
+      sql.assertCount(1);
+    }
+
+    mockMvc.perform(delete("/api/shopping-carts/{id}", cartId)).andExpect(status().isNoContent());
+    mockMvc.perform(get("/api/users/{userId}/shopping-cart", userId)).andExpect(status().isNotFound());
+    String recreatedId = objectMapper.readTree(mockMvc.perform(put("/api/users/{userId}/shopping-cart", userId))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString()).get("id").asText();
+    mockMvc.perform(get("/api/users/{userId}/shopping-cart", userId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(recreatedId));
+  }
+
+  @Test
+  void shouldServeSummaryViewAndSparseFieldsFromTheCartRow() throws Exception {
+    MvcResult created = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-1", 2, 10.00), cartItem("SKU-2", 1, 5.00))))))
+        .andExpect(status().isCreated())
+        .andReturn();
+    String cartId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText();
+
+    try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+      mockMvc.perform(get("/api/shopping-carts/{id}", cartId).param("view", "summary"))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"0;summary\""))
+          .andExpect(jsonPath("$.itemCount").value(2))
+          .andExpect(jsonPath("$.itemTotal").value(25.00))
+          .andExpect(jsonPath("$.items").doesNotExist());
+      sql.assertCount(1);
+      sql.reset();
+
+      MvcResult badge = mockMvc.perform(get("/api/shopping-carts/{id}", cartId).param("fields", "total,itemCount"))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"0;summary;fields=itemCount,total\""))
+          .andExpect(jsonPath("$.itemCount").value(2))
+          .andExpect(jsonPath("$.total").exists())
+          .andReturn();
+      assertThat(objectMapper.readTree(badge.getResponse().getContentAsString()).size()).isEqualTo(2);
+      sql.assertCount(1);
+      sql.reset();
+
+      mockMvc.perform(get("/api/shopping-carts").param("view", "summary").param("limit", "5"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items[0].itemCount").exists())
+          .andExpect(jsonPath("$.items[0].items").doesNotExist());
+      mockMvc.perform(get("/api/shopping-carts").param("fields", "id,itemCount").param("limit", "5"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items[0].id").exists())
+          .andExpect(jsonPath("$.items[0].total").doesNotExist());
+      sql.assertCount(2);
+    }
+
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId)
+            .param("view", "summary")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId)
+            .param("view", "summary")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0;summary\""))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).header(HttpHeaders.IF_NONE_MATCH, "\"0;summary\""))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).param("fields", "id,items"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"0;fields=id,items\""))
+        .andExpect(jsonPath("$.id").value(cartId))
+        .andExpect(jsonPath("$.items.length()").value(2))
+        .andExpect(jsonPath("$.discounts").doesNotExist());
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).param("view", "summary").param("fields", "items"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).param("fields", "nope"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/shopping-carts").param("view", "compact"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void shouldNegotiateBinaryPayloadsInBothDirections() throws Exception {
+    ObjectMapper cbor = objectMapper.copyWith(new CBORFactory());
+    ObjectMapper smile = objectMapper.copyWith(new SmileFactory());
+    Map<String, Object> payload = Map.of(
+        "userId", UUID.randomUUID(),
+        "currency", "USD",
+        "items", List.of(cartItem("SKU-BIN", 2, 12.50)));
+
+    MvcResult created = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_CBOR)
+            .accept(MediaType.APPLICATION_CBOR)
+            .content(cbor.writeValueAsBytes(payload)))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE))
+        .andReturn();
+    // Binary formats carry UUIDs as 16-byte binary values; read them back through the DTO.
+    ShoppingCartDto.Response cart =
+        cbor.readValue(created.getResponse().getContentAsByteArray(), ShoppingCartDto.Response.class);
+    String cartId = cart.id().toString();
+    assertThat(cart.items().get(0).productId()).isEqualTo("SKU-BIN");
+
+    for (int i = 0; i < 2; i++) {
+      MvcResult read = mockMvc.perform(get("/api/shopping-carts/{id}", cartId)
+              .accept(MediaType.parseMediaType("application/x-jackson-smile")))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-jackson-smile"))
+          .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+          .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+          .andReturn();
+      assertThat(smile.readValue(read.getResponse().getContentAsByteArray(), ShoppingCartDto.Response.class).id())
+          .hasToString(cartId);
+    }
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(jsonPath("$.id").value(cartId));
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId)
+            .header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/x-jackson-smile;q=0.9"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-jackson-smile"));
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).accept(MediaType.APPLICATION_XML))
+        .andExpect(status().isNotAcceptable());
+
+    MvcResult updated = mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+            .contentType(MediaType.parseMediaType("application/x-jackson-smile"))
+            .content(smile.writeValueAsBytes(Map.of(
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-BIN", 3, 12.50))))))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(jsonPath("$.items[0].quantity").value(3))
+        .andReturn();
+    assertThat(updated.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo("\"1\"");
+    MvcResult reread = mockMvc.perform(get("/api/shopping-carts/{id}", cartId).accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertThat(cbor.readValue(reread.getResponse().getContentAsByteArray(), ShoppingCartDto.Response.class)
+        .items().get(0).quantity()).isEqualTo(3);
+
+    mockMvc.perform(get("/api/shopping-carts/{id}", UUID.randomUUID()).accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isNotFound())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE));
+  }
+
+  @Test
+  void shouldExposeOperationMetricsForPrometheus() throws Exception {
+    mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(cartItem("SKU-A", 1, 20.00))
+            ))))
+        .andExpect(status().isCreated());
+    mockMvc.perform(get("/api/shopping-carts/{id}", UUID.randomUUID()))
+        .andExpect(status().isNotFound());
+
+    String scrape = mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    assertThat(scrape)
+        .contains("shopping_cart_operation_seconds_bucket{")
+        .containsPattern("shopping_cart_operation_seconds_count\\{[^}]*operation=\"create\",outcome=\"success\"")
+        .containsPattern("shopping_cart_operation_seconds_count\\{[^}]*operation=\"get\",outcome=\"not_found\"")
+        .contains("shopping_cart_items_bucket{")
+        .containsPattern("shopping_cart_request_payload_size_bytes_count\\{[^}]*method=\"POST\"")
+        .contains("hikaricp_connections_pending{", "hikaricp_connections_acquire_seconds_bucket{")
+        .contains("hibernate_sessions_open_total{");
+  }
+
+  @Test
+  void shouldPageThroughCartsWithCursor() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      mockMvc.perform(post("/api/shopping-carts")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(Map.of(
+                  "userId", UUID.randomUUID(),
+                  "currency", "USD",
+                  "items", List.of(Map.of(
+                      "productId", "SKU-" + i,
+                      "name", "Item " + i,
+                      "quantity", 1,
+                      "unitPrice", BigDecimal.valueOf(10.00),
+                      "currency", "USD"
+                  ))
+              ))))
+          .andExpect(status().isCreated());
+    }
+
+    Set<String> seen = new HashSet<>();
+    String cursor = null;
+    do {
+      MvcResult result = mockMvc.perform(get("/api/shopping-carts")
+              .param("limit", "2")
+              .param("cursor", cursor == null ? "" : cursor))
+          .andExpect(status().isOk())
+          .andReturn();
+      JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+      assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+      page.get("items").forEach(cart -> assertThat(seen.add(cart.get("id").asText())).isTrue());
+      JsonNode next = page.get("nextCursor");
+      cursor = next == null || next.isNull() ? null : next.asText();
+    } while (cursor != null);
+
+    assertThat(seen).hasSizeGreaterThanOrEqualTo(3);
+
+    mockMvc.perform(get("/api/shopping-carts").param("cursor", "%%%"))
+        .andExpect(status().isBadRequest());
+  }
+
+  private String importLine(UUID userId, List<Map<String, Object>> items) throws Exception {
+    return objectMapper.writeValueAsString(Map.of(
+        "userId", userId,
+        "currency", "USD",
+        "items", items,
+        "discounts", List.of(Map.of("code", "BULK", "amount", BigDecimal.ONE))));
+  }
+
+  private static Map<String, Object> cartItem(String productId, int quantity, double unitPrice) {
+    return Map.of(
+        "productId", productId,
+        "name", "Product " + productId,
+        "quantity", quantity,
+        "unitPrice", BigDecimal.valueOf(unitPrice),
+        "totalPrice", BigDecimal.valueOf(unitPrice * quantity),
+        "currency", "USD");
+  }
 }
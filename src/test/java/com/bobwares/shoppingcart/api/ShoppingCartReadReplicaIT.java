@@ -0,0 +1,153 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.api
+ * File: ShoppingCartReadReplicaIT.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartReadReplicaIT
+ * Description: Integration tests for read-replica routing and read-your-writes stickiness against two PostgreSQL
+ *              databases via Testcontainers.
+ */
+package com.bobwares.shoppingcart.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Integration tests for {@link ShoppingCartController} with {@code app.read-replicas.enabled}. The replica is a
+ * separate, unreplicated database with the same schema, so a read that reaches it cannot see the primary's writes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ShoppingCartReadReplicaIT {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @Container
+  private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:16");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    registry.add("spring.jpa.properties.hibernate.default_schema", () -> "shopping_cart");
+    registry.add("app.read-replicas.enabled", () -> "true");
+    registry.add("app.read-replicas.urls", REPLICA::getJdbcUrl);
+    registry.add("app.read-replicas.username", REPLICA::getUsername);
+    registry.add("app.read-replicas.password", REPLICA::getPassword);
+    registry.add("app.read-replicas.lag-check-interval", () -> "100ms");
+  }
+
+  @BeforeAll
+  static void migrateReplica() throws Exception {
+    migrate(REPLICA::getJdbcUrl, REPLICA::getUsername, REPLICA::getPassword);
+  }
+
+  @Test
+  void shouldReadFromReplicaUnlessTheClientWroteRecently() throws Exception {
+    awaitReplicaLagMeasured();
+    MvcResult created = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of(
+                "userId", UUID.randomUUID(),
+                "currency", "USD",
+                "items", List.of(Map.of(
+                    "productId", "SKU-1",
+                    "name", "Notebook",
+                    "quantity", 1,
+                    "unitPrice", BigDecimal.valueOf(5.00),
+                    "currency", "USD")),
+                "discounts", List.of()))))
+        .andExpect(status().isCreated())
+        .andExpect(cookie().exists("read-primary-until"))
+        .andExpect(cookie().path("read-primary-until", "/api/"))
+        .andExpect(cookie().httpOnly("read-primary-until", true))
+        .andReturn();
+    UUID cartId = UUID.fromString(
+        objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asText());
+    Cookie readPrimaryUntil = created.getResponse().getCookie("read-primary-until");
+
+    double replicaReads = routed("replica");
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+        .andExpect(status().isNotFound());
+    assertThat(routed("replica")).isEqualTo(replicaReads + 1);
+
+    double pinnedReads = routed("pinned");
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).cookie(readPrimaryUntil))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(cartId.toString()));
+    assertThat(routed("pinned")).isEqualTo(pinnedReads + 1);
+
+    Cookie expired = new Cookie("read-primary-until", Long.toString(System.currentTimeMillis() - 1));
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId).cookie(expired))
+        .andExpect(status().isNotFound());
+  }
+
+  private void awaitReplicaLagMeasured() throws InterruptedException {
+    for (int i = 0; i < 50; i++) {
+      double lag = meterRegistry.get("shopping.cart.replica.lag").tag("replica", "replica-0").gauge().value();
+      if (!Double.isNaN(lag)) {
+        return;
+      }
+      Thread.sleep(100);
+    }
+    throw new AssertionError("Replica lag was never measured");
+  }
+
+  private double routed(String route) {
+    return meterRegistry.get("shopping.cart.read.routing").tag("route", route).counter().count();
+  }
+
+  private static void migrate(Supplier<String> url, Supplier<String> username, Supplier<String> password)
+      throws Exception {
+    SpringLiquibase liquibase = new SpringLiquibase();
+    liquibase.setDataSource(new DriverManagerDataSource(url.get(), username.get(), password.get()));
+    liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yml");
+    liquibase.setResourceLoader(new DefaultResourceLoader());
+    liquibase.afterPropertiesSet();
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.api
+ * File: ShoppingCartWriteBehindIT.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ShoppingCartWriteBehindIT
+ * Description: Integration tests for write-behind coalescing of cart updates against PostgreSQL via Testcontainers.
+ */
+package com.bobwares.shoppingcart.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Integration tests for {@link ShoppingCartController} with {@code app.write-behind.enabled}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ShoppingCartWriteBehindIT {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    registry.add("spring.jpa.properties.hibernate.default_schema", () -> "shopping_cart");
+    registry.add("app.write-behind.enabled", () -> "true");
+    registry.add("app.write-behind.window", () -> "3s");
+  }
+
+  @Test
+  void shouldCoalesceRapidUpdatesAndFlushTheLastState() throws Exception {
+    String created = mockMvc.perform(post("/api/shopping-carts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload(Map.of("userId", UUID.randomUUID()), 1)))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString();
+    UUID cartId = UUID.fromString(objectMapper.readTree(created).get("id").asText());
+
+    for (int quantity = 2; quantity <= 4; quantity++) {
+      mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(payload(Map.of(), quantity)))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"" + (quantity - 1) + "\""))
+          .andExpect(jsonPath("$.items[0].quantity").value(quantity));
+    }
+
+    mockMvc.perform(get("/api/shopping-carts/{id}", cartId))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+        .andExpect(jsonPath("$.items[0].quantity").value(4));
+    mockMvc.perform(get("/api/shopping-carts/{id}/summary", cartId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total").value(20.00));
+    assertThat(storedVersion(cartId)).isZero();
+
+    long deadline = System.nanoTime() + 20_000_000_000L;
+    while (storedVersion(cartId) == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(100);
+    }
+    assertThat(storedVersion(cartId)).isEqualTo(3);
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT quantity FROM shopping_cart.shopping_cart_item WHERE shopping_cart_id = ?", Integer.class, cartId))
+        .isEqualTo(4);
+
+    mockMvc.perform(put("/api/shopping-carts/{id}", cartId)
+            .header(HttpHeaders.IF_MATCH, "\"3\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload(Map.of(), 5)))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    assertThat(storedVersion(cartId)).isEqualTo(4);
+  }
+
+  private long storedVersion(UUID cartId) {
+    return jdbcTemplate.queryForObject("SELECT version FROM shopping_cart.shopping_cart WHERE shopping_cart_id = ?",
+        Long.class, cartId);
+  }
+
+  private String payload(Map<String, Object> extra, int quantity) throws Exception {
+    Map<String, Object> payload = new HashMap<>(extra);
+    payload.put("currency", "USD");
+    payload.put("items", List.of(Map.of(
+        "productId", "SKU-1",
+        "name", "Notebook",
+        "quantity", quantity,
+        "unitPrice", BigDecimal.valueOf(5.00),
+        "currency", "USD")));
+    payload.put("discounts", List.of());
+    return objectMapper.writeValueAsString(payload);
+  }
+}
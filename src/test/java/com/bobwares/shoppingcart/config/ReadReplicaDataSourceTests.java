@@ -0,0 +1,126 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.config
+ * File: ReadReplicaDataSourceTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: ReadReplicaDataSourceTests
+ * Description: Unit tests for lag-aware routing of read-only connections.
+ */
+package com.bobwares.shoppingcart.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ReadReplicaDataSource}.
+ */
+class ReadReplicaDataSourceTests {
+
+  private HikariDataSource primary;
+  private HikariDataSource replica;
+  private Connection primaryConnection;
+  private Connection replicaConnection;
+  private ResultSet lag;
+  private SimpleMeterRegistry meterRegistry;
+  private ReadReplicaDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    primary = mock(HikariDataSource.class);
+    replica = mock(HikariDataSource.class);
+    primaryConnection = mock(Connection.class);
+    replicaConnection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    lag = mock(ResultSet.class);
+    when(replica.getPoolName()).thenReturn("replica-0");
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    when(primaryConnection.createStatement()).thenReturn(mock(Statement.class));
+    when(replicaConnection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(anyString())).thenReturn(lag);
+    when(lag.next()).thenReturn(true);
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (dataSource != null) {
+      dataSource.close();
+    }
+  }
+
+  @Test
+  void shouldRouteReadsToReplicaWithinMaxLag() throws Exception {
+    startWithReplicaLag(0.2);
+
+    readOnlyStatement();
+
+    verify(primary, never()).getConnection();
+    assertThat(routed("replica")).isEqualTo(1);
+  }
+
+  @Test
+  void shouldFallBackToPrimaryWhenReplicaLagsTooFar() throws Exception {
+    startWithReplicaLag(5.0);
+
+    readOnlyStatement();
+
+    verify(primaryConnection).createStatement();
+    assertThat(routed("fallback")).isEqualTo(1);
+    assertThat(meterRegistry.get("shopping.cart.replica.lag").gauge().value()).isEqualTo(5.0);
+  }
+
+  @Test
+  void shouldReadFromPrimaryInsidePrimaryScope() throws Exception {
+    startWithReplicaLag(0.0);
+
+    try (ReadReplicaDataSource.PrimaryScope outer = ReadReplicaDataSource.readFromPrimary()) {
+      try (ReadReplicaDataSource.PrimaryScope inner = ReadReplicaDataSource.readFromPrimary()) {
+        readOnlyStatement();
+      }
+      readOnlyStatement();
+    }
+
+    verify(primary, times(2)).getConnection();
+    assertThat(routed("pinned")).isEqualTo(2);
+  }
+
+  private void startWithReplicaLag(double seconds) throws Exception {
+    when(lag.getDouble(1)).thenReturn(seconds);
+    dataSource = new ReadReplicaDataSource(primary, List.of(replica), Duration.ofSeconds(1), Duration.ofHours(1),
+        meterRegistry);
+    dataSource.setDefaultAutoCommit(true);
+    dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    dataSource.checkLag();
+  }
+
+  private void readOnlyStatement() throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setReadOnly(true);
+      connection.createStatement();
+    }
+  }
+
+  private double routed(String route) {
+    return meterRegistry.get("shopping.cart.read.routing").tag("route", route).counter().count();
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.support
+ * File: SqlStatementCounter.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: SqlStatementCounter
+ * Description: Captures the SQL statements issued on the calling thread so tests can assert per-request statement
+ *              counts.
+ */
+package com.bobwares.shoppingcart.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Thread-scoped capture of the SQL sent through the DataSource wrapped by
+ * {@link SqlStatementCountingConfiguration}. MockMvc runs the whole request on the test thread, so a capture started
+ * before {@code perform(...)} sees exactly the statements that request issued and nothing from background work.
+ *
+ * <pre>{@code
+ * try (SqlStatementCounter sql = SqlStatementCounter.start()) {
+ *   mockMvc.perform(get("/api/shopping-carts/{id}", id));
+ *   sql.assertCount(2);
+ * }
+ * }</pre>
+ */
+public final class SqlStatementCounter implements AutoCloseable {
+
+  private static final ThreadLocal<SqlStatementCounter> ACTIVE = new ThreadLocal<>();
+
+  private final List<String> statements = new ArrayList<>();
+
+  private SqlStatementCounter() {
+  }
+
+  /**
+   * Starts capturing on the current thread, replacing any capture already active on it.
+   *
+   * @return new, empty capture
+   */
+  public static SqlStatementCounter start() {
+    SqlStatementCounter counter = new SqlStatementCounter();
+    ACTIVE.set(counter);
+    return counter;
+  }
+
+  static void record(String sql) {
+    SqlStatementCounter counter = ACTIVE.get();
+    if (counter != null) {
+      counter.statements.add(sql);
+    }
+  }
+
+  /**
+   * Number of statements prepared or executed since the capture started or was last reset.
+   *
+   * @return statement count
+   */
+  public int count() {
+    return statements.size();
+  }
+
+  /**
+   * Number of captured statements starting with the given SQL keyword, e.g. {@code "select"} or {@code "update"}.
+   *
+   * @param keyword leading keyword, case-insensitive
+   * @return matching statement count
+   */
+  public long count(String keyword) {
+    String prefix = keyword.toLowerCase(Locale.ROOT);
+    return statements.stream()
+        .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith(prefix))
+        .count();
+  }
+
+  /**
+   * Captured SQL in execution order.
+   *
+   * @return copy of the captured statements
+   */
+  public List<String> statements() {
+    return List.copyOf(statements);
+  }
+
+  /**
+   * Discards the statements captured so far and keeps capturing.
+   */
+  public void reset() {
+    statements.clear();
+  }
+
+  /**
+   * Fails with the captured SQL listed when the statement count differs from the expected one.
+   *
+   * @param expected expected statement count
+   * @throws AssertionError when the count differs
+   */
+  public void assertCount(int expected) {
+    if (statements.size() != expected) {
+      StringBuilder message = new StringBuilder("Expected ").append(expected).append(" SQL statements but ")
+          .append(statements.size()).append(" were issued:");
+      for (int i = 0; i < statements.size(); i++) {
+        message.append(System.lineSeparator()).append("  ").append(i + 1).append(". ").append(statements.get(i));
+      }
+      throw new AssertionError(message.toString());
+    }
+  }
+
+  @Override
+  public void close() {
+    if (ACTIVE.get() == this) {
+      ACTIVE.remove();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.support
+ * File: SqlStatementCountingConfiguration.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: SqlStatementCountingConfiguration
+ * Description: Test configuration wrapping the application DataSource in a JDBC proxy that reports every statement
+ *              to SqlStatementCounter.
+ */
+package com.bobwares.shoppingcart.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Import into a Spring test to count SQL with {@link SqlStatementCounter}. The proxy sits at the JDBC layer, so it
+ * sees Hibernate-generated SQL, native repository queries and {@code JdbcTemplate} calls alike. A statement is counted
+ * when it is prepared ({@code prepareStatement}, {@code prepareCall}) or, for plain {@link Statement}s, when SQL text
+ * is executed or batched; executing a prepared statement again does not count twice.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlStatementCountingConfiguration {
+
+  @Bean
+  static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+          return proxy(DataSource.class, dataSource, new DataSourceHandler(dataSource));
+        }
+        return bean;
+      }
+    };
+  }
+
+  private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(SqlStatementCountingConfiguration.class.getClassLoader(),
+        new Class<?>[] {type}, handler));
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ex) {
+      throw ex.getTargetException();
+    }
+  }
+
+  private record DataSourceHandler(DataSource target) implements InvocationHandler {
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Object result = SqlStatementCountingConfiguration.invoke(target, method, args);
+      if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+        return proxy(Connection.class, connection, new ConnectionHandler(connection));
+      }
+      return result;
+    }
+  }
+
+  private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if ((name.equals("prepareStatement") || name.equals("prepareCall")) && args != null
+          && args[0] instanceof String sql) {
+        SqlStatementCounter.record(sql);
+      }
+      Object result = SqlStatementCountingConfiguration.invoke(target, method, args);
+      if (result instanceof Statement statement && !(result instanceof PreparedStatement)) {
+        return proxy(Statement.class, statement, new StatementHandler(statement));
+      }
+      return result;
+    }
+  }
+
+  private record StatementHandler(Statement target) implements InvocationHandler {
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if ((name.startsWith("execute") || name.equals("addBatch")) && args != null && args[0] instanceof String sql) {
+        SqlStatementCounter.record(sql);
+      }
+      return SqlStatementCountingConfiguration.invoke(target, method, args);
+    }
+  }
+}
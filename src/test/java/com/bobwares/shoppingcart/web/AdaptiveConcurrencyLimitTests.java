@@ -0,0 +1,114 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: AdaptiveConcurrencyLimitTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: AdaptiveConcurrencyLimitTests
+ * Description: Unit tests for the latency-gradient in-flight request limit.
+ */
+package com.bobwares.shoppingcart.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimit}.
+ */
+class AdaptiveConcurrencyLimitTests {
+
+  private static final long FAST = Duration.ofMillis(5).toNanos();
+  private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+  private AppProperties.Concurrency concurrency;
+
+  @BeforeEach
+  void setUp() {
+    concurrency = new AppProperties().getConcurrency();
+    concurrency.setMaxInFlightRequests(100);
+    concurrency.setMinInFlightRequests(4);
+    concurrency.setInitialInFlightRequests(20);
+  }
+
+  @Test
+  void shouldGrowWhileLatencyHoldsAndShrinkWhenItRises() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(concurrency, concurrency.getMaxInFlightRequests());
+
+    windows(limit, 30, FAST);
+    int grown = limit.limit();
+    assertThat(grown).isGreaterThan(20);
+
+    windows(limit, 30, SLOW);
+    assertThat(limit.limit()).isLessThan(grown / 2);
+    assertThat(limit.limit()).isGreaterThanOrEqualTo(4);
+
+    int shrunk = limit.limit();
+    windows(limit, 200, FAST);
+    assertThat(limit.limit()).isGreaterThan(shrunk);
+  }
+
+  @Test
+  void shouldNotGrowWhileMostOfTheLimitIsUnused() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(concurrency, concurrency.getMaxInFlightRequests());
+
+    for (int i = 0; i < 30 * AdaptiveConcurrencyLimit.WINDOW_SAMPLES; i++) {
+      int inFlight = limit.tryAcquire();
+      limit.release(FAST, inFlight);
+    }
+
+    assertThat(limit.limit()).isEqualTo(20);
+  }
+
+  @Test
+  void shouldRejectImmediatelyAtTheLimit() {
+    concurrency.setAdaptiveLimit(false);
+    concurrency.setMaxInFlightRequests(2);
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(concurrency, concurrency.getMaxInFlightRequests());
+
+    assertThat(limit.tryAcquire()).isEqualTo(1);
+    assertThat(limit.tryAcquire()).isEqualTo(2);
+    assertThat(limit.tryAcquire()).isEqualTo(-1);
+    limit.release();
+    assertThat(limit.tryAcquire()).isEqualTo(2);
+    limit.release();
+    limit.release();
+
+    windows(limit, 10, SLOW);
+    assertThat(limit.limit()).isEqualTo(2);
+    assertThat(limit.inFlight()).isZero();
+  }
+
+  @Test
+  void shouldShrinkOnRepeatedDropsDownToTheMinimum() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(concurrency, concurrency.getMaxInFlightRequests());
+
+    for (int i = 0; i < 10; i++) {
+      limit.tryAcquire();
+      limit.releaseDropped();
+    }
+    assertThat(limit.limit()).isEqualTo(6);
+
+    for (int i = 0; i < 10; i++) {
+      limit.tryAcquire();
+      limit.releaseDropped();
+    }
+    assertThat(limit.limit()).isEqualTo(4);
+    assertThat(limit.inFlight()).isZero();
+  }
+
+  /**
+   * Completes {@code count} windows of requests that each ran with the whole limit in use.
+   */
+  private static void windows(AdaptiveConcurrencyLimit limit, int count, long rttNanos) {
+    for (int i = 0; i < count * AdaptiveConcurrencyLimit.WINDOW_SAMPLES; i++) {
+      limit.tryAcquire();
+      limit.release(rttNanos, limit.limit());
+    }
+  }
+}
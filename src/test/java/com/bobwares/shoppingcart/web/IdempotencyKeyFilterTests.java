@@ -0,0 +1,54 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: IdempotencyKeyFilterTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: IdempotencyKeyFilterTests
+ * Description: Unit tests for the request fingerprint an Idempotency-Key is bound to.
+ */
+package com.bobwares.shoppingcart.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Unit tests for {@link IdempotencyKeyFilter#fingerprint}.
+ */
+class IdempotencyKeyFilterTests {
+
+  private static final byte[] BODY = "{\"currency\":\"USD\"}".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  void fingerprint_shouldMatchForTheSameRequest() {
+    assertThat(IdempotencyKeyFilter.fingerprint(request(MediaType.APPLICATION_JSON_VALUE, "\"3\""), BODY))
+        .isEqualTo(IdempotencyKeyFilter.fingerprint(request(MediaType.APPLICATION_JSON_VALUE, "\"3\""), BODY));
+  }
+
+  @Test
+  void fingerprint_shouldDifferWhenContentTypeOrIfMatchDiffers() {
+    byte[] json = IdempotencyKeyFilter.fingerprint(request(MediaType.APPLICATION_JSON_VALUE, "\"3\""), BODY);
+
+    assertThat(IdempotencyKeyFilter.fingerprint(request("application/cbor", "\"3\""), BODY)).isNotEqualTo(json);
+    assertThat(IdempotencyKeyFilter.fingerprint(request(MediaType.APPLICATION_JSON_VALUE, "\"4\""), BODY))
+        .isNotEqualTo(json);
+    assertThat(IdempotencyKeyFilter.fingerprint(request(MediaType.APPLICATION_JSON_VALUE, null), BODY))
+        .isNotEqualTo(json);
+  }
+
+  private static MockHttpServletRequest request(String contentType, String ifMatch) {
+    MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/shopping-carts/1");
+    request.setContentType(contentType);
+    if (ifMatch != null) {
+      request.addHeader(HttpHeaders.IF_MATCH, ifMatch);
+    }
+    return request;
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: RequestConcurrencyLimitFilterTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: RequestConcurrencyLimitFilterTests
+ * Description: Unit tests for the in-flight request bulkhead.
+ */
+package com.bobwares.shoppingcart.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bobwares.shoppingcart.config.AppProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for {@link RequestConcurrencyLimitFilter}.
+ */
+class RequestConcurrencyLimitFilterTests {
+
+  private SimpleMeterRegistry meterRegistry;
+  private RequestConcurrencyLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    AppProperties properties = new AppProperties();
+    properties.getConcurrency().setMaxInFlightRequests(1);
+    meterRegistry = new SimpleMeterRegistry();
+    filter = new RequestConcurrencyLimitFilter(properties, 10, meterRegistry);
+  }
+
+  @Test
+  void shouldRejectRequestsBeyondLimit() throws Exception {
+    AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+    MockFilterChain outerChain = new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) {
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        try {
+          filter.doFilter(apiRequest(), inner, new MockFilterChain());
+        } catch (Exception ex) {
+          throw new IllegalStateException(ex);
+        }
+        nested.set(inner);
+      }
+    };
+
+    MockHttpServletResponse outer = new MockHttpServletResponse();
+    filter.doFilter(apiRequest(), outer, outerChain);
+
+    assertThat(outer.getStatus()).isEqualTo(200);
+    assertThat(nested.get().getStatus()).isEqualTo(503);
+    assertThat(nested.get().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    assertThat(meterRegistry.get("shopping.cart.requests.rejected").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("shopping.cart.requests.in.flight").gauge().value()).isZero();
+    assertThat(meterRegistry.get("shopping.cart.requests.limit").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldDeriveMaximumFromPoolSizeAndRejectOneBeyondIt() {
+    AppProperties.Concurrency concurrency = new AppProperties().getConcurrency();
+    assertThat(RequestConcurrencyLimitFilter.maxInFlightRequests(concurrency, 10)).isEqualTo(40);
+
+    concurrency.setMaxInFlightRequests(30);
+    assertThat(RequestConcurrencyLimitFilter.maxInFlightRequests(concurrency, 10)).isEqualTo(30);
+
+    concurrency.setMaxInFlightRequests(200);
+    assertThatThrownBy(() -> RequestConcurrencyLimitFilter.maxInFlightRequests(concurrency, 10))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("max-in-flight-requests (200)");
+  }
+
+  @Test
+  void shouldReleaseSlotAfterRequest() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      filter.doFilter(apiRequest(), response, new MockFilterChain());
+      assertThat(response.getStatus()).isEqualTo(200);
+    }
+  }
+
+  @Test
+  void shouldNotLimitNonApiPaths() throws Exception {
+    AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+    MockFilterChain outerChain = new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) {
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        try {
+          filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), inner, new MockFilterChain());
+        } catch (Exception ex) {
+          throw new IllegalStateException(ex);
+        }
+        nested.set(inner);
+      }
+    };
+
+    filter.doFilter(apiRequest(), new MockHttpServletResponse(), outerChain);
+
+    assertThat(nested.get().getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void shouldShrinkLimitOnServerErrorsButNotOnClientErrors() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RequestConcurrencyLimitFilter adaptive = new RequestConcurrencyLimitFilter(new AppProperties(), 10, registry);
+    Gauge limit = registry.get("shopping.cart.requests.limit").gauge();
+
+    for (int i = 0; i < 5; i++) {
+      adaptive.doFilter(apiRequest(), new MockHttpServletResponse(), respondWith(404));
+    }
+    assertThat(limit.value()).isEqualTo(20);
+
+    for (int i = 0; i < 3; i++) {
+      adaptive.doFilter(apiRequest(), new MockHttpServletResponse(), respondWith(500));
+    }
+    assertThat(limit.value()).isEqualTo(14);
+
+    MockFilterChain failing = new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) {
+        throw new IllegalStateException("Connection is not available, request timed out");
+      }
+    };
+    for (int i = 0; i < 10; i++) {
+      assertThatThrownBy(() -> adaptive.doFilter(apiRequest(), new MockHttpServletResponse(), failing))
+          .isInstanceOf(IllegalStateException.class);
+    }
+    assertThat(limit.value()).isEqualTo(8);
+  }
+
+  private static MockFilterChain respondWith(int status) {
+    return new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) {
+        ((MockHttpServletResponse) response).setStatus(status);
+      }
+    };
+  }
+
+  private static MockHttpServletRequest apiRequest() {
+    return new MockHttpServletRequest("GET", "/api/shopping-carts");
+  }
+}
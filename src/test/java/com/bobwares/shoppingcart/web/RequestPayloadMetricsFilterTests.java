@@ -0,0 +1,76 @@
+/**
+ * App: Shopping Cart API
+ * Package: com.bobwares.shoppingcart.web
+ * File: RequestPayloadMetricsFilterTests.java
+ * Version: 0.1.0
+ * Turns: 3
+ * Author: Bobwares
+ * Date: 2026-10-18T00:00:00Z
+ * Exports: RequestPayloadMetricsFilterTests
+ * Description: Unit tests for the request and response payload size summaries.
+ */
+package com.bobwares.shoppingcart.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for {@link RequestPayloadMetricsFilter}.
+ */
+class RequestPayloadMetricsFilterTests {
+
+  private SimpleMeterRegistry meterRegistry;
+  private RequestPayloadMetricsFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    filter = new RequestPayloadMetricsFilter(meterRegistry);
+  }
+
+  @Test
+  void shouldRecordBytesReadFromChunkedRequestAndWrittenToResponse() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/shopping-carts/import") {
+      @Override
+      public long getContentLengthLong() {
+        return -1;
+      }
+    };
+    request.setContent("{\"userId\":1}\n{\"userId\":2}\n".getBytes(StandardCharsets.UTF_8));
+    FilterChain chain = (req, res) -> {
+      req.getInputStream().readAllBytes();
+      res.getOutputStream().write(new byte[100]);
+      res.getWriter().write("done");
+    };
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    assertThat(summary(RequestPayloadMetricsFilter.PAYLOAD_SUMMARY, "POST").totalAmount()).isEqualTo(26);
+    assertThat(summary(RequestPayloadMetricsFilter.RESPONSE_PAYLOAD_SUMMARY, "POST").totalAmount()).isEqualTo(104);
+  }
+
+  @Test
+  void shouldFallBackToContentLengthOfUnreadBodyAndSkipEmptyResponses() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/shopping-carts/1");
+    request.setContent(new byte[42]);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(request, response, (req, res) -> ((HttpServletResponse) res).setStatus(204));
+
+    assertThat(summary(RequestPayloadMetricsFilter.PAYLOAD_SUMMARY, "PUT").totalAmount()).isEqualTo(42);
+    assertThat(meterRegistry.find(RequestPayloadMetricsFilter.RESPONSE_PAYLOAD_SUMMARY).summary()).isNull();
+  }
+
+  private DistributionSummary summary(String name, String method) {
+    return meterRegistry.get(name).tag("method", method).summary();
+  }
+}